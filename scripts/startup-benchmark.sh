@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Misst die Zeit vom Container-Start bis zum ersten erfolgreichen Request (inkl. DB-Zugriff)
+# sowie den Speicherverbrauch (RSS) danach.
+#
+# Aufruf: scripts/startup-benchmark.sh <image> [läufe]
+# Beispiel: docker build -t watchlist:jvm . && scripts/startup-benchmark.sh watchlist:jvm 5
+set -euo pipefail
+
+IMAGE="${1:?Image angeben, z.B. watchlist:jvm}"
+RUNS="${2:-5}"
+NETWORK="startup-bench"
+DB_CONTAINER="startup-bench-db"
+APP_CONTAINER="startup-bench-app"
+PORT=18080
+PROBE_URL="http://localhost:${PORT}/auth/available?username=startup-probe"
+
+cleanup() {
+  docker rm -f "$APP_CONTAINER" >/dev/null 2>&1 || true
+  docker rm -f "$DB_CONTAINER" >/dev/null 2>&1 || true
+  docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$DB_CONTAINER" --network "$NETWORK" \
+  -e POSTGRES_DB=watchlist -e POSTGRES_USER=watchlist -e POSTGRES_PASSWORD=watchlist \
+  postgres:16-alpine >/dev/null
+until docker exec "$DB_CONTAINER" pg_isready -U watchlist >/dev/null 2>&1; do sleep 0.5; done
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  docker rm -f "$APP_CONTAINER" >/dev/null 2>&1 || true
+
+  start=$(date +%s%N)
+  docker run -d --name "$APP_CONTAINER" --network "$NETWORK" -p "${PORT}:8080" \
+    -e DB_URL="jdbc:postgresql://${DB_CONTAINER}:5432/watchlist" \
+    -e DB_USER=watchlist -e DB_PASSWORD=watchlist -e OMDB_API_KEY=benchmark \
+    "$IMAGE" >/dev/null
+
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "$PROBE_URL")" = "200" ]; do
+    if ! docker ps -q -f "name=${APP_CONTAINER}" | grep -q .; then
+      echo "Container beendet:" >&2
+      docker logs "$APP_CONTAINER" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+
+  millis=$(( (end - start) / 1000000 ))
+  rss=$(docker stats --no-stream --format '{{.MemUsage}}' "$APP_CONTAINER" | cut -d' ' -f1)
+  echo "Lauf ${run}: erster Request nach ${millis} ms, RSS ${rss}"
+  results+=("$millis")
+done
+
+median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : int((a[NR/2] + a[NR/2+1]) / 2)}')
+echo "${IMAGE}: Median bis zum ersten erfolgreichen Request ${median} ms (${RUNS} Läufe)"
@@ -0,0 +1,83 @@
+package de.htwberlin.webtech.webtech;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson-(De-)Serialisierung der Payloads von WatchlistController und AuthController,
+ * mit demselben ObjectMapper-Setup wie in der Anwendung
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+AlwaysPreTouch"})
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final String[] TYPES = {"Film", "Serie", "Anime", "Dokumentation"};
+    private static final String[] GENRES = {"Sci-Fi", "Drama", "Komödie", "Thriller", "Action"};
+
+    private ObjectMapper objectMapper;
+    private byte[] watchlistRequestJson;
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+        @Param({"10", "1000"})
+        public int size;
+
+        public List<Watchlist> watchlist;
+        public List<AuthController.UserDTO> users;
+
+        @Setup
+        public void setUp() {
+            User user = new User("testuser", "test@example.com", "password", "Test", "User");
+            user.setId(1L);
+
+            watchlist = new ArrayList<>(size);
+            users = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Watchlist item = new Watchlist("Titel Nummer " + i, TYPES[i % TYPES.length],
+                        GENRES[i % GENRES.length], i % 3 == 0, i % 6, user);
+                item.setId((long) i);
+                item.setPosterUrl("https://m.media-amazon.com/images/M/poster-" + i + "._V1_SX300.jpg");
+                watchlist.add(item);
+
+                User u = new User("user" + i, "user" + i + "@example.com", "password", "Vorname" + i, "Nachname" + i);
+                u.setId((long) i);
+                u.setLastLogin(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(i));
+                users.add(new AuthController.UserDTO(u));
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        watchlistRequestJson = """
+                {"title":"Spider-Man: Across the Spider-Verse","type":"Film","genre":"Animation",\
+                "watched":true,"rating":5,"posterUrl":null,"userId":42}""".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeWatchlist(Payload payload) throws Exception {
+        return objectMapper.writeValueAsBytes(payload.watchlist);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers(Payload payload) throws Exception {
+        return objectMapper.writeValueAsBytes(payload.users);
+    }
+
+    @Benchmark
+    public WatchlistController.WatchlistRequest deserializeWatchlistRequest() throws Exception {
+        return objectMapper.readValue(watchlistRequestJson, WatchlistController.WatchlistRequest.class);
+    }
+}
\ No newline at end of file
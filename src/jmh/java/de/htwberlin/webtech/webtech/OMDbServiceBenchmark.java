@@ -0,0 +1,41 @@
+package de.htwberlin.webtech.webtech;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Titel-Bereinigung und Type-Mapping, die vor jeder OMDb-Anfrage laufen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+AlwaysPreTouch"})
+@State(Scope.Benchmark)
+public class OMDbServiceBenchmark {
+
+    private final OMDbService omdbService = new OMDbService();
+
+    @State(Scope.Benchmark)
+    public static class TitleState {
+        @Param({"Inception", "Spider-Man: Across the Spider-Verse", "  Amélie  (2001) - Die fabelhafte Welt  "})
+        public String title;
+    }
+
+    @State(Scope.Benchmark)
+    public static class TypeState {
+        @Param({"Film", "Dokumentation", "unbekannt"})
+        public String type;
+    }
+
+    @Benchmark
+    public String cleanTitle(TitleState state) {
+        return omdbService.cleanTitle(state.title);
+    }
+
+    @Benchmark
+    public String mapToOMDbType(TypeState state) {
+        return omdbService.mapToOMDbType(state.type);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package de.htwberlin.webtech.webtech;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tag-Abfragen wie in WatchlistTagIndex.query (alle/irgendeiner/keiner) für einen User mit vielen Einträgen und
+ * Tags: CompressedBitmap gegen HashSet-Mengen, dazu das Laden aller Tags eines Users aus der Binärform
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+AlwaysPreTouch"})
+@State(Scope.Benchmark)
+public class TagQueryBenchmark {
+
+    @Param({"10000"})
+    public int items;
+
+    @Param({"100", "500"})
+    public int tags;
+
+    private CompressedBitmap[] bitmaps;
+    private List<Set<Long>> sets;
+    private byte[][] stored;
+
+    // rewatch UND 2024-ziele UND (einer von drei weiteren Tags) OHNE mit-kindern
+    private final int[] all = {0, 3};
+    private final int[] any = {1, 5, 10};
+    private final int[] none = {2};
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        bitmaps = new CompressedBitmap[tags];
+        sets = new ArrayList<>(tags);
+        for (int t = 0; t < tags; t++) {
+            bitmaps[t] = new CompressedBitmap();
+            sets.add(new HashSet<>());
+        }
+
+        // IDs sind global vergeben - die Einträge eines Users liegen verstreut zwischen denen anderer User
+        long id = 0;
+        for (int i = 0; i < items; i++) {
+            id += 1 + random.nextInt(500);
+            int tagCount = 1 + random.nextInt(5);
+            for (int j = 0; j < tagCount; j++) {
+                // Wenige Tags sind häufig, die meisten selten
+                int tag = (int) (tags * Math.pow(random.nextDouble(), 3));
+                bitmaps[tag].add(id);
+                sets.get(tag).add(id);
+            }
+        }
+
+        stored = new byte[tags][];
+        for (int t = 0; t < tags; t++) {
+            stored[t] = bitmaps[t].toBytes();
+        }
+    }
+
+    @Benchmark
+    public long bitmapQuery() {
+        CompressedBitmap result = bitmaps[all[0]];
+        for (int i = 1; i < all.length; i++) {
+            result = result.and(bitmaps[all[i]]);
+        }
+        CompressedBitmap union = new CompressedBitmap();
+        for (int tag : any) {
+            union = union.or(bitmaps[tag]);
+        }
+        result = result.and(union);
+        for (int tag : none) {
+            result = result.andNot(bitmaps[tag]);
+        }
+        return result.cardinality();
+    }
+
+    @Benchmark
+    public long hashSetQuery() {
+        Set<Long> result = new HashSet<>(sets.get(all[0]));
+        for (int i = 1; i < all.length; i++) {
+            result.retainAll(sets.get(all[i]));
+        }
+        Set<Long> union = new HashSet<>();
+        for (int tag : any) {
+            union.addAll(sets.get(tag));
+        }
+        result.retainAll(union);
+        for (int tag : none) {
+            result.removeAll(sets.get(tag));
+        }
+        return result.size();
+    }
+
+    // Cache-Aufbau nach Ablauf der TTL: alle Zeilen aus watchlist_tag eines Users dekodieren
+    @Benchmark
+    public long loadAllTags() {
+        long total = 0;
+        for (byte[] bytes : stored) {
+            total += CompressedBitmap.fromBytes(bytes).cardinality();
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package de.htwberlin.webtech.webtech;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vergleicht Servlet-API (/Watchlist) und reaktive API (/v2/Watchlist) bei vielen gleichzeitig offenen Requests:
+ * Wie viele in Bearbeitung befindliche Verbindungen passen in ein MB Heap?
+ *
+ * Jeder Request legt einen Eintrag ohne Cover an und wartet damit auf den OMDb-Stub (feste Latenz), hält die
+ * Verbindung also für die Dauer der Latenz offen. Gemessen wird der belegte Heap nach GC vor der Last und
+ * mitten in der Haltephase. Client und Server laufen in derselben JVM; der Client-Anteil ist für beide
+ * Varianten gleich und im Ergebnis enthalten.
+ *
+ * Parameter per -Pdensity.*: connections (1000), holdMillis (3000)
+ */
+public class ConnectionDensityBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.parseInt(System.getProperty("density.connections", "1000"));
+        long holdMillis = Long.parseLong(System.getProperty("density.holdMillis", "3000"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("connections", connections);
+        report.put("holdMillis", holdMillis);
+
+        try (OmdbStub stub = new OmdbStub("fixed:" + holdMillis, 0, 0, 0);
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(WebtechApplication.class)
+                     .profiles("loadtest")
+                     .properties(
+                             "omdb.base-url=" + stub.baseUrl(),
+                             // Das adaptive OMDb-Limit der Servlet-API würde die gehaltenen Requests sonst mit 503 abweisen
+                             "omdb.concurrency.initial-limit=" + connections,
+                             "omdb.concurrency.max-limit=" + connections,
+                             "omdb.concurrency.latency-tolerance=1000")
+                     .run(args)) {
+
+            int servletPort = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            int reactivePort = app.getBean(ReactiveApiServer.class).port();
+
+            ConnectionDensityBenchmark benchmark = new ConnectionDensityBenchmark();
+            long userId = benchmark.registerUser("http://127.0.0.1:" + servletPort);
+
+            report.put("servlet", benchmark.measure("http://127.0.0.1:" + servletPort + "/Watchlist", userId, connections, holdMillis));
+            report.put("reactive", benchmark.measure("http://127.0.0.1:" + reactivePort + "/v2/Watchlist", userId, connections, holdMillis));
+        }
+
+        print(report);
+        writeReport(report);
+        System.exit(0);
+    }
+
+    private long registerUser(String baseUrl) throws Exception {
+        String username = "density-" + Long.toString(System.currentTimeMillis(), 36);
+        HttpResponse<String> response = httpClient.send(json(baseUrl + "/auth/register", Map.of(
+                "username", username,
+                "email", username + "@example.com",
+                "password", "density-password",
+                "firstName", "Density",
+                "lastName", "Test")), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Registrierung fehlgeschlagen: " + response.body());
+        }
+        return objectMapper.readTree(response.body()).path("user").path("id").asLong();
+    }
+
+    private Map<String, Object> measure(String url, long userId, int connections, long holdMillis) throws Exception {
+        long baseline = usedHeapAfterGc();
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> requests = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            HttpRequest request = json(url, Map.of(
+                    "title", "Density " + i,
+                    "type", "Film",
+                    "genre", "Drama",
+                    "userId", userId));
+            requests.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error == null && response.statusCode() == 200) {
+                            ok.increment();
+                        } else {
+                            failed.increment();
+                        }
+                        return null;
+                    }));
+        }
+
+        // Mitte der Haltephase: alle Verbindungen offen, OMDb-Antworten stehen noch aus
+        Thread.sleep(holdMillis / 2);
+        long loaded = usedHeapAfterGc();
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        double deltaMb = Math.max(loaded - baseline, 1) / (1024.0 * 1024.0);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ok", ok.sum());
+        result.put("failed", failed.sum());
+        result.put("elapsedMillis", elapsedMillis);
+        result.put("heapDeltaMb", Math.round(deltaMb * 100) / 100.0);
+        result.put("connectionsPerMb", Math.round(connections / deltaMb * 100) / 100.0);
+        return result;
+    }
+
+    private HttpRequest json(String url, Map<String, Object> body) throws Exception {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        System.out.printf("%-10s %8s %8s %12s %12s %16s%n", "API", "ok", "failed", "Dauer ms", "Heap MB", "Verbindungen/MB");
+        for (String api : List.of("servlet", "reactive")) {
+            Map<String, Object> values = (Map<String, Object>) report.get(api);
+            System.out.printf("%-10s %8s %8s %12s %12s %16s%n", api, values.get("ok"), values.get("failed"),
+                    values.get("elapsedMillis"), values.get("heapDeltaMb"), values.get("connectionsPerMb"));
+        }
+    }
+
+    private static void writeReport(Map<String, Object> report) throws Exception {
+        String path = System.getProperty("density.reportFile");
+        if (path == null) return;
+
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Ergebnis: " + file.getAbsolutePath());
+    }
+}
\ No newline at end of file
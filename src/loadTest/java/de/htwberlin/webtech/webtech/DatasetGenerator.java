@@ -0,0 +1,379 @@
+package de.htwberlin.webtech.webtech;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Lädt einen synthetischen Datenbestand in app_user und watchlist, z.B. Millionen User und
+ * zig Millionen Einträge für Benchmarks von Pagination, Statistiken, Suche und Caching.
+ *
+ * Verteilungen:
+ * - Titel nach Zipf (wenige sehr populäre Titel, langer Schwanz)
+ * - Einträge pro User nach Pareto (wenige Heavy User), gedeckelt auf ein Vielfaches des Medians
+ * - Type und Genre pro Titel fest, gewichtet; ein Teil der Genres als Liste ("Action, Sci-Fi"),
+ *   in der Schreibweise und mit type_id/genre_mask aus demselben Wörterbuch wie die App (CategoryDictionary)
+ *
+ * Gleicher Seed und gleiche Größen erzeugen denselben Datenbestand. Bei PostgreSQL wird per COPY
+ * geladen, sonst per JDBC-Batch. Aufruf: ./gradlew generateDataset -Pdataset.users=1000000 ...
+ */
+public class DatasetGenerator {
+
+    private static final String USER_SQL_COLUMNS = "id, username, email, password, first_name, last_name, created_at, last_login";
+    private static final String ITEM_SQL_COLUMNS = "id, title, type, genre, type_id, genre_mask, watched, rating, poster_url, user_id, sort_key";
+
+    // Wie V2__watchlist_stats.sql, beschränkt auf die neu erzeugten User
+    private static final String STATS_SQL =
+            "INSERT INTO watchlist_stats (user_id, total_count, watched_count, rated_count, rating_sum) "
+                    + "SELECT user_id, COUNT(*), COUNT(*) FILTER (WHERE watched), COUNT(*) FILTER (WHERE rating > 0), "
+                    + "COALESCE(SUM(rating) FILTER (WHERE rating > 0), 0) "
+                    + "FROM watchlist WHERE user_id BETWEEN ? AND ? GROUP BY user_id";
+    private static final String GENRE_STATS_SQL =
+            "INSERT INTO watchlist_genre_stats (user_id, genre, item_count) "
+                    + "SELECT user_id, genre, COUNT(*) FROM ("
+                    + "SELECT DISTINCT w.id, w.user_id, TRIM(part) AS genre FROM watchlist w "
+                    + "CROSS JOIN LATERAL unnest(string_to_array(w.genre, ',')) AS part "
+                    + "WHERE w.genre IS NOT NULL AND w.user_id BETWEEN ? AND ?) genres "
+                    + "WHERE genre <> '' GROUP BY user_id, genre";
+
+    private static final String[] TYPES = {"Film", "Serie", "Anime", "Dokumentation"};
+    private static final double[] TYPE_WEIGHTS = {55, 30, 10, 5};
+
+    private static final String[] GENRES = {"Drama", "Komödie", "Action", "Thriller", "Sci-Fi", "Horror",
+            "Romantik", "Animation", "Krimi", "Fantasy", "Abenteuer", "Dokumentation"};
+    private static final double[] GENRE_WEIGHTS = {20, 15, 14, 10, 8, 7, 7, 5, 5, 4, 3, 2};
+
+    private static final String[] ADJECTIVES = {"Dark", "Silent", "Last", "Lost", "Hidden", "Broken", "Golden",
+            "Eternal", "Wild", "Frozen", "Crimson", "Secret", "Final", "Endless", "Shattered", "Burning",
+            "Forgotten", "Distant", "Savage", "Quiet"};
+    private static final String[] NOUNS = {"Empire", "River", "Night", "Kingdom", "Signal", "Garden", "Storm",
+            "Horizon", "Witness", "Frontier", "Legacy", "Shadow", "Ocean", "Machine", "Promise", "City",
+            "Island", "Code", "Voyage", "Crown", "Harbor", "Station", "Echo", "Planet", "Mirror"};
+    private static final String[] PATTERNS = {"The %s %s", "%s %s", "Return of the %s %s", "The %s %s Chronicles"};
+
+    private final SplittableRandom random;
+    private final DiscreteSampler titleSampler;
+    private final DiscreteSampler typeSampler = DiscreteSampler.ofWeights(TYPE_WEIGHTS);
+    private final DiscreteSampler genreSampler = DiscreteSampler.ofWeights(GENRE_WEIGHTS);
+    private final int batchSize;
+
+    // Type/Genre hängen am Titel, nicht am Eintrag
+    private final byte[] titleTypes;
+    private final String[] titleGenres;
+
+    DatasetGenerator(long seed, int titleCount, double zipfExponent, int batchSize) {
+        this.random = new SplittableRandom(seed);
+        this.titleSampler = DiscreteSampler.zipf(titleCount, zipfExponent);
+        this.batchSize = batchSize;
+
+        this.titleTypes = new byte[titleCount];
+        this.titleGenres = new String[titleCount];
+        for (int k = 0; k < titleCount; k++) {
+            titleTypes[k] = (byte) typeSampler.sample(random);
+            String genre = GENRES[genreSampler.sample(random)];
+            if (random.nextDouble() < 0.3) {
+                String second = GENRES[genreSampler.sample(random)];
+                if (!second.equals(genre)) {
+                    genre = genre + ", " + second;
+                }
+            }
+            titleGenres[k] = genre;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("dataset.jdbcUrl", System.getenv("DB_URL"));
+        String user = System.getProperty("dataset.user", System.getenv("DB_USER"));
+        String password = System.getProperty("dataset.password", System.getenv("DB_PASSWORD"));
+        long users = Long.parseLong(System.getProperty("dataset.users", "1000000"));
+        long items = Long.parseLong(System.getProperty("dataset.items", "20000000"));
+        long seed = Long.parseLong(System.getProperty("dataset.seed", "42"));
+        int titles = Integer.parseInt(System.getProperty("dataset.titles", "100000"));
+        double zipfExponent = Double.parseDouble(System.getProperty("dataset.zipfExponent", "1.07"));
+        double paretoAlpha = Double.parseDouble(System.getProperty("dataset.paretoAlpha", "1.2"));
+        int batchSize = Integer.parseInt(System.getProperty("dataset.batchSize", "5000"));
+
+        if (url == null) {
+            throw new IllegalArgumentException("dataset.jdbcUrl bzw. DB_URL fehlt");
+        }
+
+        DatasetGenerator generator = new DatasetGenerator(seed, titles, zipfExponent, batchSize);
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            long start = System.nanoTime();
+            generator.generate(connection, users, items, paretoAlpha);
+            System.out.printf("Fertig: %,d User, %,d Einträge in %.1f s%n",
+                    users, items, (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    void generate(Connection connection, long users, long items, double paretoAlpha) throws Exception {
+        boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        connection.setAutoCommit(false);
+
+        // Schreibweisen, Type-IDs und Genre-Bits einmal auflösen; fehlende Werte registriert das Wörterbuch
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+        CategoryDictionary categories = new CategoryDictionary(dataSource);
+        String[] typeNames = new String[TYPES.length];
+        Short[] typeIds = new Short[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++) {
+            typeNames[t] = categories.canonicalType(TYPES[t]);
+            typeIds[t] = categories.findTypeId(typeNames[t]);
+        }
+        String[] genreNames = new String[titleGenres.length];
+        long[] genreMasks = new long[titleGenres.length];
+        for (int k = 0; k < titleGenres.length; k++) {
+            genreNames[k] = categories.canonicalGenres(titleGenres[k]);
+            genreMasks[k] = categories.findGenreMask(genreNames[k]);
+        }
+
+        long firstUserId = nextId(connection, "app_user");
+        long firstItemId = nextId(connection, "watchlist");
+
+        // Ein Hash für alle User: BCrypt pro Zeile würde die Generierung dominieren
+        String passwordHash = new BCryptPasswordEncoder().encode("password");
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        double[] userWeights = paretoWeights((int) users, paretoAlpha);
+        DiscreteSampler userSampler = DiscreteSampler.ofWeights(userWeights);
+
+        try (TableWriter writer = openWriter(connection, postgres, "app_user", USER_SQL_COLUMNS, 8)) {
+            for (long i = 0; i < users; i++) {
+                long id = firstUserId + i;
+                LocalDateTime createdAt = now.minusMinutes(random.nextLong(3L * 365 * 24 * 60));
+                LocalDateTime lastLogin = random.nextDouble() < 0.8
+                        ? createdAt.plusMinutes(random.nextLong(Math.max(1, Duration.between(createdAt, now).toMinutes())))
+                        : null;
+                writer.write(id, "user" + id, "user" + id + "@example.com", passwordHash,
+                        "Vorname" + (id % 1000), "Nachname" + (id % 5000), createdAt, lastLogin);
+                progress("User", i + 1);
+            }
+        }
+        connection.commit();
+
+        // Reihenfolge wie angelegt: ein Zeitstempel-Schlüssel pro Eintrag, jeweils eine Millisekunde später
+        long sortKeyBase = System.currentTimeMillis() - items;
+        try (TableWriter writer = openWriter(connection, postgres, "watchlist", ITEM_SQL_COLUMNS, 11)) {
+            for (long i = 0; i < items; i++) {
+                int rank = titleSampler.sample(random);
+                boolean watched = random.nextDouble() < 0.4;
+                writer.write(firstItemId + i,
+                        title(rank),
+                        typeNames[titleTypes[rank]],
+                        genreNames[rank],
+                        typeIds[titleTypes[rank]],
+                        genreMasks[rank],
+                        watched,
+                        watched ? 1 + random.nextInt(5) : 0,
+                        random.nextDouble() < 0.85 ? "https://m.media-amazon.com/images/M/gen-" + rank + "._V1_SX300.jpg" : null,
+                        firstUserId + userSampler.sample(random),
+                        RankKeys.forTimestamp(sortKeyBase + i));
+                progress("Einträge", i + 1);
+            }
+        }
+        connection.commit();
+
+        resetIdentity(connection, postgres, "app_user", firstUserId + users);
+        resetIdentity(connection, postgres, "watchlist", firstItemId + items);
+        connection.commit();
+
+        buildStats(connection, postgres, firstUserId, firstUserId + users - 1);
+        if (postgres) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE app_user");
+                statement.execute("ANALYZE watchlist");
+                statement.execute("ANALYZE watchlist_stats");
+                statement.execute("ANALYZE watchlist_genre_stats");
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Statistik der neuen User aufbauen; die App schreibt sie sonst nur inkrementell fort.
+     * PostgreSQL mengenbasiert per SQL, andere Datenbanken über den Reconciler der App.
+     */
+    private static void buildStats(Connection connection, boolean postgres, long firstUserId, long lastUserId)
+            throws SQLException {
+        if (postgres) {
+            for (String sql : new String[]{STATS_SQL, GENRE_STATS_SQL}) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setLong(1, firstUserId);
+                    statement.setLong(2, lastUserId);
+                    statement.executeUpdate();
+                }
+            }
+        } else {
+            SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+            WatchlistStatsReconciler reconciler = new WatchlistStatsReconciler(new JdbcTemplate(dataSource),
+                    new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), 0);
+            for (long from = firstUserId - 1; from < lastUserId; from += 10_000) {
+                reconciler.reconcile(from, Math.min(from + 10_000, lastUserId));
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Titel für einen Zipf-Rang; populäre Ränge bekommen die kurzen Namen, danach folgen "Fortsetzungen"
+     */
+    String title(int rank) {
+        int a = rank % ADJECTIVES.length;
+        int n = (rank / ADJECTIVES.length) % NOUNS.length;
+        int combinations = ADJECTIVES.length * NOUNS.length;
+        int p = (rank / combinations) % PATTERNS.length;
+        int sequel = rank / (combinations * PATTERNS.length);
+
+        String title = String.format(PATTERNS[p], ADJECTIVES[a], NOUNS[n]);
+        return sequel == 0 ? title : title + " " + (sequel + 1);
+    }
+
+    /**
+     * Pareto-Gewichte (Heavy User), gedeckelt auf das 1000-fache des Minimums
+     */
+    private double[] paretoWeights(int users, double alpha) {
+        double[] weights = new double[users];
+        for (int i = 0; i < users; i++) {
+            weights[i] = Math.min(Math.pow(1 - random.nextDouble(), -1 / alpha), 1000);
+        }
+        return weights;
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void resetIdentity(Connection connection, boolean postgres, String table, long nextId)
+            throws SQLException {
+        String sql = postgres
+                ? "SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " + (nextId - 1) + ")"
+                : "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static void progress(String label, long rows) {
+        if (rows % 1_000_000 == 0) {
+            System.out.printf("%s: %,d%n", label, rows);
+        }
+    }
+
+    private TableWriter openWriter(Connection connection, boolean postgres, String table, String columns, int columnCount)
+            throws SQLException {
+        return postgres
+                ? new CopyWriter(connection, "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)")
+                : new BatchWriter(connection, "INSERT INTO " + table + " (" + columns + ") VALUES ("
+                        + "?, ".repeat(columnCount - 1) + "?)", batchSize);
+    }
+
+    interface TableWriter extends AutoCloseable {
+
+        void write(Object... values) throws Exception;
+
+        @Override
+        void close() throws Exception;
+    }
+
+    /**
+     * PostgreSQL COPY im CSV-Format, gestreamt ohne Zwischendatei
+     */
+    private static class CopyWriter implements TableWriter {
+
+        private final Writer out;
+
+        CopyWriter(Connection connection, String sql) throws SQLException {
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql, 1 << 16);
+            this.out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        @Override
+        public void write(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                Object value = values[i];
+                if (value instanceof String s) {
+                    out.write('"');
+                    out.write(s.replace("\"", "\"\""));
+                    out.write('"');
+                } else if (value != null) {
+                    // null bleibt ein leeres, nicht gequotetes Feld = NULL
+                    out.write(value.toString());
+                }
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * JDBC-Batch-Insert für andere Datenbanken (z.B. H2)
+     */
+    private static class BatchWriter implements TableWriter {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int pending;
+
+        BatchWriter(Connection connection, String sql, int batchSize) throws SQLException {
+            this.connection = connection;
+            this.statement = connection.prepareStatement(sql);
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void write(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            statement.executeBatch();
+            connection.commit();
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (pending > 0) {
+                    flush();
+                }
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package de.htwberlin.webtech.webtech;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zieht Indizes 0..n-1 nach vorgegebenen Gewichten. Die kumulierte Verteilung wird einmal
+ * vorberechnet, jeder Zug ist eine Binärsuche.
+ */
+class DiscreteSampler {
+
+    private final double[] cdf;
+
+    private DiscreteSampler(double[] weights) {
+        cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    /**
+     * Zipf-Verteilung: P(k) ~ 1 / (k+1)^s, Rang 0 ist der häufigste
+     */
+    static DiscreteSampler zipf(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int k = 0; k < n; k++) {
+            weights[k] = 1.0 / Math.pow(k + 1, exponent);
+        }
+        return new DiscreteSampler(weights);
+    }
+
+    static DiscreteSampler ofWeights(double[] weights) {
+        return new DiscreteSampler(weights);
+    }
+
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        // Kein exakter Treffer: Einfügeposition = erster Wert größer als der Zufallswert
+        return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+    }
+}
\ No newline at end of file
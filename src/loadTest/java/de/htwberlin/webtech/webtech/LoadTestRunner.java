@@ -0,0 +1,374 @@
+package de.htwberlin.webtech.webtech;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-End-Lasttest: startet die App mit H2 gegen einen lokalen OMDb-Stub, fährt eine gemischte
+ * Last (create/read/update/delete/login) und gibt Durchsatz und Latenz-Perzentile pro Operation aus.
+ *
+ * Alle Parameter sind System-Properties mit Präfix "loadTest." (siehe Task loadTest in build.gradle).
+ * Überschreitet das Ergebnis die Schwellwerte (loadTest.gate.*), endet der Prozess mit Exit-Code 1.
+ */
+public class LoadTestRunner {
+
+    enum Operation { CREATE, READ, UPDATE, DELETE, LOGIN }
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final String[] TITLES = {
+            "Inception", "The Matrix", "Interstellar", "Breaking Bad", "Dark", "Parasite", "Spirited Away",
+            "The Office", "Arrival", "Dune", "Fargo", "Chernobyl", "Amelie", "Oldboy", "Alien", "Heat"
+    };
+    private static final String[] TYPES = {"Film", "Serie", "Anime", "Dokumentation"};
+    private static final String[] GENRES = {"Sci-Fi", "Drama", "Komödie", "Thriller", "Action"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    // Registrierte Test-User, gleicher Index in beiden Listen
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<String> usernames = new ArrayList<>();
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+
+    LoadTestRunner(String baseUrl, Map<Operation, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int durationSeconds = intProperty("durationSeconds", 60);
+        int warmupSeconds = intProperty("warmupSeconds", 15);
+        int threads = intProperty("threads", 32);
+        int users = intProperty("users", 50);
+        // Zusätzliche Profile, z.B. -PloadTest.profiles=virtual-threads für den Vergleich mit Plattform-Threads
+        String[] profiles = profiles(System.getProperty("loadTest.profiles", ""));
+
+        int exitCode;
+        try (OmdbStub stub = new OmdbStub(
+                System.getProperty("loadTest.stub.latency", "lognormal:80:0.5"),
+                doubleProperty("stub.errorRate", 0.01),
+                doubleProperty("stub.notFoundRate", 0.05),
+                doubleProperty("stub.naRate", 0.10));
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(WebtechApplication.class)
+                     .profiles(profiles)
+                     .properties("omdb.base-url=" + stub.baseUrl())
+                     .run(args)) {
+
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            LoadTestRunner runner = new LoadTestRunner("http://127.0.0.1:" + port,
+                    parseWeights(System.getProperty("loadTest.mix", "create=20,read=50,update=15,delete=5,login=10")));
+
+            runner.registerUsers(users);
+
+            System.out.printf("Aufwärmen: %d s mit %d Threads%n", warmupSeconds, threads);
+            runner.run(threads, warmupSeconds);
+
+            System.out.printf("Messung: %d s mit %d Threads%n", durationSeconds, threads);
+            Map<Operation, Stats> stats = runner.run(threads, durationSeconds);
+
+            Map<String, Object> report = report(stats, durationSeconds, threads, stub);
+            report.put("profiles", List.of(profiles));
+            printReport(stats, durationSeconds, stub);
+            writeReport(report);
+            exitCode = checkGates(stats, durationSeconds) ? 0 : 1;
+        }
+        System.exit(exitCode);
+    }
+
+    private void registerUsers(int count) throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < count; i++) {
+            String username = "load-" + runId + "-" + i;
+            HttpResponse<String> response = send(post("/auth/register", Map.of(
+                    "username", username,
+                    "email", username + "@example.com",
+                    "password", PASSWORD,
+                    "firstName", "Load",
+                    "lastName", "Test")));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Registrierung fehlgeschlagen: " + response.body());
+            }
+            userIds.add(objectMapper.readTree(response.body()).path("user").path("id").asLong());
+            usernames.add(username);
+        }
+    }
+
+    private Map<Operation, Stats> run(int threads, int seconds) throws InterruptedException {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> workerLoop(stats, deadline));
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return stats;
+    }
+
+    /**
+     * Geschlossene Last: jeder Worker schickt den nächsten Request, sobald der vorige beantwortet ist
+     */
+    private void workerLoop(Map<Operation, Stats> stats, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Eigene Einträge des Workers (id, userId) für Update/Delete
+        List<long[]> ownItems = new ArrayList<>();
+
+        while (System.nanoTime() < deadline) {
+            Operation operation = pick(random.nextInt(totalWeight));
+            if ((operation == Operation.UPDATE || operation == Operation.DELETE) && ownItems.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+
+            int userIndex = random.nextInt(userIds.size());
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = execute(operation, userIndex, ownItems, random);
+            } catch (Exception e) {
+                status = -1;
+            }
+            stats.get(operation).record(System.nanoTime() - start, status);
+        }
+    }
+
+    private int execute(Operation operation, int userIndex, List<long[]> ownItems, ThreadLocalRandom random)
+            throws Exception {
+        long userId = userIds.get(userIndex);
+        switch (operation) {
+            case CREATE: {
+                HttpResponse<String> response = send(post("/Watchlist", watchlistRequest(userId, random)));
+                if (response.statusCode() == 200) {
+                    ownItems.add(new long[]{objectMapper.readTree(response.body()).path("id").asLong(), userId});
+                }
+                return response.statusCode();
+            }
+            case READ:
+                return send(HttpRequest.newBuilder(uri("/Watchlist?userId=" + userId)).GET().build()).statusCode();
+            case UPDATE: {
+                long[] item = ownItems.get(random.nextInt(ownItems.size()));
+                HttpRequest request = HttpRequest.newBuilder(uri("/Watchlist/" + item[0]))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(
+                                objectMapper.writeValueAsString(watchlistRequest(item[1], random))))
+                        .build();
+                return send(request).statusCode();
+            }
+            case DELETE: {
+                long[] item = ownItems.remove(random.nextInt(ownItems.size()));
+                return send(HttpRequest.newBuilder(uri("/Watchlist/" + item[0] + "?userId=" + item[1]))
+                        .DELETE().build()).statusCode();
+            }
+            case LOGIN:
+                return send(post("/auth/login", Map.of("username", usernames.get(userIndex), "password", PASSWORD)))
+                        .statusCode();
+            default:
+                throw new IllegalStateException("Unbekannte Operation: " + operation);
+        }
+    }
+
+    private Map<String, Object> watchlistRequest(long userId, ThreadLocalRandom random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", TITLES[random.nextInt(TITLES.length)]);
+        body.put("type", TYPES[random.nextInt(TYPES.length)]);
+        body.put("genre", GENRES[random.nextInt(GENRES.length)]);
+        body.put("watched", random.nextBoolean());
+        body.put("rating", random.nextInt(6));
+        body.put("userId", userId);
+        return body;
+    }
+
+    private Operation pick(int roll) {
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Operation.READ;
+    }
+
+    private HttpRequest post(String path, Object body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    /**
+     * Latenzen (µs) und Status-Klassen einer Operation
+     */
+    static class Stats {
+        // Bis 60 s, 3 signifikante Stellen
+        final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        void record(long nanos, int status) {
+            latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latencyMicros.getHighestTrackableValue()));
+            if (status == 429 || status == 503) {
+                rejected.increment();
+            } else if (status < 200 || status >= 400) {
+                errors.increment();
+            }
+        }
+
+        long count() {
+            return latencyMicros.getTotalCount();
+        }
+
+        double percentileMillis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private static void printReport(Map<Operation, Stats> stats, int seconds, OmdbStub stub) {
+        System.out.println();
+        System.out.println("Operation |   Anzahl |    Ops/s |  p50 ms |  p90 ms |  p99 ms | p99.9 ms |  max ms | Fehler | Abgelehnt");
+        long total = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            total += s.count();
+            System.out.printf("%-9s | %8d | %8.1f | %7.1f | %7.1f | %7.1f | %8.1f | %7.1f | %6d | %9d%n",
+                    entry.getKey(), s.count(), s.count() / (double) seconds,
+                    s.percentileMillis(50), s.percentileMillis(90), s.percentileMillis(99),
+                    s.percentileMillis(99.9), s.latencyMicros.getMaxValue() / 1000.0,
+                    s.errors.sum(), s.rejected.sum());
+        }
+        System.out.printf("Gesamt: %.1f Ops/s | OMDb-Stub: %d Anfragen, %d injizierte Fehler%n",
+                total / (double) seconds, stub.requestCount(), stub.errorCount());
+    }
+
+    private static String[] profiles(String extra) {
+        List<String> profiles = new ArrayList<>(List.of("loadtest"));
+        for (String profile : extra.split(",")) {
+            if (!profile.isBlank()) {
+                profiles.add(profile.trim());
+            }
+        }
+        return profiles.toArray(String[]::new);
+    }
+
+    private static Map<String, Object> report(Map<Operation, Stats> stats, int seconds, int threads, OmdbStub stub) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", seconds);
+        report.put("threads", threads);
+        report.put("omdbStubRequests", stub.requestCount());
+        report.put("omdbStubErrors", stub.errorCount());
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", s.count());
+            values.put("throughput", s.count() / (double) seconds);
+            values.put("p50Ms", s.percentileMillis(50));
+            values.put("p90Ms", s.percentileMillis(90));
+            values.put("p99Ms", s.percentileMillis(99));
+            values.put("p999Ms", s.percentileMillis(99.9));
+            values.put("maxMs", s.latencyMicros.getMaxValue() / 1000.0);
+            values.put("errors", s.errors.sum());
+            values.put("rejected", s.rejected.sum());
+            operations.put(entry.getKey().name().toLowerCase(), values);
+        }
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static void writeReport(Map<String, Object> report) throws Exception {
+        String path = System.getProperty("loadTest.reportFile");
+        if (path == null) return;
+
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Ergebnis: " + file.getAbsolutePath());
+    }
+
+    /**
+     * Regression-Gate: Fehlerquote, p99 pro Operation und Gesamtdurchsatz gegen die Schwellwerte prüfen
+     */
+    private static boolean checkGates(Map<Operation, Stats> stats, int seconds) {
+        double maxErrorRate = doubleProperty("gate.maxErrorRate", 0.02);
+        double maxP99Millis = doubleProperty("gate.maxP99Millis", 0);
+        double minThroughput = doubleProperty("gate.minThroughput", 0);
+
+        boolean passed = true;
+        long total = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            total += s.count();
+            errors += s.errors.sum();
+            if (maxP99Millis > 0 && s.count() > 0 && s.percentileMillis(99) > maxP99Millis) {
+                System.out.printf("GATE: p99 von %s %.1f ms > %.1f ms%n", entry.getKey(), s.percentileMillis(99), maxP99Millis);
+                passed = false;
+            }
+        }
+
+        double errorRate = total == 0 ? 1.0 : errors / (double) total;
+        if (errorRate > maxErrorRate) {
+            System.out.printf("GATE: Fehlerquote %.3f > %.3f%n", errorRate, maxErrorRate);
+            passed = false;
+        }
+        if (minThroughput > 0 && total / (double) seconds < minThroughput) {
+            System.out.printf("GATE: Durchsatz %.1f Ops/s < %.1f Ops/s%n", total / (double) seconds, minThroughput);
+            passed = false;
+        }
+        return passed;
+    }
+
+    static Map<Operation, Integer> parseWeights(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] keyValue = part.trim().split("=");
+            weights.put(Operation.valueOf(keyValue[0].trim().toUpperCase()), Integer.parseInt(keyValue[1].trim()));
+        }
+        return weights;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("loadTest." + name, Integer.toString(defaultValue)));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty("loadTest." + name, Double.toString(defaultValue)));
+    }
+}
\ No newline at end of file
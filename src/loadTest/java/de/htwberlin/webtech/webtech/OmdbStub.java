@@ -0,0 +1,154 @@
+package de.htwberlin.webtech.webtech;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lokaler HTTP-Stub für omdbapi.com mit einstellbarer Latenz und Fehlerinjektion.
+ *
+ * Latenz-Verteilungen: "fixed:50" (ms), "uniform:20:200" (min/max ms), "lognormal:50:0.6" (Median ms / Sigma).
+ * Pro Anfrage wird gewürfelt: HTTP 500 (errorRate), "Response":"False" (notFoundRate),
+ * Poster "N/A" (naRate), sonst ein Treffer mit Poster-URL.
+ */
+public class OmdbStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double notFoundRate;
+    private final double naRate;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public OmdbStub(String latency, double errorRate, double notFoundRate, double naRate) throws IOException {
+        this.latency = LatencyDistribution.parse(latency);
+        this.errorRate = errorRate;
+        this.notFoundRate = notFoundRate;
+        this.naRate = naRate;
+
+        // Ein virtueller Thread pro Anfrage, damit simulierte Latenz keine Threads blockiert
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    public long errorCount() {
+        return errors.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            sleep(latency.nextMillis());
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double roll = random.nextDouble();
+            if (roll < errorRate) {
+                errors.increment();
+                respond(exchange, 500, "{\"Response\":\"False\",\"Error\":\"Injected failure\"}");
+                return;
+            }
+            roll -= errorRate;
+
+            String title = queryParam(exchange.getRequestURI().getRawQuery(), "t");
+            if (roll < notFoundRate) {
+                respond(exchange, 200, "{\"Response\":\"False\",\"Error\":\"Movie not found!\"}");
+            } else if (roll < notFoundRate + naRate) {
+                respond(exchange, 200, movieJson(title, "N/A"));
+            } else {
+                respond(exchange, 200, movieJson(title,
+                        "https://m.media-amazon.com/images/M/stub-" + Math.abs(title.hashCode()) + "._V1_SX300.jpg"));
+            }
+        }
+    }
+
+    private static String movieJson(String title, String poster) {
+        return "{\"Title\":\"" + title.replace("\"", "") + "\",\"Year\":\"2010\",\"Type\":\"movie\","
+                + "\"Poster\":\"" + poster + "\",\"Response\":\"True\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query == null) return "";
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Latenz-Verteilung des Stubs
+     */
+    interface LatencyDistribution {
+
+        long nextMillis();
+
+        static LatencyDistribution parse(String spec) {
+            String[] parts = spec.split(":");
+            switch (parts[0]) {
+                case "fixed":
+                    long fixed = Long.parseLong(parts[1]);
+                    return () -> fixed;
+                case "uniform":
+                    long min = Long.parseLong(parts[1]);
+                    long max = Long.parseLong(parts[2]);
+                    return () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+                case "lognormal":
+                    // Median m, Sigma s: exp(ln(m) + s * N(0,1))
+                    double mu = Math.log(Double.parseDouble(parts[1]));
+                    double sigma = Double.parseDouble(parts[2]);
+                    return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+                default:
+                    throw new IllegalArgumentException("Unbekannte Latenz-Verteilung: " + spec);
+            }
+        }
+    }
+}
\ No newline at end of file
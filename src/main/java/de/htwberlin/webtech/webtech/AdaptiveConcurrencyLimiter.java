@@ -0,0 +1,127 @@
+package de.htwberlin.webtech.webtech;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptives Limit für gleichzeitige Requests mit der Latenz als Überlastsignal (Gradient-Verfahren).
+ *
+ * Verglichen wird nicht jede einzelne Messung, sondern die geglättete Latenz (EWMA) mit einer Referenz: der
+ * kleinsten geglätteten Latenz im vorigen Fenster von windowSize Messungen, damit sie sich an dauerhaft höhere
+ * Latenzen anpasst. Der Gradient Toleranz * Referenz / geglättete Latenz (zwischen 0,5 und 1) verkleinert das
+ * Limit anteilig; liegt die Latenz innerhalb der Toleranz und wird das Limit auch ausgenutzt, wächst es um
+ * sqrt(Limit). Jede Messung bewegt das Limit nur zu einem Teil (SMOOTHING) zum neuen Wert, ein einzelner
+ * Ausreißer ändert also wenig. Fehler verkleinern sofort. Über dem Limit wird sofort abgelehnt statt zu warten.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+    // Gewicht einer neuen Messung in der geglätteten Latenz bzw. des neuen Limits
+    private static final double LATENCY_ALPHA = 0.2;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int windowSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // Zustand für die Limit-Anpassung; ReentrantLock statt synchronized (kein Pinning bei Virtual Threads)
+    private final ReentrantLock lock = new ReentrantLock();
+    private double smoothedLatencyNanos = -1;
+    private double referenceLatencyNanos = Double.MAX_VALUE;
+    private double windowMinLatencyNanos = Double.MAX_VALUE;
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, int windowSize) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @return die Anzahl laufender Requests (inkl. diesem) oder -1, wenn abgelehnt
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Gibt den Platz frei, ohne das Limit anzupassen (Request ohne aussagekräftige Messung)
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gibt den Platz frei und passt das Limit anhand der gemessenen Latenz an
+     */
+    public void release(int inFlightAtStart, long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+
+        lock.lock();
+        try {
+            double current = limit;
+            if (!success) {
+                limit = Math.max(minLimit, current * BACKOFF_RATIO);
+                return;
+            }
+
+            smoothedLatencyNanos = smoothedLatencyNanos < 0
+                    ? latencyNanos
+                    : smoothedLatencyNanos + LATENCY_ALPHA * (latencyNanos - smoothedLatencyNanos);
+
+            // Referenz pro Fenster neu bestimmen, damit sie sich an dauerhaft höhere Latenzen anpasst
+            windowMinLatencyNanos = Math.min(windowMinLatencyNanos, smoothedLatencyNanos);
+            if (++windowSamples >= windowSize) {
+                referenceLatencyNanos = windowMinLatencyNanos;
+                windowMinLatencyNanos = Double.MAX_VALUE;
+                windowSamples = 0;
+            }
+            referenceLatencyNanos = Math.min(referenceLatencyNanos, smoothedLatencyNanos);
+
+            double gradient = Math.max(MIN_GRADIENT,
+                    Math.min(1.0, tolerance * referenceLatencyNanos / smoothedLatencyNanos));
+            double target;
+            if (gradient < 1.0) {
+                target = current * gradient;
+            } else if (inFlightAtStart * 2 >= current) {
+                target = current + Math.sqrt(current);
+            } else {
+                // Limit nicht ausgenutzt - keine Aussage darüber, ob mehr ginge
+                return;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, current + SMOOTHING * (target - current)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
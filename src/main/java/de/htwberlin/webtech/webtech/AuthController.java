@@ -1,6 +1,8 @@
 package de.htwberlin.webtech.webtech;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Optional;
@@ -29,6 +31,8 @@ public class AuthController {
                     "Registrierung erfolgreich!",
                     new UserDTO(newUser)
             ));
+        } catch (AuthOverloadedException e) {
+            return overloaded(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new AuthResponse(
                     false,
@@ -40,7 +44,12 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> loginUser(@RequestBody LoginRequest request) {
-        Optional<User> userOptional = userService.loginUser(request.getUsername(), request.getPassword());
+        Optional<User> userOptional;
+        try {
+            userOptional = userService.loginUser(request.getUsername(), request.getPassword());
+        } catch (AuthOverloadedException e) {
+            return overloaded(e);
+        }
 
         if (userOptional.isPresent()) {
             return ResponseEntity.ok(new AuthResponse(
@@ -57,6 +66,34 @@ public class AuthController {
         }
     }
 
+    /**
+     * Verfügbarkeit von Username/Email prüfen (z.B. live im Signup-Formular)
+     */
+    @GetMapping("/available")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().body(new AuthResponse(
+                    false,
+                    "Username oder Email angeben!",
+                    null
+            ));
+        }
+
+        return ResponseEntity.ok(new AvailabilityResponse(
+                username != null ? userService.isUsernameAvailable(username) : null,
+                email != null ? userService.isEmailAvailable(email) : null
+        ));
+    }
+
+    /**
+     * False-Positive-Rate und Speicherverbrauch des Verfügbarkeits-Index
+     */
+    @GetMapping("/available/stats")
+    public UserAvailabilityIndex.Stats getAvailabilityStats() {
+        return userService.getAvailabilityStats();
+    }
+
     @GetMapping("/user/{id}")
     public ResponseEntity<?> getUser(@PathVariable Long id) {
         Optional<User> userOptional = userService.findById(id);
@@ -82,6 +119,13 @@ public class AuthController {
         }
     }
 
+    // Hashing-Pool voll: sofort ablehnen, Client soll es kurz danach erneut versuchen
+    private ResponseEntity<AuthResponse> overloaded(AuthOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new AuthResponse(false, e.getMessage(), null));
+    }
+
     // Request DTOs
     public static class RegisterRequest {
         private String username;
@@ -150,6 +194,19 @@ public class AuthController {
         public UserDTO getUser() { return user; }
     }
 
+    public static class AvailabilityResponse {
+        private Boolean usernameAvailable;
+        private Boolean emailAvailable;
+
+        public AvailabilityResponse(Boolean usernameAvailable, Boolean emailAvailable) {
+            this.usernameAvailable = usernameAvailable;
+            this.emailAvailable = emailAvailable;
+        }
+
+        public Boolean getUsernameAvailable() { return usernameAvailable; }
+        public Boolean getEmailAvailable() { return emailAvailable; }
+    }
+
     public static class UserDTO {
         private Long id;
         private String username;
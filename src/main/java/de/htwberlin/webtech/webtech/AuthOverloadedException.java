@@ -0,0 +1,11 @@
+package de.htwberlin.webtech.webtech;
+
+/**
+ * Wird geworfen, wenn der Hashing-Pool ausgelastet ist und die Anfrage sofort abgelehnt wird
+ */
+public class AuthOverloadedException extends RuntimeException {
+
+    public AuthOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,507 @@
+package de.htwberlin.webtech.webtech;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Wörterbuch für Type und Genre der Watchlist-Einträge (Tabellen watchlist_type, watchlist_type_alias,
+ * watchlist_genre).
+ *
+ * Neben type und genre als Text speichern Einträge type_id (smallint) und genre_mask (bigint, ein Bit pro
+ * Genre), Filter laufen damit als Integer- bzw. Bit-Vergleich. Der Text bleibt die Quelle der Daten, ID und
+ * Maske sind nur Index. Schreibweisen werden wie bei TitleNormalizer normalisiert; für Types gibt es zusätzlich
+ * Aliase wie bei OMDbService.mapToOMDbType ("movie" -> Film, "tv" -> Serie).
+ *
+ * Der Text bleibt trotz der IDs in jeder Zeile, die Zeilen werden also um type_id und genre_mask (10 Byte)
+ * größer statt kleiner: nur so gehen Genres über die 63 Bits hinaus nicht verloren, und der Index lässt sich
+ * jederzeit aus dem Text neu berechnen.
+ *
+ * Unbekannte Werte registrieren WatchlistService und WatchlistV2Handler vor dem Speichern (typeId, genreMask,
+ * canonicalType, canonicalGenres) in einer eigenen kurzen Transaktion. WatchlistCategoryListener leitet
+ * type_id und genre_mask bei jedem INSERT/UPDATE aus dem Text ab und registriert dabei, was noch fehlt
+ * (dann mit einer zweiten Verbindung, nur bei Schreibzugriffen an WatchlistService vorbei). Mehr als 63 Genres passen nicht in die Maske; weitere bleiben ohne Bit nur im Text und werden beim
+ * Filtern dort gesucht (unindexedGenres). Was andere Knoten registriert haben, wird bei einem Fehltreffer
+ * nachgeladen.
+ */
+@Component
+public class CategoryDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryDictionary.class);
+
+    static final int MAX_GENRES = 63;
+
+    // Fehltreffer bei Namen (z.B. Filter nach einem Genre, das es nirgends gibt) laden höchstens so oft neu
+    private static final long RELOAD_INTERVAL_MILLIS = 1000;
+
+    // Wie V4__category_dictionary.sql; die Aliase entsprechen OMDbService.mapToOMDbType
+    private static final Map<String, List<String>> DEFAULT_TYPES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_TYPES.put("Film", List.of("film", "movie"));
+        DEFAULT_TYPES.put("Serie", List.of("serie", "series", "tv"));
+        DEFAULT_TYPES.put("Dokumentation", List.of("dokumentation", "documentary"));
+        DEFAULT_TYPES.put("Anime", List.of("anime"));
+    }
+
+    private final DataSource dataSource;
+
+    // Unveränderlicher Stand; Lesen ohne Lock, Registrieren ersetzt ihn komplett
+    private volatile Entries entries;
+
+    private long lastReload;
+
+    public CategoryDictionary(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Lädt das Wörterbuch, falls noch nicht geschehen (z.B. bevor der Event-Loop der /v2-API es braucht).
+     * Beim Start, damit das erste Laden nicht in einer laufenden Transaktion eine zweite Verbindung braucht
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        entries();
+    }
+
+    /**
+     * ID des Types; unbekannte Types werden registriert. null bei leerem Type
+     */
+    public Short typeId(String type) {
+        String key = TitleNormalizer.normalize(type);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Short id = entries().typeIds.get(key);
+        return id != null ? id : registerType(type.trim(), key);
+    }
+
+    /**
+     * ID des Types ohne Registrieren; null, wenn unbekannt
+     */
+    public Short findTypeId(String type) {
+        String key = TitleNormalizer.normalize(type);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Entries current = entries();
+        Short id = current.typeIds.get(key);
+        return id != null ? id : reload(current, false).typeIds.get(key);
+    }
+
+    public String typeName(Short typeId) {
+        if (typeId == null) {
+            return null;
+        }
+        Entries current = entries();
+        String name = current.typeNames.get(typeId);
+        // Eine ID aus der Datenbank gibt es immer - hat sie ein anderer Knoten vergeben, sofort nachladen
+        return name != null ? name : reload(current, true).typeNames.get(typeId);
+    }
+
+    /**
+     * Bitmaske der Genres ("Sci-Fi, Action"); unbekannte Genres werden registriert, solange Bits frei sind
+     */
+    public long genreMask(String genre) {
+        long mask = 0;
+        for (String part : WatchlistStatsService.splitGenres(genre)) {
+            String key = TitleNormalizer.normalize(part);
+            if (key.isEmpty()) {
+                continue;
+            }
+            Entries current = entries();
+            Integer bit = current.genreBits.get(key);
+            if (bit == null && !current.isFull()) {
+                bit = registerGenre(part, key);
+            }
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Bitmaske der Genres ohne Registrieren; unbekannte Genres fehlen in der Maske
+     */
+    public long findGenreMask(String genre) {
+        long mask = 0;
+        for (String part : WatchlistStatsService.splitGenres(genre)) {
+            Integer bit = findGenreBit(TitleNormalizer.normalize(part));
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Normalisierte Genres ohne Bit, die es trotzdem geben kann, weil das Wörterbuch voll ist - sie stehen nur
+     * in watchlist.genre. Solange Bits frei sind, hat jedes gespeicherte Genre eines, die Menge ist dann leer
+     */
+    public Set<String> unindexedGenres(String genre) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String part : WatchlistStatsService.splitGenres(genre)) {
+            String key = TitleNormalizer.normalize(part);
+            if (!key.isEmpty() && findGenreBit(key) == null && entries().isFull()) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private Integer findGenreBit(String key) {
+        if (key.isEmpty()) {
+            return null;
+        }
+        Entries current = entries();
+        Integer bit = current.genreBits.get(key);
+        return bit != null || current.isFull() ? bit : reload(current, false).genreBits.get(key);
+    }
+
+    /**
+     * Genres der Maske in Bit-Reihenfolge
+     */
+    public List<String> genreList(long mask) {
+        List<String> genres = new ArrayList<>(Long.bitCount(mask));
+        Entries current = entries();
+        if ((mask & ~current.usedBits()) != 0) {
+            // Bit aus der Datenbank, das ein anderer Knoten vergeben hat
+            current = reload(current, true);
+        }
+        String[] names = current.genreNames;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            String name = names[Long.numberOfTrailingZeros(rest)];
+            if (name != null) {
+                genres.add(name);
+            }
+        }
+        return genres;
+    }
+
+    /**
+     * Genre-Feld wie in der API ("Action, Sci-Fi"); null bei leerer Maske
+     */
+    public String genreNames(long mask) {
+        return mask == 0 ? null : String.join(", ", genreList(mask));
+    }
+
+    /**
+     * Type in der Schreibweise des Wörterbuchs ("movie" -> "Film"); registriert unbekannte Types
+     */
+    public String canonicalType(String type) {
+        Short id = typeId(type);
+        if (id != null) {
+            return typeName(id);
+        }
+        return type == null || type.isBlank() ? null : type.trim();
+    }
+
+    /**
+     * Genre-Feld in Schreibweise und Reihenfolge des Wörterbuchs, Genres ohne Bit danach in der angegebenen
+     * Schreibweise; registriert unbekannte Genres
+     */
+    public String canonicalGenres(String genre) {
+        long mask = genreMask(genre);
+        List<String> genres = genreList(mask);
+        Set<String> seen = new HashSet<>();
+        for (String part : WatchlistStatsService.splitGenres(genre)) {
+            String key = TitleNormalizer.normalize(part);
+            if (!key.isEmpty() && !entries().genreBits.containsKey(key) && seen.add(key)) {
+                genres.add(part.trim());
+            }
+        }
+        return genres.isEmpty() ? null : String.join(", ", genres);
+    }
+
+    private Entries entries() {
+        Entries current = entries;
+        if (current == null) {
+            synchronized (this) {
+                current = entries;
+                if (current == null) {
+                    try {
+                        inOwnTransaction(jdbc -> insertDefaultTypes(jdbc, load(jdbc)));
+                    } catch (DuplicateKeyException e) {
+                        // Ein anderer Knoten hat sie gleichzeitig angelegt
+                    }
+                    current = inOwnTransaction(this::load);
+                    entries = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Liest die Tabellen neu, z.B. wenn ein anderer Knoten etwas registriert hat. Über die Verbindung einer
+     * laufenden Transaktion, falls es eine gibt - im Flush wird so keine zweite gebraucht
+     */
+    private synchronized Entries reload(Entries seen, boolean force) {
+        Entries current = entries;
+        if (current != seen) {
+            // Ein anderer Thread hat schon neu geladen
+            return current;
+        }
+        long now = System.currentTimeMillis();
+        if (!force && now - lastReload < RELOAD_INTERVAL_MILLIS) {
+            return current;
+        }
+        lastReload = now;
+        current = current.mergedWith(load(new JdbcTemplate(dataSource)));
+        entries = current;
+        return current;
+    }
+
+    // Auf PostgreSQL legt V4 die Standard-Types an, bei create-drop (Tests) passiert es hier
+    private Void insertDefaultTypes(JdbcTemplate jdbc, Entries loaded) {
+        short nextId = loaded.nextTypeId();
+        for (Map.Entry<String, List<String>> type : DEFAULT_TYPES.entrySet()) {
+            if (loaded.typeNames.containsValue(type.getKey())) {
+                continue;
+            }
+            short id = nextId++;
+            jdbc.update("INSERT INTO watchlist_type (id, name) VALUES (?, ?)", id, type.getKey());
+            for (String alias : type.getValue()) {
+                if (!loaded.typeIds.containsKey(alias)) {
+                    jdbc.update("INSERT INTO watchlist_type_alias (alias, type_id) VALUES (?, ?)", alias, id);
+                }
+            }
+        }
+        return null;
+    }
+
+    private synchronized Short registerType(String name, String key) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                return tryRegisterType(name, key);
+            } catch (DuplicateKeyException e) {
+                // Ein anderer Knoten war schneller - beim zweiten Versuch dessen Stand übernehmen
+            }
+        }
+        log.atWarn()
+                .setMessage("Type konnte nicht registriert werden")
+                .addKeyValue("event", "category.type.conflict")
+                .addKeyValue("type", name)
+                .log();
+        return null;
+    }
+
+    private Short tryRegisterType(String name, String key) {
+        Entries known = entries();
+        Entries merged = inOwnTransaction(jdbc -> {
+            Entries stored = load(jdbc);
+            Entries current = known.mergedWith(stored);
+            if (!current.typeIds.containsKey(key)) {
+                short id = (short) Math.max(current.nextTypeId(), stored.nextTypeId());
+                jdbc.update("INSERT INTO watchlist_type (id, name) VALUES (?, ?)", id, name);
+                jdbc.update("INSERT INTO watchlist_type_alias (alias, type_id) VALUES (?, ?)", key, id);
+                current = current.mergedWith(load(jdbc));
+            }
+            return current;
+        });
+        entries = merged;
+
+        log.atInfo()
+                .setMessage("Neuer Type im Wörterbuch")
+                .addKeyValue("event", "category.type.registered")
+                .addKeyValue("type", name)
+                .addKeyValue("typeId", merged.typeIds.get(key))
+                .log();
+        return merged.typeIds.get(key);
+    }
+
+    private synchronized Integer registerGenre(String name, String key) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                return tryRegisterGenre(name, key);
+            } catch (DuplicateKeyException e) {
+                // Gleiches Bit oder gleiches Genre gerade auf einem anderen Knoten registriert
+            }
+        }
+        log.atWarn()
+                .setMessage("Genre konnte nicht registriert werden")
+                .addKeyValue("event", "category.genre.conflict")
+                .addKeyValue("genre", name)
+                .log();
+        return null;
+    }
+
+    private Integer tryRegisterGenre(String name, String key) {
+        Entries known = entries();
+        Entries merged = inOwnTransaction(jdbc -> {
+            Entries stored = load(jdbc);
+            Entries current = known.mergedWith(stored);
+            if (!current.genreBits.containsKey(key)) {
+                int bit = current.freeGenreBit(stored);
+                if (bit >= 0) {
+                    jdbc.update("INSERT INTO watchlist_genre (bit_index, name, lookup_key) VALUES (?, ?, ?)",
+                            bit, name, key);
+                    current = current.mergedWith(load(jdbc));
+                }
+            }
+            return current;
+        });
+        entries = merged;
+
+        Integer bit = merged.genreBits.get(key);
+        if (bit == null) {
+            log.atWarn()
+                    .setMessage("Genre-Wörterbuch voll, Genre bleibt ohne Bit nur im Text")
+                    .addKeyValue("event", "category.genre.unindexed")
+                    .addKeyValue("genre", name)
+                    .addKeyValue("maxGenres", MAX_GENRES)
+                    .log();
+        } else {
+            log.atInfo()
+                    .setMessage("Neues Genre im Wörterbuch")
+                    .addKeyValue("event", "category.genre.registered")
+                    .addKeyValue("genre", name)
+                    .addKeyValue("bit", bit)
+                    .log();
+        }
+        return bit;
+    }
+
+    /**
+     * Eigene Verbindung direkt von der DataSource, am Spring-Transaktionsmanagement vorbei: was hier eingetragen
+     * wird, ist sofort committet. Nur vor dem Speichern aufrufen, nie im Flush - dort hält die JPA-Transaktion
+     * schon eine Verbindung aus dem Pool
+     */
+    private <T> T inOwnTransaction(Function<JdbcTemplate, T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = work.apply(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+                connection.commit();
+                return result;
+            } catch (RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Wörterbuch für Type/Genre nicht erreichbar", e);
+        }
+    }
+
+    private Entries load(JdbcTemplate jdbc) {
+        Map<String, Short> typeIds = new HashMap<>();
+        Map<Short, String> typeNames = new HashMap<>();
+        Map<String, Integer> genreBits = new HashMap<>();
+        String[] genreNames = new String[MAX_GENRES];
+
+        jdbc.query("SELECT id, name FROM watchlist_type", rs -> {
+            short id = rs.getShort(1);
+            typeNames.put(id, rs.getString(2));
+            // Die Schreibweise selbst gilt immer als Alias
+            typeIds.putIfAbsent(TitleNormalizer.normalize(rs.getString(2)), id);
+        });
+        jdbc.query("SELECT alias, type_id FROM watchlist_type_alias", rs -> {
+            typeIds.put(rs.getString(1), rs.getShort(2));
+        });
+        jdbc.query("SELECT bit_index, name, lookup_key FROM watchlist_genre", rs -> {
+            int bit = rs.getInt(1);
+            genreNames[bit] = rs.getString(2);
+            genreBits.put(rs.getString(3), bit);
+        });
+        return new Entries(typeIds, typeNames, genreBits, genreNames);
+    }
+
+    private static class Entries {
+        private final Map<String, Short> typeIds;
+        private final Map<Short, String> typeNames;
+        private final Map<String, Integer> genreBits;
+        private final String[] genreNames;
+
+        private Entries(Map<String, Short> typeIds, Map<Short, String> typeNames,
+                        Map<String, Integer> genreBits, String[] genreNames) {
+            this.typeIds = typeIds;
+            this.typeNames = typeNames;
+            this.genreBits = genreBits;
+            this.genreNames = genreNames;
+        }
+
+        /**
+         * Ergänzt um neu gespeicherte Einträge; was dieser Prozess schon vergeben hat, ändert sich nie
+         * (auch nicht, wenn die Tabellen neu angelegt wurden, z.B. bei create-drop in Tests)
+         */
+        private Entries mergedWith(Entries stored) {
+            Map<String, Short> ids = new HashMap<>(typeIds);
+            Map<Short, String> names = new HashMap<>(typeNames);
+            stored.typeNames.forEach(names::putIfAbsent);
+            stored.typeIds.forEach((alias, id) -> {
+                if (Objects.equals(names.get(id), stored.typeNames.get(id))) {
+                    ids.putIfAbsent(alias, id);
+                }
+            });
+
+            Map<String, Integer> bits = new HashMap<>(genreBits);
+            String[] genres = genreNames.clone();
+            stored.genreBits.forEach((key, bit) -> {
+                if (genres[bit] == null && !bits.containsKey(key)) {
+                    genres[bit] = stored.genreNames[bit];
+                    bits.put(key, bit);
+                }
+            });
+            return new Entries(ids, names, bits, genres);
+        }
+
+        // Bits werden nie wieder frei, ein volles Wörterbuch bleibt voll
+        private boolean isFull() {
+            return Long.bitCount(usedBits()) == MAX_GENRES;
+        }
+
+        private long usedBits() {
+            long used = 0;
+            for (int bit = 0; bit < MAX_GENRES; bit++) {
+                if (genreNames[bit] != null) {
+                    used |= 1L << bit;
+                }
+            }
+            return used;
+        }
+
+        // Erstes Bit, das weder hier noch in der Tabelle belegt ist; -1, wenn alle vergeben sind
+        private int freeGenreBit(Entries stored) {
+            for (int bit = 0; bit < MAX_GENRES; bit++) {
+                if (genreNames[bit] == null && stored.genreNames[bit] == null) {
+                    return bit;
+                }
+            }
+            return -1;
+        }
+
+        private short nextTypeId() {
+            short max = 0;
+            for (Short id : typeNames.keySet()) {
+                max = (short) Math.max(max, id);
+            }
+            if (max == Short.MAX_VALUE) {
+                throw new RuntimeException("Type-Wörterbuch voll");
+            }
+            return (short) (max + 1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,584 @@
+package de.htwberlin.webtech.webtech;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Komprimierte Menge nicht-negativer long-Werte (z.B. Eintrags-IDs) nach dem Roaring-Prinzip.
+ *
+ * Die Werte werden in Blöcke zu 65536 geteilt (obere Bits = Schlüssel). Ein Block mit wenigen Werten ist ein
+ * sortiertes char-Array (2 Byte pro Wert), ab 4096 Werten eine Bitmap mit 8 KB. UND/ODER/UND-NICHT laufen
+ * blockweise: gemeinsame Schlüssel per Merge, Bitmap gegen Bitmap wortweise. Nicht thread-safe; die
+ * Mengenoperationen liefern neue Objekte und lassen die Operanden unverändert.
+ */
+public class CompressedBitmap {
+
+    // Ab hier ist die Bitmap (1024 Wörter = 8 KB) kleiner als das Array
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte ARRAY = 0;
+    private static final byte BITMAP = 1;
+
+    private long[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this(4);
+    }
+
+    private CompressedBitmap(int capacity) {
+        this.keys = new long[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    public static CompressedBitmap of(long... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Fügt value hinzu; true, wenn er neu war
+     */
+    public boolean add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Werte müssen >= 0 sein: " + value);
+        }
+        long key = value >>> 16;
+        char low = (char) value;
+        int index = find(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertAt(index, key, new ArrayContainer(new char[]{low}, 1));
+            return true;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add(low);
+        return containers[index].cardinality() > before;
+    }
+
+    /**
+     * Entfernt value; true, wenn er enthalten war
+     */
+    public boolean remove(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = find(value >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container updated = container.remove((char) value);
+        if (updated.cardinality() == 0) {
+            removeAt(index);
+        } else {
+            containers[index] = updated;
+        }
+        return updated.cardinality() < before;
+    }
+
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = find(value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Schnittmenge
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(1, Math.min(size, other.size)));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Vereinigung
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(1, size + other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Alle Werte, die nicht in other sind
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(1, size));
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Alle Werte aufsteigend
+     */
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    public long[] toArray() {
+        long[] values = new long[(int) cardinality()];
+        int[] position = {0};
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Kompakte Binärform: Version, Anzahl Blöcke, je Block Schlüssel, Art und Inhalt
+     */
+    public byte[] toBytes() {
+        int length = 1 + 4;
+        for (int i = 0; i < size; i++) {
+            length += 8 + containers[i].serializedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(keys[i]);
+            containers[i].write(buffer);
+        }
+        return buffer.array();
+    }
+
+    public static CompressedBitmap fromBytes(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unbekanntes Bitmap-Format: " + version);
+            }
+            int count = buffer.getInt();
+            CompressedBitmap bitmap = new CompressedBitmap(Math.max(1, count));
+            for (int i = 0; i < count; i++) {
+                long key = buffer.getLong();
+                bitmap.appendIfNotEmpty(key, readContainer(buffer));
+            }
+            return bitmap;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Bitmap nicht lesbar", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompressedBitmap other && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    private static Container readContainer(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == ARRAY) {
+            int cardinality = Short.toUnsignedInt(buffer.getShort()) + 1;
+            char[] values = new char[cardinality];
+            buffer.asCharBuffer().get(values);
+            buffer.position(buffer.position() + cardinality * 2);
+            return new ArrayContainer(values, cardinality);
+        }
+        if (type == BITMAP) {
+            long[] words = new long[BITMAP_WORDS];
+            buffer.asLongBuffer().get(words);
+            buffer.position(buffer.position() + BITMAP_WORDS * 8);
+            return BitmapContainer.of(words);
+        }
+        throw new IllegalArgumentException("Unbekannter Block-Typ: " + type);
+    }
+
+    private int find(long key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertAt(int index, long key, Container container) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    // Nur mit aufsteigenden Schlüsseln (Mengenoperationen, Deserialisierung)
+    private void appendIfNotEmpty(long key, Container container) {
+        if (container.cardinality() == 0) {
+            return;
+        }
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+    }
+
+    /**
+     * Ein Block von 65536 Werten; add/remove dürfen einen Block der anderen Art zurückgeben
+     */
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract void forEach(long base, LongConsumer consumer);
+
+        abstract Container copy();
+
+        // Bytes nach Schlüssel, inklusive Art
+        abstract int serializedSize();
+
+        abstract void write(ByteBuffer buffer);
+
+        Container and(Container other) {
+            if (this instanceof BitmapContainer a && other instanceof BitmapContainer b) {
+                long[] words = new long[BITMAP_WORDS];
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] = a.words[i] & b.words[i];
+                }
+                return BitmapContainer.of(words).compact();
+            }
+            // Das Array ist höchstens 4096 groß - jedes Element in der anderen Seite nachschlagen
+            ArrayContainer array = this instanceof ArrayContainer a ? a : (ArrayContainer) other;
+            Container lookup = array == this ? other : this;
+            char[] values = new char[array.cardinality];
+            int count = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (lookup.contains(array.values[i])) {
+                    values[count++] = array.values[i];
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer a && other instanceof ArrayContainer b
+                    && a.cardinality + b.cardinality <= ARRAY_MAX) {
+                return a.union(b);
+            }
+            long[] words = toWords();
+            if (other instanceof BitmapContainer b) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] |= b.words[i];
+                }
+            } else {
+                ArrayContainer b = (ArrayContainer) other;
+                for (int i = 0; i < b.cardinality; i++) {
+                    words[b.values[i] >>> 6] |= 1L << b.values[i];
+                }
+            }
+            return BitmapContainer.of(words).compact();
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer a) {
+                char[] values = new char[a.cardinality];
+                int count = 0;
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (!other.contains(a.values[i])) {
+                        values[count++] = a.values[i];
+                    }
+                }
+                return new ArrayContainer(values, count);
+            }
+            long[] words = toWords();
+            if (other instanceof BitmapContainer b) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= ~b.words[i];
+                }
+            } else {
+                ArrayContainer b = (ArrayContainer) other;
+                for (int i = 0; i < b.cardinality; i++) {
+                    words[b.values[i] >>> 6] &= ~(1L << b.values[i]);
+                }
+            }
+            return BitmapContainer.of(words).compact();
+        }
+
+        // Neue Wort-Kopie des Blocks
+        abstract long[] toWords();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return BitmapContainer.of(toWords()).add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        private ArrayContainer union(ArrayContainer other) {
+            char[] merged = new char[cardinality + other.cardinality];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    merged[count++] = values[i++];
+                } else if (values[i] > other.values[j]) {
+                    merged[count++] = other.values[j++];
+                } else {
+                    merged[count++] = values[i++];
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                merged[count++] = values[i++];
+            }
+            while (j < other.cardinality) {
+                merged[count++] = other.values[j++];
+            }
+            return new ArrayContainer(merged, count);
+        }
+
+        @Override
+        void forEach(long base, LongConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        int serializedSize() {
+            return 1 + 2 + cardinality * 2;
+        }
+
+        // Anzahl - 1 als unsigned short, damit 1..4096 in zwei Byte passt
+        @Override
+        void write(ByteBuffer buffer) {
+            buffer.put(ARRAY);
+            buffer.putShort((short) (cardinality - 1));
+            buffer.asCharBuffer().put(values, 0, cardinality);
+            buffer.position(buffer.position() + cardinality * 2);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        private static BitmapContainer of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        // Zurück zum Array, sobald es kleiner ist
+        private Container compact() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                words[low >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return compact();
+        }
+
+        @Override
+        void forEach(long base, LongConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    consumer.accept(base | ((long) i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        int serializedSize() {
+            return 1 + BITMAP_WORDS * 8;
+        }
+
+        @Override
+        void write(ByteBuffer buffer) {
+            buffer.put(BITMAP);
+            buffer.asLongBuffer().put(words);
+            buffer.position(buffer.position() + BITMAP_WORDS * 8);
+        }
+    }
+}
\ No newline at end of file
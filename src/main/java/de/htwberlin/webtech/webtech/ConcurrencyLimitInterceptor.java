@@ -0,0 +1,74 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Schützt die Endpunkte, die OMDb-Abfragen auslösen, mit dem adaptiven Concurrency-Limit.
+ *
+ * Als Messung zählt nur die mittlere Dauer der OMDb-Abfragen des Requests (RequestTimings, Phase OMDB);
+ * Requests ohne OMDb-Abfrage (z.B. Poster schon vorhanden) geben nur ihren Platz frei.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String OWN_TIMINGS_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".ownTimings";
+    private static final String IN_FLIGHT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".inFlight";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // Nur schreibende Requests lösen OMDb-Abfragen aus
+        if (!"POST".equals(request.getMethod()) && !"PUT".equals(request.getMethod())) {
+            return true;
+        }
+
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"success\":false,\"message\":\"Server ausgelastet, bitte erneut versuchen!\"}");
+            return false;
+        }
+
+        request.setAttribute(IN_FLIGHT_ATTRIBUTE, inFlight);
+        // Ohne ServerTimingFilter (server-timing.enabled=false) selbst messen
+        if (RequestTimings.current() == null) {
+            RequestTimings.begin();
+            request.setAttribute(OWN_TIMINGS_ATTRIBUTE, true);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object inFlight = request.getAttribute(IN_FLIGHT_ATTRIBUTE);
+        if (inFlight == null) {
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.current();
+        int omdbCalls = timings == null ? 0 : timings.phaseCount(RequestTimings.Phase.OMDB);
+        long omdbNanos = timings == null ? 0 : timings.phaseNanos(RequestTimings.Phase.OMDB);
+        if (timings != null && request.getAttribute(OWN_TIMINGS_ATTRIBUTE) != null) {
+            timings.end();
+        }
+
+        if (omdbCalls == 0) {
+            limiter.release();
+            return;
+        }
+        boolean success = ex == null && response.getStatus() < 500;
+        limiter.release((Integer) inFlight, omdbNanos / omdbCalls, success);
+    }
+}
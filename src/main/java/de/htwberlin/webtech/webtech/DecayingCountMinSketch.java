@@ -0,0 +1,177 @@
+package de.htwberlin.webtech.webtech;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-Min Sketch mit Forward Decay: ein Ereignis zum Zeitpunkt t zählt mit exp(lambda * (t - landmark)),
+ * geschätzt wird mit exp(-lambda * (now - landmark)) zurückskaliert. Alte Ereignisse verlieren so pro
+ * Halbwertszeit die Hälfte ihres Gewichts, ohne dass je ein Zähler nachträglich angefasst werden muss.
+ *
+ * Schätzungen sind Obergrenzen (nie zu niedrig). Zwei Sketches mit gleicher Breite, Tiefe und Halbwertszeit
+ * lassen sich per merge() addieren, z.B. über mehrere Knoten hinweg. Nicht thread-safe.
+ */
+public class DecayingCountMinSketch {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int width;
+    private final int depth;
+    private final double lambdaPerMilli;
+    private final double[] counts;
+    private long landmark;
+
+    public DecayingCountMinSketch(int width, int depth, long halfLifeMillis, long landmark) {
+        this(width, depth, Math.log(2) / halfLifeMillis, landmark, new double[width * depth]);
+    }
+
+    private DecayingCountMinSketch(int width, int depth, double lambdaPerMilli, long landmark, double[] counts) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Breite und Tiefe müssen positiv sein");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.lambdaPerMilli = lambdaPerMilli;
+        this.landmark = landmark;
+        this.counts = counts;
+    }
+
+    /**
+     * Zählt ein Ereignis für key zum Zeitpunkt timestamp (ms)
+     */
+    public void add(String key, long timestamp) {
+        double weight = Math.exp(lambdaPerMilli * (timestamp - landmark));
+        long hash = hash(key);
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + index(hash, row)] += weight;
+        }
+    }
+
+    /**
+     * Geschätzte, auf now abgeklungene Anzahl
+     */
+    public double estimate(String key, long now) {
+        return estimateRaw(key) * decayFactor(now);
+    }
+
+    /**
+     * Schätzung in Einheiten des Landmarks; Werte verschiedener Keys sind direkt vergleichbar
+     */
+    public double estimateRaw(String key) {
+        return estimateRaw(key, null);
+    }
+
+    /**
+     * Schätzung für die Summe aus diesem und other (gleicher Landmark), ohne beide zu mergen
+     */
+    public double estimateRaw(String key, DecayingCountMinSketch other) {
+        if (other != null && (!isCompatible(other) || other.landmark != landmark)) {
+            throw new IllegalArgumentException("Sketches passen nicht zusammen");
+        }
+        long hash = hash(key);
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + index(hash, row);
+            double value = other != null ? counts[cell] + other.counts[cell] : counts[cell];
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /**
+     * Faktor von Landmark-Einheiten auf den Zeitpunkt now
+     */
+    public double decayFactor(long now) {
+        return Math.exp(-lambdaPerMilli * (now - landmark));
+    }
+
+    /**
+     * Verschiebt den Landmark, damit die Gewichte nicht überlaufen; Schätzungen bleiben gleich
+     */
+    public void rescale(long newLandmark) {
+        double factor = Math.exp(-lambdaPerMilli * (newLandmark - landmark));
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] *= factor;
+        }
+        landmark = newLandmark;
+    }
+
+    /**
+     * Addiert other (auf den eigenen Landmark umgerechnet)
+     */
+    public void merge(DecayingCountMinSketch other) {
+        if (!isCompatible(other)) {
+            throw new IllegalArgumentException("Sketches passen nicht zusammen");
+        }
+        double factor = Math.exp(lambdaPerMilli * (other.landmark - landmark));
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i] * factor;
+        }
+    }
+
+    public boolean isCompatible(DecayingCountMinSketch other) {
+        return width == other.width && depth == other.depth && lambdaPerMilli == other.lambdaPerMilli;
+    }
+
+    /**
+     * Leerer Sketch mit gleichen Parametern und gleichem Landmark
+     */
+    public DecayingCountMinSketch emptyCopy() {
+        return new DecayingCountMinSketch(width, depth, lambdaPerMilli, landmark, new double[counts.length]);
+    }
+
+    public long landmark() {
+        return landmark;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 4 + 8 + 8 + counts.length * 8);
+        buffer.putInt(FORMAT_VERSION).putInt(width).putInt(depth).putDouble(lambdaPerMilli).putLong(landmark);
+        for (double count : counts) {
+            buffer.putDouble(count);
+        }
+        return buffer.array();
+    }
+
+    public static DecayingCountMinSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unbekanntes Sketch-Format: " + version);
+        }
+        int width = buffer.getInt();
+        int depth = buffer.getInt();
+        double lambda = buffer.getDouble();
+        long landmark = buffer.getLong();
+        double[] counts = new double[width * depth];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buffer.getDouble();
+        }
+        return new DecayingCountMinSketch(width, depth, lambda, landmark, counts);
+    }
+
+    // Zeile i nutzt h1 + i * h2 (Kirsch/Mitzenmacher), beide Hälften aus einem 64-Bit-FNV-1a
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    // Über alle JVMs und Knoten stabil, damit Sketches verschiedener Knoten zusammenpassen
+    private static long hash(String key) {
+        long hash = FNV_OFFSET;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        // Finalizer (splitmix64), damit auch die oberen Bits gut verteilt sind
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package de.htwberlin.webtech.webtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Event für die Verarbeitung eines Requests in WatchlistController bzw. AuthController
+ */
+@Name("de.htwberlin.webtech.HttpRequest")
+@Label("HTTP Request")
+@Category({"Watchlist", "Web"})
+@Description("Verarbeitung eines Requests im Controller")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    @Description("Pfad-Muster des Handlers, z.B. /Watchlist/{id}")
+    String path;
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,234 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Idempotency-Key für POST /Watchlist und die Batch-Endpunkte (idempotency.paths).
+ *
+ * Mobile Clients wiederholen Requests nach Verbindungsabbrüchen; ohne Key legt jede Wiederholung einen weiteren
+ * Eintrag an und fragt OMDb erneut ab. Mit Key wird nur der erste Request ausgeführt, Wiederholungen bekommen
+ * dessen Antwort (Header Idempotent-Replayed) aus dem IdempotencyStore. Derselbe Key mit anderem Body gibt 422,
+ * ein nach idempotency.wait-timeout-ms noch laufender erster Request 409.
+ *
+ * Läuft nach RateLimitFilter, damit auch Wiederholungen gezählt werden, bevor sie den Store abfragen.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Vom Controller gesetzte Header, die zur Antwort gehören; Content-Type und Body speichert der Store extra
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.LOCATION, HttpHeaders.CONTENT_LOCATION,
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL, HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.CONTENT_DISPOSITION);
+
+    private final IdempotencyStore store;
+    private final boolean enabled;
+    private final List<String> paths;
+    private final int maxRequestBytes;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${idempotency.enabled:true}") boolean enabled,
+                             @Value("${idempotency.paths:/Watchlist,/Watchlist/refresh-all-posters}") List<String> paths,
+                             @Value("${idempotency.max-request-bytes:65536}") int maxRequestBytes) {
+        this.store = store;
+        this.enabled = enabled;
+        this.paths = paths;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!enabled || idempotencyKey == null || !"POST".equals(request.getMethod()) || !paths.contains(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key muss 1 bis " + MAX_KEY_LENGTH + " Zeichen lang sein!");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body.length > maxRequestBytes) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request zu groß für einen Idempotency-Key!");
+            return;
+        }
+
+        IdempotencyStore.Reservation reservation = store.begin(path, idempotencyKey, fingerprint(request, path, body));
+        switch (reservation.getState()) {
+            case REPLAY -> replay(response, reservation.getResponse());
+            case MISMATCH -> writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key wurde bereits für einen anderen Request verwendet!");
+            case BUSY -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, HttpStatus.CONFLICT,
+                        "Request mit diesem Idempotency-Key wird noch bearbeitet, bitte erneut versuchen!");
+            }
+            case EXECUTE -> execute(new CachedBodyRequest(request, body), response, filterChain, reservation);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         IdempotencyStore.Reservation reservation) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.abandon(reservation);
+            throw e;
+        }
+
+        // Serverfehler und Rate Limiting sind vorübergehend - eine Wiederholung soll erneut ausführen
+        int status = wrapper.getStatus();
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            store.abandon(reservation);
+        } else {
+            store.complete(reservation, new IdempotencyStore.StoredResponse(status, wrapper.getContentType(),
+                    storedHeaders(wrapper), wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyStore.StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        stored.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private static Map<String, List<String>> storedHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : STORED_HEADERS) {
+            Collection<String> values = response.getHeaders(name);
+            if (!values.isEmpty()) {
+                headers.put(name, List.copyOf(values));
+            }
+        }
+        return headers;
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+
+    // Gleicher Key mit anderem userId-Parameter oder Body ist ein anderer Request
+    static String fingerprint(HttpServletRequest request, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '?');
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    /**
+     * Request mit bereits gelesenem Body (für den Fingerprint), den der Controller erneut lesen kann
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
\ No newline at end of file
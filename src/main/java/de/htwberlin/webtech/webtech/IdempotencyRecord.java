@@ -0,0 +1,131 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Gespeicherte Antwort auf einen Request mit Idempotency-Key (eine Zeile pro Key und Endpunkt).
+ *
+ * Solange status null ist, läuft der erste Request noch (auf diesem oder einem anderen Knoten); der Knoten
+ * setzt dann regelmäßig heartbeat_at neu.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at")
+})
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord {
+
+    // Antworten von POST /Watchlist sind wenige KB groß
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final int MAX_HEADERS_LENGTH = 4096;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Id
+    @Column(name = "endpoint", length = 255)
+    private String endpoint;
+
+    // SHA-256 über Pfad, Query und Body (hex)
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "status")
+    private Integer status;
+
+    @Column(name = "content_type", length = 255)
+    private String contentType;
+
+    // Wiederholte Antwort-Header, eine Zeile "Name: Wert" pro Wert
+    @Column(name = "headers", length = MAX_HEADERS_LENGTH)
+    private String headers;
+
+    @Column(name = "body", length = MAX_BODY_BYTES)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Leerer Konstruktor für Hibernate
+    public IdempotencyRecord() {}
+
+    public boolean isCompleted() {
+        return status != null;
+    }
+
+    // Getter
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public static class Key implements Serializable {
+        private String idempotencyKey;
+        private String endpoint;
+
+        public Key() {}
+
+        public Key(String idempotencyKey, String endpoint) {
+            this.idempotencyKey = idempotencyKey;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(idempotencyKey, key.idempotencyKey) && Objects.equals(endpoint, key.endpoint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idempotencyKey, endpoint);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends CrudRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+}
\ No newline at end of file
@@ -0,0 +1,450 @@
+package de.htwberlin.webtech.webtech;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Antworten auf Requests mit Idempotency-Key: im Speicher (LRU, höchstens idempotency.max-entries) und in
+ * idempotency_record, jeweils bis idempotency.ttl-seconds nach dem ersten Request.
+ *
+ * Der erste Request reserviert den Key erst im Speicher, dann per INSERT in der Datenbank. Gleichzeitige
+ * Duplikate auf demselben Knoten warten auf dessen CompletableFuture, auf anderen Knoten fragen sie die Zeile
+ * ab, bis die Antwort da ist (höchstens idempotency.wait-timeout-ms). Scheitert der erste Request (Exception,
+ * 5xx, 429), wird die Reservierung gelöscht und ein wartendes Duplikat führt den Request selbst aus.
+ *
+ * Solange der erste Request läuft, setzt der Knoten alle idempotency.heartbeat-interval-ms heartbeat_at neu.
+ * Verwaist ist eine Reservierung erst, wenn heartbeat_at älter als idempotency.in-flight-timeout-seconds ist
+ * (Knoten abgestürzt) - ein langsamer Request wie refresh-all-posters wird also nicht doppelt ausgeführt.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final int MAX_STORED_BODY_BYTES = 1024 * 1024;
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_record (idempotency_key, endpoint, fingerprint, created_at, heartbeat_at, "
+                    + "expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Abgelaufene Antworten und Reservierungen abgestürzter Knoten dürfen übernommen werden
+    private static final String TAKE_OVER_SQL =
+            "UPDATE idempotency_record SET fingerprint = ?, status = NULL, content_type = NULL, headers = NULL, "
+                    + "body = NULL, created_at = ?, heartbeat_at = ?, expires_at = ? "
+                    + "WHERE idempotency_key = ? AND endpoint = ? "
+                    + "AND (expires_at < ? OR (status IS NULL AND heartbeat_at < ?))";
+
+    // created_at identifiziert die eigene Reservierung, falls sie inzwischen übernommen wurde
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_record SET status = ?, content_type = ?, headers = ?, body = ? "
+                    + "WHERE idempotency_key = ? AND endpoint = ? AND created_at = ? AND status IS NULL";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM idempotency_record "
+                    + "WHERE idempotency_key = ? AND endpoint = ? AND created_at = ? AND status IS NULL";
+
+    private static final String HEARTBEAT_SQL =
+            "UPDATE idempotency_record SET heartbeat_at = ? "
+                    + "WHERE idempotency_key = ? AND endpoint = ? AND created_at = ? AND status IS NULL";
+
+    private static final String PURGE_SQL = "DELETE FROM idempotency_record WHERE expires_at < ?";
+
+    private final IdempotencyRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final long waitTimeoutMillis;
+    private final long inFlightTimeoutMillis;
+    private final Map<String, Entry> entries;
+    // Reservierungen, deren Request auf diesem Knoten gerade ausgeführt wird (für den Heartbeat)
+    private final Set<Reservation> running = ConcurrentHashMap.newKeySet();
+    private final LongAdder replayed = new LongAdder();
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, JdbcTemplate jdbcTemplate,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis,
+                            @Value("${idempotency.in-flight-timeout-seconds:60}") long inFlightTimeoutSeconds) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.inFlightTimeoutMillis = inFlightTimeoutSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Reserviert den Key für diesen Request oder liefert die Antwort des ersten Requests; wartet, solange
+     * der erste Request noch läuft
+     */
+    public Reservation begin(String endpoint, String idempotencyKey, String fingerprint) {
+        String scope = endpoint + " " + idempotencyKey;
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (true) {
+            Entry mine = new Entry(fingerprint, System.currentTimeMillis() + ttlMillis);
+            Entry existing = reserve(scope, mine);
+            if (existing != null) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    return Reservation.of(Reservation.State.MISMATCH);
+                }
+                StoredResponse response = await(existing, deadline);
+                if (response != null) {
+                    replayed.increment();
+                    return Reservation.replay(response);
+                }
+                if (!existing.result.isDone() || System.currentTimeMillis() >= deadline) {
+                    return Reservation.of(Reservation.State.BUSY);
+                }
+                // Erster Request gescheitert - neu reservieren
+                continue;
+            }
+
+            Reservation reservation;
+            try {
+                reservation = claim(scope, endpoint, idempotencyKey, mine, deadline);
+            } catch (RuntimeException e) {
+                drop(scope, mine);
+                throw e;
+            }
+            if (reservation.getState() == Reservation.State.REPLAY) {
+                replayed.increment();
+                mine.result.complete(reservation.getResponse());
+            } else if (reservation.getState() == Reservation.State.EXECUTE) {
+                running.add(reservation);
+            } else {
+                drop(scope, mine);
+            }
+            return reservation;
+        }
+    }
+
+    /**
+     * Speichert die Antwort des ersten Requests und gibt wartende Duplikate frei
+     */
+    public void complete(Reservation reservation, StoredResponse response) {
+        running.remove(reservation);
+        if (response.getBody().length > MAX_STORED_BODY_BYTES) {
+            log.atWarn()
+                    .setMessage("Antwort zu groß für den Idempotency-Store")
+                    .addKeyValue("event", "idempotency.response-too-large")
+                    .addKeyValue("endpoint", reservation.endpoint)
+                    .addKeyValue("bytes", response.getBody().length)
+                    .log();
+            abandon(reservation);
+            return;
+        }
+        try {
+            jdbcTemplate.update(COMPLETE_SQL, response.getStatus(), response.getContentType(),
+                    formatHeaders(response.getHeaders()), response.getBody(), reservation.idempotencyKey, reservation.endpoint, reservation.claimedAt);
+        } catch (RuntimeException e) {
+            // Im Speicher bleibt die Antwort erhalten; nur andere Knoten sehen sie nicht
+            log.atWarn()
+                    .setMessage("Antwort nicht in der Datenbank gespeichert")
+                    .addKeyValue("event", "idempotency.store-failed")
+                    .addKeyValue("endpoint", reservation.endpoint)
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        }
+        reservation.entry.result.complete(response);
+    }
+
+    /**
+     * Gibt den Key wieder frei (Request gescheitert); ein wartendes Duplikat darf ihn dann ausführen
+     */
+    public void abandon(Reservation reservation) {
+        running.remove(reservation);
+        try {
+            jdbcTemplate.update(RELEASE_SQL, reservation.idempotencyKey, reservation.endpoint, reservation.claimedAt);
+        } catch (RuntimeException e) {
+            // Die Reservierung läuft nach idempotency.in-flight-timeout-seconds ab
+            log.atWarn()
+                    .setMessage("Reservierung nicht freigegeben")
+                    .addKeyValue("event", "idempotency.release-failed")
+                    .addKeyValue("endpoint", reservation.endpoint)
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        } finally {
+            drop(reservation.endpoint + " " + reservation.idempotencyKey, reservation.entry);
+        }
+    }
+
+    /**
+     * Hält die Reservierungen der hier laufenden Requests am Leben, damit andere Knoten sie nicht übernehmen
+     */
+    @Scheduled(fixedDelayString = "${idempotency.heartbeat-interval-ms:10000}",
+            initialDelayString = "${idempotency.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if (running.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (Reservation reservation : running) {
+            try {
+                jdbcTemplate.update(HEARTBEAT_SQL, now, reservation.idempotencyKey, reservation.endpoint,
+                        reservation.claimedAt);
+            } catch (RuntimeException e) {
+                // Nächster Versuch im nächsten Intervall; erst nach in-flight-timeout-seconds droht eine Übernahme
+                log.atWarn()
+                        .setMessage("Heartbeat für laufenden Request fehlgeschlagen")
+                        .addKeyValue("event", "idempotency.heartbeat-failed")
+                        .addKeyValue("endpoint", reservation.endpoint)
+                        .addKeyValue("error", e.getMessage())
+                        .log();
+            }
+        }
+    }
+
+    /**
+     * Entfernt abgelaufene Antworten aus Speicher und Datenbank
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}",
+            initialDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.result.isDone() && entry.expiresAt < now);
+        }
+        int deleted = jdbcTemplate.update(PURGE_SQL, LocalDateTime.now());
+        log.atDebug()
+                .setMessage("Abgelaufene Idempotency-Keys gelöscht")
+                .addKeyValue("event", "idempotency.purged")
+                .addKeyValue("rows", deleted)
+                .log();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long replayedCount() {
+        return replayed.sum();
+    }
+
+    // null = mine ist eingetragen und dieser Request ist der erste auf diesem Knoten
+    private Entry reserve(String scope, Entry mine) {
+        synchronized (entries) {
+            Entry existing = entries.get(scope);
+            if (existing != null && !(existing.result.isDone() && existing.expiresAt < System.currentTimeMillis())) {
+                return existing;
+            }
+            entries.put(scope, mine);
+            return null;
+        }
+    }
+
+    private void drop(String scope, Entry entry) {
+        synchronized (entries) {
+            entries.remove(scope, entry);
+        }
+        entry.result.complete(null);
+    }
+
+    private Reservation claim(String scope, String endpoint, String idempotencyKey, Entry mine, long deadline) {
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(idempotencyKey, endpoint);
+        while (true) {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            LocalDateTime expiresAt = now.plus(ttlMillis, ChronoUnit.MILLIS);
+            try {
+                jdbcTemplate.update(CLAIM_SQL, idempotencyKey, endpoint, mine.fingerprint, now, now, expiresAt);
+                return Reservation.execute(endpoint, idempotencyKey, now, mine);
+            } catch (DuplicateKeyException e) {
+                // Key existiert schon - Antwort, laufender Request oder abgelaufene Zeile
+            }
+
+            Optional<IdempotencyRecord> stored = repository.findById(key);
+            if (stored.isEmpty()) {
+                // Gerade freigegeben oder gelöscht
+                continue;
+            }
+            IdempotencyRecord record = stored.get();
+            boolean expired = record.getExpiresAt().isBefore(now);
+            boolean abandoned = !record.isCompleted()
+                    && record.getHeartbeatAt().isBefore(now.minus(inFlightTimeoutMillis, ChronoUnit.MILLIS));
+            if (expired || abandoned) {
+                int updated = jdbcTemplate.update(TAKE_OVER_SQL, mine.fingerprint, now, now, expiresAt, idempotencyKey,
+                        endpoint, now, now.minus(inFlightTimeoutMillis, ChronoUnit.MILLIS));
+                if (updated == 1) {
+                    return Reservation.execute(endpoint, idempotencyKey, now, mine);
+                }
+                continue;
+            }
+            if (!record.getFingerprint().equals(mine.fingerprint)) {
+                return Reservation.of(Reservation.State.MISMATCH);
+            }
+            if (record.isCompleted()) {
+                return Reservation.replay(new StoredResponse(record.getStatus(), record.getContentType(),
+                        parseHeaders(record.getHeaders()), record.getBody() == null ? new byte[0] : record.getBody()));
+            }
+
+            // Läuft auf einem anderen Knoten
+            if (System.currentTimeMillis() + POLL_INTERVAL_MILLIS > deadline) {
+                return Reservation.of(Reservation.State.BUSY);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Reservation.of(Reservation.State.BUSY);
+            }
+        }
+    }
+
+    // Eine Zeile "Name: Wert" pro Headerwert; Headerwerte enthalten keine Zeilenumbrüche
+    private static String formatHeaders(Map<String, List<String>> headers) {
+        if (headers.isEmpty()) {
+            return null;
+        }
+        StringBuilder formatted = new StringBuilder();
+        headers.forEach((name, values) -> values.forEach(value ->
+                formatted.append(name).append(": ").append(value).append('\n')));
+        return formatted.toString();
+    }
+
+    private static Map<String, List<String>> parseHeaders(String formatted) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        if (formatted == null) {
+            return headers;
+        }
+        for (String line : formatted.split("\n")) {
+            int separator = line.indexOf(": ");
+            if (separator > 0) {
+                headers.computeIfAbsent(line.substring(0, separator), name -> new ArrayList<>())
+                        .add(line.substring(separator + 2));
+            }
+        }
+        return headers;
+    }
+
+    private static StoredResponse await(Entry entry, long deadline) {
+        try {
+            return entry.result.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Ein Key im Speicher; result wird mit der Antwort oder (Request gescheitert) mit null abgeschlossen
+     */
+    private static class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Ergebnis von begin(): ausführen (und danach complete/abandon), gespeicherte Antwort zurückgeben,
+     * Key mit anderem Request wiederverwendet oder erster Request läuft noch
+     */
+    public static class Reservation {
+
+        public enum State { EXECUTE, REPLAY, MISMATCH, BUSY }
+
+        private final State state;
+        private final StoredResponse response;
+        private final String endpoint;
+        private final String idempotencyKey;
+        private final LocalDateTime claimedAt;
+        private final Entry entry;
+
+        private Reservation(State state, StoredResponse response, String endpoint, String idempotencyKey,
+                            LocalDateTime claimedAt, Entry entry) {
+            this.state = state;
+            this.response = response;
+            this.endpoint = endpoint;
+            this.idempotencyKey = idempotencyKey;
+            this.claimedAt = claimedAt;
+            this.entry = entry;
+        }
+
+        private static Reservation of(State state) {
+            return new Reservation(state, null, null, null, null, null);
+        }
+
+        private static Reservation replay(StoredResponse response) {
+            return new Reservation(State.REPLAY, response, null, null, null, null);
+        }
+
+        private static Reservation execute(String endpoint, String idempotencyKey, LocalDateTime claimedAt, Entry entry) {
+            return new Reservation(State.EXECUTE, null, endpoint, idempotencyKey, claimedAt, entry);
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public StoredResponse getResponse() {
+            return response;
+        }
+    }
+
+    public static class StoredResponse {
+        private final int status;
+        private final String contentType;
+        // Header, die bei der Wiederholung mitgeschickt werden (z.B. Location), siehe IdempotencyFilter
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        public StoredResponse(int status, String contentType, byte[] body) {
+            this(status, contentType, Map.of(), body);
+        }
+
+        public StoredResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package de.htwberlin.webtech.webtech;
+
+import java.util.Arrays;
+
+/**
+ * Hash-Map von int auf int ohne Boxing: zwei parallele int-Arrays mit linearem Sondieren.
+ *
+ * Gedacht für dünn besetzte Zähler (z.B. Co-Occurrence-Zeilen): Werte, die auf 0 fallen, werden entfernt,
+ * get() liefert für fehlende Keys 0. Keys müssen >= 0 sein. Nicht thread-safe.
+ */
+public class IntIntHashMap {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / 0.75f) + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Funktion für forEach, ohne Boxing
+     */
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    public int get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /**
+     * Addiert delta auf den Wert von key und liefert den neuen Wert; bei 0 wird der Eintrag entfernt
+     */
+    public int addTo(int key, int delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys müssen >= 0 sein: " + key);
+        }
+        int slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                int value = values[slot] + delta;
+                if (value == 0) {
+                    removeAt(slot);
+                } else {
+                    values[slot] = value;
+                }
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (delta == 0) {
+            return 0;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize((mask + 1) * 2);
+        }
+        return delta;
+    }
+
+    public void remove(int key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            removeAt(slot);
+        }
+    }
+
+    /**
+     * Addiert alle Einträge von other
+     */
+    public void addAll(IntIntHashMap other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != FREE) {
+                addTo(other.keys[slot], other.values[slot]);
+            }
+        }
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Alle Keys in unbestimmter Reihenfolge
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int key : keys) {
+            if (key != FREE) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int find(int key) {
+        if (key < 0) {
+            return -1;
+        }
+        int slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward-Shift statt Grabsteinen: nachfolgende Einträge rücken in die Lücke, soweit ihr Ziel-Slot es erlaubt
+    private void removeAt(int slot) {
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    // Fibonacci-Hashing, damit aufeinanderfolgende IDs nicht in benachbarten Slots klumpen
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
\ No newline at end of file
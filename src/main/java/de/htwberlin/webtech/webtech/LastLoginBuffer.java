@@ -0,0 +1,107 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Puffert Last-Login-Zeitstempel im Speicher und schreibt sie gesammelt als ein Batch-UPDATE.
+ *
+ * Pro User wird nur der neueste Zeitstempel gehalten, der Speicher ist also durch die Anzahl
+ * der User begrenzt. Die Daten in der DB sind höchstens ein Flush-Intervall alt.
+ */
+@Component
+public class LastLoginBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginBuffer.class);
+
+    private static final String UPDATE_SQL = "UPDATE app_user SET last_login = ? WHERE id = ?";
+
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    // Gleiche Zeitzone wie Hibernate (hibernate.jdbc.time_zone), damit die Werte konsistent bleiben
+    private final TimeZone jdbcTimeZone;
+
+    public LastLoginBuffer(JdbcTemplate jdbcTemplate,
+                           @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTimeZone = jdbcTimeZone.isEmpty() ? null : TimeZone.getTimeZone(jdbcTimeZone);
+    }
+
+    /**
+     * Merkt sich den Login-Zeitpunkt; ältere Werte desselben Users werden überschrieben
+     */
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * Noch nicht geschriebener Login-Zeitpunkt eines Users
+     */
+    public Optional<LocalDateTime> pendingFor(Long userId) {
+        return Optional.ofNullable(pending.get(userId));
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Schreibt alle gepufferten Zeitstempel in einem Batch
+     */
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.add(Map.entry(userId, loginTime));
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                Timestamp timestamp = Timestamp.valueOf(entry.getValue());
+                if (jdbcTimeZone != null) {
+                    ps.setTimestamp(1, timestamp, Calendar.getInstance(jdbcTimeZone));
+                } else {
+                    ps.setTimestamp(1, timestamp);
+                }
+                ps.setLong(2, entry.getKey());
+            });
+        } catch (RuntimeException e) {
+            // Nicht verlieren: beim nächsten Flush erneut versuchen
+            batch.forEach(entry -> record(entry.getKey(), entry.getValue()));
+            log.atWarn()
+                    .setMessage("Last-Login-Flush fehlgeschlagen")
+                    .addKeyValue("event", "auth.last-login.flush-failed")
+                    .addKeyValue("users", batch.size())
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
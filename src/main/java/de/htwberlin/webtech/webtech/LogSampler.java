@@ -0,0 +1,26 @@
+package de.htwberlin.webtech.webtech;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stichproben für häufige Log-Ereignisse: nur etwa jedes n-te Ereignis wird geloggt.
+ *
+ * Zufallsbasiert statt mit gemeinsamem Zähler, damit es unter Last keine Contention gibt.
+ * Die Rate wird mitgeloggt, so lassen sich Gesamtzahlen hochrechnen.
+ */
+public final class LogSampler {
+
+    private final int rate;
+
+    public LogSampler(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    public boolean sample() {
+        return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    public int rate() {
+        return rate;
+    }
+}
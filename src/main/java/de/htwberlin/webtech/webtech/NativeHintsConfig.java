@@ -0,0 +1,53 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection-/Serialisierungs-Metadaten für das GraalVM Native Image.
+ *
+ * Die DTOs hinter ResponseEntity<?> und die OMDb-Antwort (RestTemplate) kann Spring AOT
+ * nicht aus den Controller-Signaturen ableiten.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+        User.class,
+        Watchlist.class,
+        AuthController.RegisterRequest.class,
+        AuthController.LoginRequest.class,
+        AuthController.UpdateUserRequest.class,
+        AuthController.AuthResponse.class,
+        AuthController.AvailabilityResponse.class,
+        AuthController.UserDTO.class,
+        WatchlistController.WatchlistRequest.class,
+        WatchlistController.StatsResponse.class,
+        WatchlistController.SearchResponse.class,
+        WatchlistController.OrderedPage.class,
+        TrendingTitles.TrendingTitle.class,
+        TitleRecommendations.SimilarTitle.class,
+        OMDbService.OMDbResponse.class,
+        UserAvailabilityIndex.Stats.class
+})
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Hibernate instanziiert den StatementInspector über den Klassennamen aus application.properties
+            hints.reflection().registerType(SqlStatementCounter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            // Den Type-/Genre-Listener legt Hibernate per Reflection an, Spring injiziert das Wörterbuch ins Feld
+            hints.reflection().registerType(WatchlistCategoryListener.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+            hints.resources().registerPattern("db/migration/*.sql");
+            // ConnectionLimitingDataSource gibt JDK-Proxies für Connection zurück
+            hints.proxies().registerJdkProxy(java.sql.Connection.class);
+        }
+    }
+}
\ No newline at end of file
@@ -1,30 +1,63 @@
 package de.htwberlin.webtech.webtech;
 
+import de.htwberlin.webtech.webtech.WatchlistMetrics.OmdbOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
 @Service
 public class OMDbService {
 
+    private static final Logger log = LoggerFactory.getLogger(OMDbService.class);
+
+    // Ergebnis-Logs kommen bei jedem Eintrag vor - nur Stichproben loggen
+    private static final LogSampler RESULT_LOG_SAMPLER = new LogSampler(20);
+
+    private static final Pattern API_KEY_PATTERN = Pattern.compile("apikey=[^&\\s\"]*");
+
     // API Key aus application.properties oder Umgebungsvariable
     @Value("${omdb.api.key:YOUR_API_KEY_HERE}")
     private String apiKey;
 
-    private static final String OMDB_BASE_URL = "http://www.omdbapi.com/";
+    // Überschreibbar, z.B. für den OMDb-Stub im Lasttest
+    @Value("${omdb.base-url:http://www.omdbapi.com/}")
+    private String omdbBaseUrl = "http://www.omdbapi.com/";
+
+    private static final Duration REACTIVE_TIMEOUT = Duration.ofSeconds(10);
+
     private final RestTemplate restTemplate;
 
+    // Nicht-blockierender Client für die reaktive /v2-API
+    private final WebClient webClient;
+
+    @Autowired
+    private WatchlistMetrics metrics;
+
     public OMDbService() {
         this.restTemplate = new RestTemplate();
+        this.webClient = WebClient.create();
     }
 
     /**
      * Sucht nach einem Film/Serie und gibt die Poster-URL zurück
      */
     public String fetchPosterUrl(String title, String type) {
+        long start = System.nanoTime();
+        OmdbOutcome outcome = OmdbOutcome.ERROR;
+        OmdbCallEvent event = new OmdbCallEvent();
+        event.begin();
         try {
             // Bereinige den Titel für die API-Anfrage
             String cleanTitle = cleanTitle(title);
@@ -34,12 +67,17 @@ public class OMDbService {
 
             // Baue die API-URL
             String url = String.format("%s?t=%s&type=%s&apikey=%s",
-                    OMDB_BASE_URL,
+                    omdbBaseUrl,
                     cleanTitle,
                     omdbType,
                     apiKey);
 
-            System.out.println("🎬 OMDb API Request: " + url);
+            log.atDebug()
+                    .setMessage("OMDb-Anfrage")
+                    .addKeyValue("event", "omdb.request")
+                    .addKeyValue("title", cleanTitle)
+                    .addKeyValue("type", omdbType)
+                    .log();
 
             // Mache die API-Anfrage
             OMDbResponse response = restTemplate.getForObject(url, OMDbResponse.class);
@@ -49,27 +87,99 @@ public class OMDbService {
 
                 // Prüfe ob ein gültiges Poster vorhanden ist
                 if (posterUrl != null && !posterUrl.equals("N/A") && !posterUrl.isEmpty()) {
-                    System.out.println("✅ Poster gefunden: " + posterUrl);
+                    outcome = OmdbOutcome.FOUND;
                     return posterUrl;
                 } else {
-                    System.out.println("❌ Kein Poster verfügbar für: " + title);
+                    outcome = OmdbOutcome.NO_POSTER;
                 }
             } else {
-                System.out.println("❌ Film/Serie nicht gefunden: " + title);
-                if (response != null) {
-                    System.out.println("OMDb Error: " + response.getError());
-                }
+                outcome = OmdbOutcome.NOT_FOUND;
             }
 
         } catch (RestClientException e) {
-            System.err.println("❌ OMDb API Fehler für '" + title + "': " + e.getMessage());
+            log.atWarn()
+                    .setMessage("OMDb-API-Fehler")
+                    .addKeyValue("event", "omdb.error")
+                    .addKeyValue("title", title)
+                    .addKeyValue("error", redactApiKey(e.getMessage()))
+                    .log();
         } catch (Exception e) {
-            System.err.println("❌ Unerwarteter Fehler beim Abrufen des Posters für '" + title + "': " + e.getMessage());
+            log.atError()
+                    .setMessage("Unerwarteter Fehler beim Abrufen des Posters")
+                    .addKeyValue("event", "omdb.error")
+                    .addKeyValue("title", title)
+                    .addKeyValue("error", redactApiKey(e.getMessage()))
+                    .log();
+        } finally {
+            long durationNanos = System.nanoTime() - start;
+            metrics.recordOmdbCall(outcome, durationNanos);
+            RequestTimings.recordNanos(RequestTimings.Phase.OMDB, durationNanos);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.title = title;
+                event.type = type;
+                event.outcome = outcome.name();
+                event.commit();
+            }
+
+            if (outcome != OmdbOutcome.ERROR && log.isInfoEnabled() && RESULT_LOG_SAMPLER.sample()) {
+                log.atInfo()
+                        .setMessage("OMDb-Ergebnis")
+                        .addKeyValue("event", "omdb.result")
+                        .addKeyValue("title", title)
+                        .addKeyValue("outcome", outcome.name())
+                        .addKeyValue("durationMs", durationNanos / 1_000_000)
+                        .addKeyValue("sampleRate", RESULT_LOG_SAMPLER.rate())
+                        .log();
+            }
         }
 
         return null; // Kein Poster gefunden
     }
 
+    /**
+     * Nicht-blockierende Variante von fetchPosterUrl für die /v2-API.
+     * Liefert die Poster-URL oder ein leeres Mono (kein Treffer, kein Poster, Fehler).
+     */
+    public Mono<String> fetchPosterUrlReactive(String title, String type) {
+        String cleanTitle = cleanTitle(title);
+        String omdbType = mapToOMDbType(type);
+
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    AtomicReference<OmdbOutcome> outcome = new AtomicReference<>(OmdbOutcome.ERROR);
+                    return webClient.get()
+                            .uri(omdbBaseUrl + "?t={title}&type={type}&apikey={apikey}", cleanTitle, omdbType, apiKey)
+                            .retrieve()
+                            .bodyToMono(OMDbResponse.class)
+                            .timeout(REACTIVE_TIMEOUT)
+                            .mapNotNull(response -> {
+                                if (!"True".equals(response.getResponse())) {
+                                    outcome.set(OmdbOutcome.NOT_FOUND);
+                                    return null;
+                                }
+                                String posterUrl = response.getPoster();
+                                if (posterUrl == null || posterUrl.equals("N/A") || posterUrl.isEmpty()) {
+                                    outcome.set(OmdbOutcome.NO_POSTER);
+                                    return null;
+                                }
+                                outcome.set(OmdbOutcome.FOUND);
+                                return posterUrl;
+                            })
+                            .onErrorResume(e -> {
+                                log.atWarn()
+                                        .setMessage("OMDb-API-Fehler")
+                                        .addKeyValue("event", "omdb.error")
+                                        .addKeyValue("title", title)
+                                        .addKeyValue("error", redactApiKey(e.getMessage()))
+                                        .log();
+                                return Mono.empty();
+                            })
+                            .doFinally(signal -> metrics.recordOmdbCall(outcome.get(), System.nanoTime() - start));
+                });
+    }
+
     /**
      * Alternative Suche mit Jahr, falls verfügbar
      */
@@ -80,7 +190,7 @@ public class OMDbService {
                 String omdbType = mapToOMDbType(type);
 
                 String url = String.format("%s?t=%s&y=%d&type=%s&apikey=%s",
-                        OMDB_BASE_URL,
+                        omdbBaseUrl,
                         cleanTitle,
                         year,
                         omdbType,
@@ -95,7 +205,12 @@ public class OMDbService {
                     }
                 }
             } catch (Exception e) {
-                System.err.println("❌ Fehler bei Jahr-spezifischer Suche: " + e.getMessage());
+                log.atWarn()
+                        .setMessage("Fehler bei Jahr-spezifischer Suche")
+                        .addKeyValue("event", "omdb.error")
+                        .addKeyValue("title", title)
+                        .addKeyValue("error", redactApiKey(e.getMessage()))
+                        .log();
             }
         }
 
@@ -104,9 +219,17 @@ public class OMDbService {
     }
 
     /**
-     * Bereinigt den Titel für die API-Anfrage
+     * Entfernt den API Key aus Texten, die die Request-URL enthalten (z.B. Exception-Meldungen)
+     */
+    static String redactApiKey(String text) {
+        if (text == null) return null;
+        return API_KEY_PATTERN.matcher(text).replaceAll("apikey=***");
+    }
+
+    /**
+     * Bereinigt den Titel für die API-Anfrage (package-private für JMH-Benchmarks)
      */
-    private String cleanTitle(String title) {
+    String cleanTitle(String title) {
         if (title == null) return "";
 
         return title
@@ -117,9 +240,9 @@ public class OMDbService {
     }
 
     /**
-     * Mappt unsere Types zu OMDb Types
+     * Mappt unsere Types zu OMDb Types (package-private für JMH-Benchmarks)
      */
-    private String mapToOMDbType(String type) {
+    String mapToOMDbType(String type) {
         if (type == null) return "";
 
         switch (type.toLowerCase()) {
@@ -0,0 +1,28 @@
+package de.htwberlin.webtech.webtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Event für einen OMDb-Aufruf; die Dauer des Events ist die Latenz des Aufrufs
+ */
+@Name("de.htwberlin.webtech.OmdbCall")
+@Label("OMDb Call")
+@Category({"Watchlist", "OMDb"})
+@Description("Poster-Abfrage bei der OMDb-API")
+@StackTrace(false)
+public class OmdbCallEvent extends Event {
+
+    @Label("Title")
+    String title;
+
+    @Label("Type")
+    String type;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,122 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt-Hashing auf einem eigenen, begrenzten Thread-Pool.
+ *
+ * Ein Hash kostet je nach Stärke zig Millisekunden CPU. Damit Logins die Tomcat-Threads
+ * nicht blockieren, laufen sie hier mit fester Parallelität; ist die Queue voll, wird
+ * sofort mit AuthOverloadedException abgelehnt statt zu warten.
+ */
+@Component
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public PasswordHasher(@Value("${auth.password.bcrypt-strength:10}") int strength,
+                          @Value("${auth.hashing.threads:0}") int threads,
+                          @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${auth.hashing.timeout-ms:2000}") long timeoutMillis) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeoutMillis;
+
+        // 0 = ein Thread pro CPU-Kern
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auth-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+
+        if (!isHashed(storedPassword)) {
+            // Altbestand im Klartext - wird nach erfolgreichem Login umgehasht
+            return MessageDigest.isEqual(
+                    rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return run(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * true für Klartext-Passwörter und Hashes mit geringerer als der konfigurierten Stärke
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    static boolean isHashed(String storedPassword) {
+        return storedPassword.length() == 60 && storedPassword.startsWith("$2");
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthOverloadedException("Anmeldung derzeit überlastet, bitte erneut versuchen!");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AuthOverloadedException("Anmeldung derzeit überlastet, bitte erneut versuchen!");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthOverloadedException("Anmeldung abgebrochen!");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Fehler beim Passwort-Hashing", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
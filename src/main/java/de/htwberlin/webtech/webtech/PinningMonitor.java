@@ -0,0 +1,143 @@
+package de.htwberlin.webtech.webtech;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meldet, wenn ein Virtual Thread seinen Carrier-Thread blockiert (jdk.VirtualThreadPinned),
+ * z.B. durch synchronized um blockierende I/O in Treibern oder eigenem Code.
+ *
+ * Pro Fundstelle (erster Frame außerhalb des JDK) wird gezählt; das erste Auftreten wird mit
+ * Stacktrace geloggt, die Übersicht gibt es unter /admin/profiling/pinning.
+ */
+@Component
+public class PinningMonitor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 100;
+
+    private final boolean enabled;
+    private final long thresholdMillis;
+
+    private final LongAdder pinnedCount = new LongAdder();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public PinningMonitor(@Value("${virtual-threads.pinning-monitor.enabled:false}") boolean enabled,
+                          @Value("${virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMillis) {
+        this.enabled = enabled;
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+
+        log.atInfo()
+                .setMessage("Pinning-Monitor gestartet")
+                .addKeyValue("event", "vthread.pinning.started")
+                .addKeyValue("thresholdMs", thresholdMillis)
+                .log();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+
+        String site = site(event);
+        LongAdder counter = sites.get(site);
+        if (counter == null) {
+            if (sites.size() >= MAX_SITES) {
+                site = "other";
+            }
+            counter = sites.computeIfAbsent(site, key -> new LongAdder());
+            if (counter.sum() == 0) {
+                log.atWarn()
+                        .setMessage("Virtual Thread blockiert Carrier-Thread")
+                        .addKeyValue("event", "vthread.pinned")
+                        .addKeyValue("site", site)
+                        .addKeyValue("durationMs", event.getDuration().toMillis())
+                        .addKeyValue("stackTrace", event.getStackTrace() != null ? event.getStackTrace().toString() : null)
+                        .log();
+            }
+        }
+        counter.increment();
+    }
+
+    /**
+     * Fundstellen nach Häufigkeit, z.B. {"org.example.Driver.read:120" = 42}
+     */
+    public Map<String, Long> sites() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        sites.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue().sum()));
+        return result;
+    }
+
+    public long pinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jvm.threads.virtual.pinned", this, PinningMonitor::pinnedCount)
+                .description("Virtual Threads, die ihren Carrier-Thread länger als die Schwelle blockiert haben")
+                .register(registry);
+    }
+
+    // Erster Frame außerhalb von java.*/jdk.*/sun.*, sonst der oberste Frame
+    private static String site(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame fallback = event.getStackTrace().getFrames().get(0);
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return format(frame);
+            }
+        }
+        return format(fallback);
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+package de.htwberlin.webtech.webtech;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startet auf Anfrage eine zeitlich und in der Größe begrenzte JFR-Aufzeichnung
+ * und liefert die .jfr-Datei zurück (Auswertung z.B. mit JDK Mission Control).
+ *
+ * Neben den JDK-Events (Allokationen, Locks, CPU-Samples) enthält die Aufzeichnung
+ * OmdbCallEvent, RepositoryCallEvent und HttpRequestEvent.
+ */
+@RestController
+@RequestMapping("/admin/profiling")
+public class ProfilingController {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilingController.class);
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    // Reserve für das Schreiben der Datei nach Ende der Aufzeichnung
+    private static final long TIMEOUT_MARGIN_MS = 30_000;
+
+    // Schalter wird zur Laufzeit geprüft, damit der Controller immer registriert ist
+    @Value("${profiling.enabled:false}")
+    private boolean enabled;
+
+    @Value("${profiling.admin-token:}")
+    private String adminToken;
+
+    @Value("${profiling.max-duration-seconds:120}")
+    private int maxDurationSeconds;
+
+    @Value("${profiling.max-size-mb:50}")
+    private int maxSizeMb;
+
+    @Autowired(required = false)
+    private PinningMonitor pinningMonitor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostMapping("/recording")
+    public WebAsyncTask<ResponseEntity<byte[]>> record(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @RequestParam(defaultValue = "30") int durationSeconds,
+            @RequestParam(defaultValue = "profile") String settings) {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (!isAuthorized(token)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Ungültiges Admin-Token!");
+        }
+        if (durationSeconds < 1 || durationSeconds > maxDurationSeconds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Dauer muss zwischen 1 und " + maxDurationSeconds + " Sekunden liegen!");
+        }
+        if (!SETTINGS.contains(settings)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unbekannte Einstellung: " + settings);
+        }
+        // Immer nur eine Aufzeichnung gleichzeitig
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Es läuft bereits eine Aufzeichnung!");
+        }
+
+        long timeoutMs = durationSeconds * 1000L + TIMEOUT_MARGIN_MS;
+        WebAsyncTask<ResponseEntity<byte[]>> task;
+        try {
+            task = new WebAsyncTask<>(timeoutMs, () -> {
+                try {
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"watchlist-" + Instant.now().getEpochSecond() + ".jfr\"")
+                            .body(runRecording(Duration.ofSeconds(durationSeconds), settings));
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        // Läuft der Callable nie (Executor lehnt ab) oder wird abgebrochen, gibt sonst niemand die Sperre frei
+        task.onTimeout(() -> {
+            running.set(false);
+            log.atWarn()
+                    .setMessage("JFR-Aufzeichnung abgebrochen (Timeout)")
+                    .addKeyValue("event", "profiling.timeout")
+                    .addKeyValue("timeoutMs", timeoutMs)
+                    .log();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        task.onError(() -> {
+            running.set(false);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        });
+        task.onCompletion(() -> running.set(false));
+        return task;
+    }
+
+    /**
+     * Fundstellen, an denen Virtual Threads ihren Carrier-Thread blockiert haben (Profil virtual-threads)
+     */
+    @GetMapping("/pinning")
+    public Map<String, Object> pinning(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (!isAuthorized(token)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Ungültiges Admin-Token!");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("monitorEnabled", pinningMonitor != null && pinningMonitor.isEnabled());
+        result.put("pinnedCount", pinningMonitor != null ? pinningMonitor.pinnedCount() : 0L);
+        result.put("sites", pinningMonitor != null ? pinningMonitor.sites() : Map.of());
+        return result;
+    }
+
+    private byte[] runRecording(Duration duration, String settings) throws Exception {
+        try (Recording recording = new Recording(Configuration.getConfiguration(settings))) {
+            recording.setName("watchlist-profiling");
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSizeMb * 1024L * 1024L);
+
+            log.atInfo()
+                    .setMessage("JFR-Aufzeichnung gestartet")
+                    .addKeyValue("event", "profiling.start")
+                    .addKeyValue("durationSeconds", duration.toSeconds())
+                    .addKeyValue("settings", settings)
+                    .log();
+
+            recording.start();
+            Thread.sleep(duration);
+            recording.stop();
+
+            Path file = Files.createTempFile("watchlist-", ".jfr");
+            try {
+                recording.dump(file);
+                return Files.readAllBytes(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private boolean isAuthorized(String token) {
+        // Ohne konfiguriertes Token ist der Endpunkt gesperrt
+        if (adminToken == null || adminToken.isEmpty() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,205 @@
+package de.htwberlin.webtech.webtech;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rang-Schlüssel für die manuelle Reihenfolge der Watchlist (fractional indexing nach D. Greenspan).
+ *
+ * Ein Schlüssel ist ein String aus Base62-Ziffern, der byteweise verglichen wird (in PostgreSQL COLLATE "C"):
+ * ein Ganzzahl-Teil mit Längen-Präfix ('a' = 1 Ziffer, 'b' = 2 Ziffern, ..., 'A'..'Z' für negative Zahlen)
+ * und ein optionaler Bruch-Teil ohne abschließende '0'. Zwischen zwei Schlüsseln passt immer ein weiterer,
+ * Verschieben ändert also nur den Schlüssel des verschobenen Eintrags. Ans Ende anhängen erhöht den
+ * Ganzzahl-Teil (wächst logarithmisch), Einfügen zwischen zwei Nachbarn verlängert den Bruch-Teil.
+ */
+public final class RankKeys {
+
+    // Aufsteigend in ASCII-Reihenfolge, damit Stringvergleich = Zahlvergleich
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Schlüssel für die Ganzzahl 0; Anfang einer neu durchnummerierten Liste
+     */
+    public static final String FIRST = "a0";
+
+    private static final String SMALLEST_INTEGER = "A" + "0".repeat(26);
+
+    private RankKeys() {}
+
+    /**
+     * Schlüssel echt zwischen lower und upper; null steht für "Anfang" bzw. "Ende" der Liste
+     */
+    public static String between(String lower, String upper) {
+        if (lower != null) {
+            validate(lower);
+        }
+        if (upper != null) {
+            validate(upper);
+        }
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Schlüssel nicht aufsteigend: " + lower + " >= " + upper);
+        }
+
+        if (lower == null) {
+            if (upper == null) {
+                return FIRST;
+            }
+            String integer = integerPart(upper);
+            String fraction = upper.substring(integer.length());
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", fraction);
+            }
+            if (integer.compareTo(upper) < 0) {
+                return integer;
+            }
+            return decrementInteger(integer);
+        }
+
+        String integer = integerPart(lower);
+        String fraction = lower.substring(integer.length());
+        if (upper == null) {
+            String next = incrementInteger(integer);
+            return next != null ? next : integer + midpoint(fraction, null);
+        }
+
+        String upperInteger = integerPart(upper);
+        if (integer.equals(upperInteger)) {
+            return integer + midpoint(fraction, upper.substring(upperInteger.length()));
+        }
+        String next = incrementInteger(integer);
+        if (next != null && next.compareTo(upper) < 0) {
+            return next;
+        }
+        return integer + midpoint(fraction, null);
+    }
+
+    /**
+     * Schlüssel aus einem Zeitstempel: später angelegte Einträge landen ohne Datenbankabfrage am Ende
+     * (nach allen durchnummerierten Schlüsseln, die mit 'a'..'f' beginnen)
+     */
+    public static String forTimestamp(long epochMillis) {
+        StringBuilder digits = new StringBuilder();
+        long value = Math.max(0, epochMillis);
+        do {
+            digits.append(DIGITS.charAt((int) (value % DIGITS.length())));
+            value /= DIGITS.length();
+        } while (value > 0);
+        digits.reverse();
+        return (char) ('a' + digits.length() - 1) + digits.toString();
+    }
+
+    /**
+     * count aufsteigende, möglichst kurze Schlüssel ab FIRST (für das Neu-Durchnummerieren)
+     */
+    public static List<String> sequence(int count) {
+        List<String> keys = new ArrayList<>(count);
+        String key = FIRST;
+        for (int i = 0; i < count; i++) {
+            keys.add(key);
+            key = incrementInteger(key);
+        }
+        return keys;
+    }
+
+    // Mittelpunkt zweier Bruch-Teile a < b (ohne Präfix); b == null steht für 1
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // Gemeinsames Präfix übernehmen; fehlende Stellen von a zählen als '0'
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : '0') == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(n < a.length() ? a.substring(n) : "", b.substring(n));
+            }
+        }
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : DIGITS.length();
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        // Benachbarte Ziffern: eine Stelle länger werden
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    private static String incrementInteger(String integer) {
+        char head = integer.charAt(0);
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) + 1;
+            if (digit < DIGITS.length()) {
+                digits[i] = DIGITS.charAt(digit);
+                return head + new String(digits);
+            }
+            digits[i] = '0';
+        }
+        // Überlauf: eine Ziffer mehr (bzw. bei negativen Zahlen eine weniger)
+        if (head == 'Z') {
+            return "a0";
+        }
+        if (head == 'z') {
+            return null;
+        }
+        char nextHead = (char) (head + 1);
+        String rest = new String(digits);
+        return nextHead + (nextHead > 'a' ? rest + "0" : rest.substring(1));
+    }
+
+    private static String decrementInteger(String integer) {
+        char head = integer.charAt(0);
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) - 1;
+            if (digit >= 0) {
+                digits[i] = DIGITS.charAt(digit);
+                return head + new String(digits);
+            }
+            digits[i] = 'z';
+        }
+        if (head == 'a') {
+            return "Zz";
+        }
+        if (head == 'A') {
+            throw new IllegalArgumentException("Kein Schlüssel kleiner als " + integer);
+        }
+        char nextHead = (char) (head - 1);
+        String rest = new String(digits);
+        return nextHead + (nextHead < 'Z' ? rest + "z" : rest.substring(1));
+    }
+
+    private static String integerPart(String key) {
+        int length = integerLength(key.charAt(0));
+        if (length > key.length()) {
+            throw new IllegalArgumentException("Ungültiger Schlüssel: " + key);
+        }
+        return key.substring(0, length);
+    }
+
+    private static int integerLength(char head) {
+        if (head >= 'a' && head <= 'z') {
+            return head - 'a' + 2;
+        }
+        if (head >= 'A' && head <= 'Z') {
+            return 'Z' - head + 2;
+        }
+        throw new IllegalArgumentException("Ungültiger Schlüssel-Anfang: " + head);
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty() || key.equals(SMALLEST_INTEGER)) {
+            throw new IllegalArgumentException("Ungültiger Schlüssel: " + key);
+        }
+        String integer = integerPart(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                throw new IllegalArgumentException("Ungültiger Schlüssel: " + key);
+            }
+        }
+        if (key.length() > integer.length() && key.charAt(key.length() - 1) == '0') {
+            throw new IllegalArgumentException("Schlüssel darf nicht auf 0 enden: " + key);
+        }
+    }
+}
\ No newline at end of file
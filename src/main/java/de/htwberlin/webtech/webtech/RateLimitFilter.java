@@ -0,0 +1,220 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate Limiting pro Client-IP mit Token Buckets je Endpunkt-Klasse.
+ *
+ * Nicht zusätzlich pro userId: der Parameter ist nicht authentifiziert, jeder könnte damit den Bucket eines
+ * anderen Users leeren. Hinter Proxies zählt nur der Teil von X-Forwarded-For, den die eigenen Proxies
+ * angehängt haben (ratelimit.trusted-proxies), nicht was der Client selbst mitschickt.
+ *
+ * Die Buckets sind als GCRA umgesetzt: pro Klasse nur ein "theoretical arrival time"-Wert,
+ * der lock-frei per CAS fortgeschrieben wird. Ein Bucket, dessen Zeitwert in der Vergangenheit
+ * liegt, ist wieder voll und kann ohne Informationsverlust entfernt werden.
+ *
+ * Läuft direkt nach ServerTimingFilter und vor IdempotencyFilter.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass { READ, WRITE, OMDB }
+
+    private final boolean enabled;
+    private final int trustedProxies;
+    private final int maxClients;
+    private final long[] intervalNanos = new long[EndpointClass.values().length];
+    private final long[] burstNanos = new long[EndpointClass.values().length];
+
+    private final ConcurrentHashMap<String, ClientBuckets> clients = new ConcurrentHashMap<>();
+    // Gemeinsamer Bucket, falls die Client-Tabelle voll ist
+    private final ClientBuckets overflow = new ClientBuckets();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder rejected = new LongAdder();
+
+    // Zeitbasis, damit alle Werte >= 0 sind
+    private final long origin = System.nanoTime();
+
+    public RateLimitFilter(@Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.trusted-proxies:0}") int trustedProxies,
+                           @Value("${ratelimit.max-clients:100000}") int maxClients,
+                           @Value("${ratelimit.read.per-second:20}") double readPerSecond,
+                           @Value("${ratelimit.read.burst:40}") int readBurst,
+                           @Value("${ratelimit.write.per-second:5}") double writePerSecond,
+                           @Value("${ratelimit.write.burst:10}") int writeBurst,
+                           @Value("${ratelimit.omdb.per-second:1}") double omdbPerSecond,
+                           @Value("${ratelimit.omdb.burst:5}") int omdbBurst) {
+        this.enabled = enabled;
+        this.trustedProxies = trustedProxies;
+        this.maxClients = maxClients;
+        configure(EndpointClass.READ, readPerSecond, readBurst);
+        configure(EndpointClass.WRITE, writePerSecond, writeBurst);
+        configure(EndpointClass.OMDB, omdbPerSecond, omdbBurst);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        int endpointClass = classify(request).ordinal();
+        long now = System.nanoTime() - origin;
+
+        long retryNanos = bucketsFor(clientIp(request)).tryAcquire(endpointClass, now);
+
+        if (retryNanos > 0) {
+            rejected.increment();
+            long retrySeconds = Math.max(1, (retryNanos + 999_999_999L) / 1_000_000_000L);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retrySeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"success\":false,\"message\":\"Zu viele Anfragen, bitte in "
+                    + retrySeconds + " s erneut versuchen!\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Entfernt Clients, deren Buckets wieder voll sind
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:30000}")
+    public void evictIdleClients() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime() - origin;
+            clients.values().removeIf(buckets -> buckets.isIdle(now));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return EndpointClass.READ;
+        }
+
+        // Endpunkte, die OMDb-Abfragen auslösen
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(method) && (path.equals("/Watchlist")
+                || path.endsWith("/refresh-poster")
+                || path.equals("/Watchlist/refresh-all-posters"))) {
+            return EndpointClass.OMDB;
+        }
+        if ("PUT".equals(method) && path.startsWith("/Watchlist/") && path.indexOf('/', "/Watchlist/".length()) < 0) {
+            return EndpointClass.OMDB;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    private ClientBuckets bucketsFor(String clientKey) {
+        ClientBuckets buckets = clients.get(clientKey);
+        if (buckets != null) {
+            return buckets;
+        }
+
+        if (clients.size() >= maxClients) {
+            evictIdleClients();
+            if (clients.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return clients.computeIfAbsent(clientKey, key -> new ClientBuckets());
+    }
+
+    /**
+     * Jeder Proxy hängt die Adresse, von der er den Request bekam, rechts an X-Forwarded-For an. Von rechts
+     * gezählt stammen also die letzten trustedProxies Einträge von den eigenen Proxies; der davor ist die
+     * Client-IP, alles weiter links kann der Client frei setzen
+     */
+    String clientIp(HttpServletRequest request) {
+        if (trustedProxies > 0) {
+            String forwardedFor = String.join(",", Collections.list(request.getHeaders("X-Forwarded-For")));
+            if (!forwardedFor.isBlank()) {
+                String[] hops = forwardedFor.split(",");
+                String ip = hops[Math.max(0, hops.length - trustedProxies)].trim();
+                if (!ip.isEmpty()) {
+                    return ip;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void configure(EndpointClass endpointClass, double perSecond, int burst) {
+        long interval = (long) (1_000_000_000L / perSecond);
+        intervalNanos[endpointClass.ordinal()] = interval;
+        burstNanos[endpointClass.ordinal()] = interval * Math.max(1, burst);
+    }
+
+    /**
+     * Ein GCRA-Zeitwert pro Endpunkt-Klasse
+     */
+    private class ClientBuckets {
+        private final AtomicLongArray theoreticalArrival = new AtomicLongArray(EndpointClass.values().length);
+
+        /**
+         * @return 0 wenn erlaubt, sonst die Wartezeit in Nanosekunden
+         */
+        long tryAcquire(int endpointClass, long now) {
+            long interval = intervalNanos[endpointClass];
+            long burst = burstNanos[endpointClass];
+
+            while (true) {
+                long tat = theoreticalArrival.get(endpointClass);
+                long newTat = Math.max(tat, now) + interval;
+                if (newTat - now > burst) {
+                    return newTat - now - burst;
+                }
+                if (theoreticalArrival.compareAndSet(endpointClass, tat, newTat)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isIdle(long now) {
+            for (int i = 0; i < theoreticalArrival.length(); i++) {
+                if (theoreticalArrival.get(i) > now) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
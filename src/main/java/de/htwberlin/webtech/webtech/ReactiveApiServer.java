@@ -0,0 +1,208 @@
+package de.htwberlin.webtech.webtech;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reaktive /v2/Watchlist-API auf einem eigenen Reactor-Netty-Server (Port v2.port) neben Tomcat.
+ *
+ * Gleiches Schema wie die Servlet-API, aber über R2DBC statt JDBC. ConnectionFactory und
+ * Repositories werden hier erzeugt und bewusst nicht als Beans registriert: ein ConnectionFactory-Bean
+ * würde die DataSource-Auto-Configuration (und damit JPA) abschalten.
+ */
+@Component
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveApiServer.class);
+
+    // Gleiche Origins wie @CrossOrigin am WatchlistController
+    private static final List<String> ALLOWED_ORIGINS =
+            List.of("http://localhost:5173", "https://watchlist-frontend-bzxi.onrender.com");
+
+    @Value("${v2.enabled:false}")
+    private boolean enabled;
+
+    @Value("${v2.port:8081}")
+    private int port;
+
+    // Leer: wird aus spring.datasource.url abgeleitet (jdbc:postgresql:// -> r2dbc:postgresql://)
+    @Value("${v2.r2dbc.url:}")
+    private String r2dbcUrl;
+
+    @Value("${v2.r2dbc.pool.max-size:20}")
+    private int poolMaxSize;
+
+    @Value("${spring.datasource.url:}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Autowired
+    private OMDbService omdbService;
+
+    @Autowired
+    private WatchlistMetrics metrics;
+
+    @Autowired
+    private TrendingTitles trendingTitles;
+
+    @Autowired
+    private TitleRecommendations recommendations;
+
+    @Autowired
+    private WatchlistSearchIndex searchIndex;
+
+    @Autowired
+    private CategoryDictionary categories;
+
+    @Autowired
+    private WatchlistTagIndex tagIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ConnectionPool connectionPool;
+    private DisposableServer server;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(resolveUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(1)
+                .maxSize(poolMaxSize)
+                .maxAcquireTime(Duration.ofSeconds(5))
+                .build());
+
+        // Wörterbuch vorab per JDBC laden, damit der Event-Loop später nur im Speicher nachschlägt
+        categories.preload();
+
+        R2dbcEntityTemplate template = new R2dbcEntityTemplate(connectionPool);
+        R2dbcRepositoryFactory repositories = new R2dbcRepositoryFactory(template);
+        WatchlistV2Handler handler = new WatchlistV2Handler(
+                repositories.getRepository(ReactiveWatchlistRepository.class),
+                repositories.getRepository(ReactiveUserRepository.class),
+                new ReactiveWatchlistStatsWriter(template.getDatabaseClient()),
+                omdbService,
+                metrics,
+                trendingTitles,
+                recommendations,
+                searchIndex,
+                categories,
+                tagIndex);
+
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler(handler)))
+                .bindNow();
+
+        log.atInfo()
+                .setMessage("Reaktive /v2-API gestartet")
+                .addKeyValue("event", "v2.started")
+                .addKeyValue("port", server.port())
+                .addKeyValue("poolMaxSize", poolMaxSize)
+                .log();
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        if (connectionPool != null) {
+            connectionPool.dispose();
+            connectionPool = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Tatsächlicher Port (bei v2.port=0 zufällig vergeben)
+     */
+    public int port() {
+        if (server == null) {
+            throw new IllegalStateException("Reaktive /v2-API läuft nicht");
+        }
+        return server.port();
+    }
+
+    private HttpHandler httpHandler(WatchlistV2Handler handler) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .path("/v2/Watchlist", builder -> builder
+                        .GET("", handler::list)
+                        .POST("", handler::create)
+                        .POST("/{id}/refresh-poster", handler::refreshPoster)
+                        .GET("/{id}", handler::get)
+                        .PUT("/{id}", handler::update)
+                        .DELETE("/{id}", handler::delete))
+                .build();
+
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOrigins(ALLOWED_ORIGINS);
+        cors.addAllowedMethod("*");
+        cors.addAllowedHeader("*");
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/v2/**", cors);
+
+        // Gleicher ObjectMapper wie die Servlet-API, damit das JSON identisch aussieht
+        return RouterFunctions.toHttpHandler(routes, HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .webFilter(new CorsWebFilter(corsSource))
+                .build());
+    }
+
+    private String resolveUrl() {
+        if (!r2dbcUrl.isEmpty()) {
+            return r2dbcUrl;
+        }
+        if (jdbcUrl.startsWith("jdbc:postgresql:")) {
+            return "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        }
+        throw new IllegalStateException("v2.r2dbc.url fehlt und lässt sich nicht aus " + jdbcUrl + " ableiten");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reaktives Gegenstück zu UserRepository. Wird von ReactiveApiServer erzeugt, ist kein Bean.
+ */
+public interface ReactiveUserRepository extends ReactiveCrudRepository<UserRow, Long> {
+
+    Mono<UserRow> findByUsername(String username);
+
+    Mono<UserRow> findByEmail(String email);
+
+    Mono<Boolean> existsByUsername(String username);
+
+    Mono<Boolean> existsByEmail(String email);
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reaktives Gegenstück zu WatchlistRepository. Wird von ReactiveApiServer erzeugt, ist kein Bean.
+ */
+public interface ReactiveWatchlistRepository extends ReactiveCrudRepository<WatchlistRow, Long> {
+
+    Flux<WatchlistRow> findByUserId(Long userId);
+
+    Mono<WatchlistRow> findByIdAndUserId(Long id, Long userId);
+
+    // Alles außer sort_key: die Reihenfolge ändert nur WatchlistOrdering, ein gleichzeitiges Verschieben bleibt erhalten
+    @Modifying
+    @Query("update watchlist set title = :title, type = :type, genre = :genre, type_id = :typeId, "
+            + "genre_mask = :genreMask, watched = :watched, rating = :rating, poster_url = :posterUrl "
+            + "where id = :id and user_id = :userId")
+    Mono<Integer> updateContent(@Param("id") Long id, @Param("userId") Long userId, @Param("title") String title,
+                                @Param("type") String type, @Param("genre") String genre, @Param("typeId") Short typeId,
+                                @Param("genreMask") long genreMask, @Param("watched") boolean watched,
+                                @Param("rating") int rating, @Param("posterUrl") String posterUrl);
+
+    default Mono<WatchlistRow> updateContent(WatchlistRow row) {
+        return updateContent(row.getId(), row.getUserId(), row.getTitle(), row.getType(), row.getGenre(),
+                row.getTypeId(), row.getGenreMask(), row.isWatched(), row.getRating(), row.getPosterUrl())
+                .thenReturn(row);
+    }
+
+    @Modifying
+    @Query("update watchlist set poster_url = :posterUrl where id = :id")
+    Mono<Integer> updatePosterUrl(@Param("id") Long id, @Param("posterUrl") String posterUrl);
+
+    // Ein DELETE, Besitz-Prüfung in der WHERE-Klausel
+    @Modifying
+    @Query("delete from watchlist where id = :id and user_id = :userId")
+    Mono<Integer> deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package de.htwberlin.webtech.webtech;
+
+import de.htwberlin.webtech.webtech.WatchlistStatsService.Snapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Statistik-Deltas für die reaktive /v2-API, gleiche Rechnung wie WatchlistStatsService, aber per R2DBC.
+ * Fehler werden nur geloggt; die Abweichung korrigiert WatchlistStatsReconciler.
+ */
+public class ReactiveWatchlistStatsWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveWatchlistStatsWriter.class);
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveWatchlistStatsWriter(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> recordChange(Snapshot before, Snapshot after) {
+        Snapshot any = after != null ? after : before;
+        if (any == null || any.getUserId() == null) {
+            return Mono.empty();
+        }
+        Long userId = any.getUserId();
+
+        long[] delta = WatchlistStatsService.totalsDelta(before, after);
+        Mono<Void> totals = WatchlistStatsService.isZero(delta)
+                ? Mono.empty()
+                : databaseClient.sql("UPDATE watchlist_stats SET total_count = total_count + :total, "
+                                + "watched_count = watched_count + :watched, rated_count = rated_count + :rated, "
+                                + "rating_sum = rating_sum + :ratingSum WHERE user_id = :userId")
+                        .bind("total", delta[0]).bind("watched", delta[1]).bind("rated", delta[2])
+                        .bind("ratingSum", delta[3]).bind("userId", userId)
+                        .fetch().rowsUpdated()
+                        .flatMap(updated -> updated == 0 && before == null
+                                ? databaseClient.sql("INSERT INTO watchlist_stats (user_id, total_count, watched_count, "
+                                                + "rated_count, rating_sum) VALUES (:userId, :total, :watched, :rated, :ratingSum)")
+                                        .bind("userId", userId).bind("total", delta[0]).bind("watched", delta[1])
+                                        .bind("rated", delta[2]).bind("ratingSum", delta[3])
+                                        .then()
+                                : Mono.<Void>empty());
+
+        Map<String, Long> genreDeltas = WatchlistStatsService.genreDeltas(before, after);
+        Mono<Void> genres = Flux.fromIterable(genreDeltas.entrySet())
+                .concatMap(entry -> databaseClient.sql("UPDATE watchlist_genre_stats SET item_count = item_count + :delta "
+                                + "WHERE user_id = :userId AND genre = :genre")
+                        .bind("delta", entry.getValue()).bind("userId", userId).bind("genre", entry.getKey())
+                        .fetch().rowsUpdated()
+                        .flatMap(updated -> updated == 0 && entry.getValue() > 0
+                                ? databaseClient.sql("INSERT INTO watchlist_genre_stats (user_id, genre, item_count) "
+                                                + "VALUES (:userId, :genre, :count)")
+                                        .bind("userId", userId).bind("genre", entry.getKey()).bind("count", entry.getValue())
+                                        .then()
+                                : Mono.<Void>empty()))
+                .then();
+
+        return totals.then(genres)
+                .onErrorResume(e -> {
+                    log.atWarn()
+                            .setMessage("Watchlist-Statistik nicht aktualisiert")
+                            .addKeyValue("event", "watchlist.stats.update-failed")
+                            .addKeyValue("error", e.getMessage())
+                            .log();
+                    return Mono.empty();
+                });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package de.htwberlin.webtech.webtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Event für einen Aufruf einer Repository-Methode
+ */
+@Name("de.htwberlin.webtech.RepositoryCall")
+@Label("Repository Call")
+@Category({"Watchlist", "Database"})
+@Description("Aufruf einer Spring-Data-Repository-Methode")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Success")
+    boolean success;
+}
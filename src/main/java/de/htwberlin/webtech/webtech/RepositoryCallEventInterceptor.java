@@ -0,0 +1,40 @@
+package de.htwberlin.webtech.webtech;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Umschließt jeden Repository-Aufruf mit einem RepositoryCallEvent
+ */
+class RepositoryCallEventInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    RepositoryCallEventInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        event.begin();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucht die Laufzeit aller Repository-Aufrufe auf die Phase "db" des aktuellen Requests
+ * und erzeugt dafür JFR-Events (RepositoryCallEvent)
+ */
+@Configuration
+public class RepositoryTimingConfig {
+
+    private static final RepositoryMethodInvocationListener TIMING_LISTENER = invocation ->
+            RequestTimings.recordNanos(RequestTimings.Phase.DB, invocation.getDuration(TimeUnit.NANOSECONDS));
+
+    @Bean
+    static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> {
+                        factory.addInvocationListener(TIMING_LISTENER);
+                        factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                proxyFactory.addAdvice(new RepositoryCallEventInterceptor(
+                                        repositoryInformation.getRepositoryInterface().getSimpleName())));
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Schreibt für jeden Request ein HttpRequestEvent, solange eine JFR-Aufzeichnung läuft
+ */
+public class RequestEventInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = RequestEventInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(EVENT_ATTRIBUTE) instanceof HttpRequestEvent event)) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = request.getMethod();
+            // Muster statt konkreter URI, damit sich Events gut gruppieren lassen
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.path = pattern != null ? pattern.toString() : request.getRequestURI();
+            event.handler = handler instanceof HandlerMethod method
+                    ? method.getBeanType().getSimpleName() + "#" + method.getMethod().getName()
+                    : null;
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+}
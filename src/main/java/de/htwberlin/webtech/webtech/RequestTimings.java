@@ -0,0 +1,170 @@
+package de.htwberlin.webtech.webtech;
+
+import java.util.Arrays;
+
+/**
+ * Request-bezogene Zeitmessung nach Phasen für den Server-Timing-Header.
+ *
+ * Pro Thread gibt es genau eine wiederverwendete Instanz mit festen Arrays, das Messen
+ * selbst erzeugt also keine Objekte. Außerhalb eines Requests sind alle Aufrufe No-Ops.
+ */
+public final class RequestTimings {
+
+    public enum Phase {
+        USER("user", "User-Lookup"),
+        ENRICH("enrich", "Poster-Anreicherung"),
+        OMDB("omdb", "OMDb"),
+        DB("db", "Datenbank");
+
+        final String metricName;
+        final String description;
+
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final int[] phaseCounts = new int[PHASES.length];
+    private int statementCount;
+    private boolean active;
+    private long startNanos;
+    private long firstByteNanos;
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Startet die Messung für den aktuellen Request (vom ServerTimingFilter aufgerufen)
+     */
+    static RequestTimings begin() {
+        RequestTimings timings = CURRENT.get();
+        Arrays.fill(timings.phaseNanos, 0L);
+        Arrays.fill(timings.phaseCounts, 0);
+        timings.statementCount = 0;
+        timings.active = true;
+        timings.startNanos = System.nanoTime();
+        timings.firstByteNanos = 0L;
+        return timings;
+    }
+
+    void end() {
+        active = false;
+    }
+
+    /**
+     * Messung des aktuellen Requests; null außerhalb eines Requests
+     */
+    static RequestTimings current() {
+        RequestTimings timings = CURRENT.get();
+        return timings.active ? timings : null;
+    }
+
+    long phaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    int phaseCount(Phase phase) {
+        return phaseCounts[phase.ordinal()];
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Bucht die Zeit seit startNanos auf die Phase
+     */
+    public static void record(Phase phase, long startNanos) {
+        recordNanos(phase, System.nanoTime() - startNanos);
+    }
+
+    public static void recordNanos(Phase phase, long durationNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.phaseNanos[phase.ordinal()] += durationNanos;
+            timings.phaseCounts[phase.ordinal()]++;
+        }
+    }
+
+    /**
+     * Zählt ein an die Datenbank geschicktes SQL-Statement (vom SqlStatementCounter aufgerufen)
+     */
+    public static void countStatement() {
+        RequestTimings timings = CURRENT.get();
+        if (timings.active) {
+            timings.statementCount++;
+        }
+    }
+
+    int statementCount() {
+        return statementCount;
+    }
+
+    void markFirstByte() {
+        if (firstByteNanos == 0L) {
+            firstByteNanos = System.nanoTime();
+        }
+    }
+
+    long totalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Zeit zwischen dem ersten geschriebenen Byte und jetzt (v.a. JSON-Serialisierung)
+     */
+    long responseWriteNanos() {
+        return firstByteNanos == 0L ? 0L : System.nanoTime() - firstByteNanos;
+    }
+
+    /**
+     * z.B. "user;dur=1.2;desc="User-Lookup", omdb;dur=201.5;desc="OMDb", sql;desc="3", app;dur=210.3"
+     */
+    String toHeaderValue() {
+        long appNanos = (firstByteNanos != 0L ? firstByteNanos : System.nanoTime()) - startNanos;
+        StringBuilder header = new StringBuilder(160);
+        for (Phase phase : PHASES) {
+            if (phaseCounts[phase.ordinal()] > 0) {
+                appendMetric(header, phase.metricName, phaseNanos[phase.ordinal()], phase.description);
+                header.append(", ");
+            }
+        }
+        if (statementCount > 0) {
+            header.append("sql;desc=\"").append(statementCount).append("\", ");
+        }
+        appendMetric(header, "app", appNanos, null);
+        return header.toString();
+    }
+
+    String toLogValue() {
+        StringBuilder line = new StringBuilder(120);
+        for (Phase phase : PHASES) {
+            if (phaseCounts[phase.ordinal()] > 0) {
+                line.append(phase.metricName).append('=').append(formatMillis(phaseNanos[phase.ordinal()]))
+                        .append("ms(").append(phaseCounts[phase.ordinal()]).append("x) ");
+            }
+        }
+        line.append("sql=").append(statementCount).append(' ');
+        line.append("write=").append(formatMillis(responseWriteNanos())).append("ms total=")
+                .append(formatMillis(totalNanos())).append("ms");
+        return line.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos, String description) {
+        header.append(name).append(";dur=").append(formatMillis(nanos));
+        if (description != null) {
+            header.append(";desc=\"").append(description).append('"');
+        }
+    }
+
+    // Millisekunden mit einer Nachkommastelle, ohne String.format
+    private static String formatMillis(long nanos) {
+        long tenths = nanos / 100_000;
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+}
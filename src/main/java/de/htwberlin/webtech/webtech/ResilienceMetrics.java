@@ -0,0 +1,53 @@
+package de.htwberlin.webtech.webtech;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metriken zu Concurrency-Limit, Rate Limiting und Hashing-Pool
+ */
+@Component
+public class ResilienceMetrics implements MeterBinder {
+
+    private final AdaptiveConcurrencyLimiter omdbConcurrencyLimiter;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordHasher passwordHasher;
+
+    public ResilienceMetrics(AdaptiveConcurrencyLimiter omdbConcurrencyLimiter,
+                             RateLimitFilter rateLimitFilter,
+                             PasswordHasher passwordHasher) {
+        this.omdbConcurrencyLimiter = omdbConcurrencyLimiter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.passwordHasher = passwordHasher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("omdb.concurrency.limit", omdbConcurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Aktuell erlaubte gleichzeitige OMDb-gebundene Requests")
+                .register(registry);
+        Gauge.builder("omdb.concurrency.inflight", omdbConcurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Laufende OMDb-gebundene Requests")
+                .register(registry);
+        FunctionCounter.builder("omdb.concurrency.rejected", omdbConcurrencyLimiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("Wegen des Concurrency-Limits abgelehnte Requests")
+                .register(registry);
+
+        FunctionCounter.builder("ratelimit.rejected", rateLimitFilter, RateLimitFilter::rejectedCount)
+                .description("Mit 429 abgelehnte Requests")
+                .register(registry);
+        Gauge.builder("ratelimit.clients", rateLimitFilter, RateLimitFilter::clientCount)
+                .description("Clients mit aktivem Token Bucket")
+                .register(registry);
+
+        Gauge.builder("auth.hashing.queue", passwordHasher, PasswordHasher::queueSize)
+                .description("Wartende Hashing-Aufträge")
+                .register(registry);
+        Gauge.builder("auth.hashing.active", passwordHasher, PasswordHasher::activeCount)
+                .description("Laufende Hashing-Aufträge")
+                .register(registry);
+    }
+}
@@ -0,0 +1,12 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aktiviert @Scheduled-Jobs (z.B. das periodische Schreiben der Last-Login-Zeitstempel)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,137 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Setzt den Server-Timing-Header mit den in RequestTimings gemessenen Phasen.
+ *
+ * Der Header muss vor dem ersten Byte des Bodys gesetzt werden; die Zeit für das Schreiben
+ * der Antwort (Serialisierung) erscheint deshalb nur in der Debug-Logzeile.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private static final String HEADER = "Server-Timing";
+
+    private final boolean enabled;
+    private final int statementWarnThreshold;
+
+    public ServerTimingFilter(@Value("${server-timing.enabled:true}") boolean enabled,
+                              @Value("${server-timing.statement-warn-threshold:20}") int statementWarnThreshold) {
+        this.enabled = enabled;
+        this.statementWarnThreshold = statementWarnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.begin();
+        TimingResponseWrapper wrapper = new TimingResponseWrapper(response, timings);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            // Antworten ohne Body
+            wrapper.writeHeader();
+            timings.end();
+
+            // Viele Statements in einem Request deuten auf N+1 oder unnötige Round-Trips hin
+            if (statementWarnThreshold > 0 && timings.statementCount() > statementWarnThreshold) {
+                log.atWarn()
+                        .setMessage("Viele SQL-Statements in einem Request")
+                        .addKeyValue("event", "http.sql.count")
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("statements", timings.statementCount())
+                        .log();
+            }
+
+            if (log.isDebugEnabled()) {
+                log.atDebug()
+                        .setMessage("Request-Timing")
+                        .addKeyValue("event", "http.timing")
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("status", response.getStatus())
+                        .addKeyValue("timing", timings.toLogValue())
+                        .log();
+            }
+        }
+    }
+
+    /**
+     * Schreibt den Header beim ersten Zugriff auf den Body, solange die Antwort noch nicht committed ist
+     */
+    private static class TimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+        private boolean headerWritten;
+
+        TimingResponseWrapper(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        void writeHeader() {
+            if (!headerWritten) {
+                headerWritten = true;
+                timings.markFirstByte();
+                if (!isCommitted()) {
+                    setHeader(HEADER, timings.toHeaderValue());
+                }
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package de.htwberlin.webtech.webtech;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Zählt die von Hibernate vorbereiteten SQL-Statements pro Request (Server-Timing "sql", Warn-Log im ServerTimingFilter).
+ *
+ * Registriert über hibernate.session_factory.statement_inspector in application.properties.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTimings.countStatement();
+        return sql;
+    }
+}
\ No newline at end of file
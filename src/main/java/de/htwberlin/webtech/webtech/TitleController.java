@@ -0,0 +1,36 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/**
+ * Titelbezogene Abfragen über alle User hinweg
+ */
+@RestController
+@CrossOrigin(origins = {"http://localhost:5173", "https://watchlist-frontend-bzxi.onrender.com"})
+public class TitleController {
+
+    @Autowired
+    private TrendingTitles trendingTitles;
+
+    @Autowired
+    private TitleRecommendations recommendations;
+
+    /**
+     * Aktuell meistgenutzte Titel; kommt aus dem Speicher, ohne Datenbankzugriff
+     */
+    @GetMapping("/titles/trending")
+    public List<TrendingTitles.TrendingTitle> getTrendingTitles(@RequestParam(defaultValue = "10") int limit) {
+        return trendingTitles.trending(limit);
+    }
+
+    /**
+     * "Wer diesen Titel hat, hat auch": Titel, die am häufigsten zusammen mit title auf Watchlists stehen
+     */
+    @GetMapping("/titles/similar")
+    public List<TitleRecommendations.SimilarTitle> getSimilarTitles(@RequestParam String title,
+                                                                    @RequestParam(defaultValue = "10") int limit) {
+        return recommendations.similar(title, limit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package de.htwberlin.webtech.webtech;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Einheitlicher Schlüssel für Titel, damit "Inception", " inception " und "Incéption!" zusammen gezählt werden
+ */
+public final class TitleNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TitleNormalizer() {}
+
+    /**
+     * Kleinbuchstaben, ohne Akzente und Satzzeichen, einfache Leerzeichen; null/leer ergibt ""
+     */
+    public static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(title, Normalizer.Form.NFD);
+        String withoutAccents = DIACRITICS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,451 @@
+package de.htwberlin.webtech.webtech;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * "Wer X auf der Watchlist hat, hat auch Y": Co-Occurrence-Matrix über alle Titel, im Speicher.
+ *
+ * Titel werden normalisiert (TitleNormalizer) und auf fortlaufende int-IDs abgebildet. Jede Zeile der Matrix
+ * ist eine IntIntHashMap (Titel-ID -> Anzahl User mit beiden Titeln), pro User merkt sich der Index seine
+ * Titel-IDs. Hinzufügen und Löschen von Einträgen ändern nur die betroffenen Zeilen.
+ *
+ * Der komplette Neuaufbau (beim Start und danach periodisch, um Drift zu beseitigen) liest alle Einträge per
+ * JdbcTemplate und zählt die Paare parallel per Fork/Join. Änderungen während des Neuaufbaus werden
+ * zusätzlich gepuffert und danach auf den neuen Stand nachgespielt.
+ *
+ * User mit mehr als recommendations.max-titles-per-user verschiedenen Titeln zählen nicht mit: sie würden
+ * quadratisch viele Paare beitragen und kaum etwas über Ähnlichkeit aussagen.
+ */
+@Component
+public class TitleRecommendations {
+
+    private static final Logger log = LoggerFactory.getLogger(TitleRecommendations.class);
+
+    // Seitenweise per Keyset, damit der Treiber nie die ganze Tabelle puffert
+    private static final String PAGE_SQL = "SELECT id, user_id, title FROM watchlist WHERE id > ? ORDER BY id LIMIT ?";
+
+    // Unterhalb davon lohnt sich kein weiteres Aufteilen
+    private static final int USERS_PER_TASK = 2048;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxTitlesPerUser;
+    private final int pageSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Nur unter dem Write-Lock verändern
+    private Index index;
+    private List<Change> pendingDuringRebuild;
+
+    public TitleRecommendations(JdbcTemplate jdbcTemplate,
+                                @Value("${recommendations.max-titles-per-user:500}") int maxTitlesPerUser,
+                                @Value("${recommendations.rebuild-page-size:50000}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxTitlesPerUser = maxTitlesPerUser;
+        this.pageSize = pageSize;
+        this.index = new Index(maxTitlesPerUser);
+    }
+
+    public void itemAdded(Long userId, String title) {
+        apply(new Change(userId, title, 1));
+    }
+
+    public void itemRemoved(Long userId, String title) {
+        apply(new Change(userId, title, -1));
+    }
+
+    /**
+     * Die höchstens limit Titel, die am häufigsten zusammen mit title auf einer Watchlist stehen
+     */
+    public List<SimilarTitle> similar(String title, int limit) {
+        String key = TitleNormalizer.normalize(title);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Integer id = index.ids.get(key);
+            if (id == null || index.rows[id] == null) {
+                return List.of();
+            }
+            long[] top = topN(index.rows[id], limit);
+            List<SimilarTitle> result = new ArrayList<>(top.length);
+            for (long packed : top) {
+                result.add(new SimilarTitle(index.titles.get((int) packed), (int) (packed >>> 32)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Baut die Matrix komplett aus der Datenbank neu auf
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${recommendations.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        try {
+            rebuild(loader -> {
+                long[] lastId = {0};
+                int[] rows = {0};
+                do {
+                    rows[0] = 0;
+                    jdbcTemplate.query(PAGE_SQL, rs -> {
+                        lastId[0] = rs.getLong(1);
+                        loader.add(rs.getLong(2), rs.getString(3));
+                        rows[0]++;
+                    }, lastId[0], pageSize);
+                } while (rows[0] == pageSize);
+            });
+        } catch (RuntimeException e) {
+            log.atWarn()
+                    .setMessage("Neuaufbau der Empfehlungen fehlgeschlagen, alter Stand bleibt")
+                    .addKeyValue("event", "recommendations.rebuild-failed")
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        }
+    }
+
+    void rebuild(Consumer<Loader> source) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt;
+        try {
+            Loader loader = new Loader(maxTitlesPerUser);
+            source.accept(loader);
+            rebuilt = loader.index;
+            List<int[]> counted = new ArrayList<>();
+            for (IntIntHashMap titles : rebuilt.userTitles.values()) {
+                if (titles.size() > 1 && titles.size() <= maxTitlesPerUser) {
+                    counted.add(titles.keys());
+                }
+            }
+            IntIntHashMap[] rows = ForkJoinPool.commonPool()
+                    .invoke(new PairCountTask(counted, 0, counted.size(), rebuilt.titles.size()));
+            rebuilt.rows = Arrays.copyOf(rows, Math.max(16, rows.length));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            // Was während des Ladens geändert wurde, steht evtl. schon im neuen Stand; doppelt gezählte
+            // Paare korrigiert der nächste Neuaufbau
+            replayed = pendingDuringRebuild.size();
+            for (Change change : pendingDuringRebuild) {
+                rebuilt.apply(change);
+            }
+            pendingDuringRebuild = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.atInfo()
+                .setMessage("Empfehlungen neu aufgebaut")
+                .addKeyValue("event", "recommendations.rebuilt")
+                .addKeyValue("users", rebuilt.userTitles.size())
+                .addKeyValue("titles", rebuilt.titles.size())
+                .addKeyValue("replayedChanges", replayed)
+                .addKeyValue("durationMs", (System.nanoTime() - start) / 1_000_000)
+                .log();
+    }
+
+    private void apply(Change change) {
+        if (change.userId == null || change.key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.apply(change);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Die limit größten Werte der Zeile per Min-Heap; gepackt als (Anzahl << 32 | Titel-ID), absteigend sortiert
+    private static long[] topN(IntIntHashMap row, int limit) {
+        long[] heap = new long[Math.min(limit, row.size())];
+        int[] size = {0};
+        row.forEach((titleId, count) -> {
+            long packed = (long) count << 32 | titleId;
+            if (size[0] < heap.length) {
+                heap[size[0]] = packed;
+                siftUp(heap, size[0]++);
+            } else if (heap.length > 0 && packed > heap[0]) {
+                heap[0] = packed;
+                siftDown(heap, heap.length);
+            }
+        });
+        Arrays.sort(heap);
+        for (int i = 0, j = heap.length - 1; i < j; i++, j--) {
+            long swap = heap[i];
+            heap[i] = heap[j];
+            heap[j] = swap;
+        }
+        return heap;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent] <= heap[i]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = swap;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) smallest = left;
+            if (right < size && heap[right] < heap[smallest]) smallest = right;
+            if (smallest == i) {
+                return;
+            }
+            long swap = heap[smallest];
+            heap[smallest] = heap[i];
+            heap[i] = swap;
+            i = smallest;
+        }
+    }
+
+    private static void addPair(IntIntHashMap[] rows, int a, int b, int delta) {
+        if (rows[a] == null) rows[a] = new IntIntHashMap();
+        if (rows[b] == null) rows[b] = new IntIntHashMap();
+        rows[a].addTo(b, delta);
+        rows[b].addTo(a, delta);
+    }
+
+    /**
+     * Titel-Wörterbuch, Matrix-Zeilen und Titel pro User
+     */
+    private static class Index {
+        private final int maxTitlesPerUser;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> titles = new ArrayList<>();
+        // Titel-ID -> Anzahl Einträge des Users mit diesem Titel (Duplikate zählen für die Paare nur einmal)
+        private final Map<Long, IntIntHashMap> userTitles = new HashMap<>();
+        private IntIntHashMap[] rows = new IntIntHashMap[16];
+
+        private Index(int maxTitlesPerUser) {
+            this.maxTitlesPerUser = maxTitlesPerUser;
+        }
+
+        private int idFor(String key, String title) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = titles.size();
+                ids.put(key, id);
+                titles.add(title.trim());
+                if (id >= rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                }
+            }
+            return id;
+        }
+
+        private void apply(Change change) {
+            int id;
+            if (change.delta > 0) {
+                id = idFor(change.key, change.title);
+            } else {
+                id = ids.getOrDefault(change.key, -1);
+            }
+            IntIntHashMap titlesOfUser = userTitles.get(change.userId);
+            if (id < 0 || (change.delta < 0 && (titlesOfUser == null || titlesOfUser.get(id) == 0))) {
+                return;
+            }
+            if (titlesOfUser == null) {
+                titlesOfUser = new IntIntHashMap();
+                userTitles.put(change.userId, titlesOfUser);
+            }
+
+            int distinctBefore = titlesOfUser.size();
+            int count = titlesOfUser.addTo(id, change.delta);
+            if (change.delta > 0 && count == 1) {
+                if (distinctBefore + 1 <= maxTitlesPerUser) {
+                    pairWith(id, titlesOfUser, 1);
+                } else if (distinctBefore == maxTitlesPerUser) {
+                    // Grenze überschritten: der User zählt ab jetzt gar nicht mehr mit
+                    allPairs(titlesOfUser, id, -1);
+                }
+            } else if (change.delta < 0 && count == 0) {
+                if (distinctBefore <= maxTitlesPerUser) {
+                    pairWith(id, titlesOfUser, -1);
+                } else if (distinctBefore - 1 == maxTitlesPerUser) {
+                    allPairs(titlesOfUser, -1, 1);
+                }
+                if (titlesOfUser.isEmpty()) {
+                    userTitles.remove(change.userId);
+                }
+            }
+        }
+
+        private void pairWith(int id, IntIntHashMap titlesOfUser, int delta) {
+            titlesOfUser.forEach((other, count) -> {
+                if (other != id) {
+                    addPair(rows, id, other, delta);
+                }
+            });
+        }
+
+        // Alle Paare unter den Titeln des Users, ohne exclude
+        private void allPairs(IntIntHashMap titlesOfUser, int exclude, int delta) {
+            int[] ids = titlesOfUser.keys();
+            for (int i = 0; i < ids.length; i++) {
+                for (int j = i + 1; j < ids.length; j++) {
+                    if (ids[i] != exclude && ids[j] != exclude) {
+                        addPair(rows, ids[i], ids[j], delta);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sammelt beim Neuaufbau Titel pro User und vergibt die Titel-IDs
+     */
+    static class Loader {
+        private final Index index;
+
+        private Loader(int maxTitlesPerUser) {
+            this.index = new Index(maxTitlesPerUser);
+        }
+
+        void add(long userId, String title) {
+            String key = TitleNormalizer.normalize(title);
+            if (key.isEmpty()) {
+                return;
+            }
+            int id = index.idFor(key, title);
+            index.userTitles.computeIfAbsent(userId, user -> new IntIntHashMap()).addTo(id, 1);
+        }
+    }
+
+    /**
+     * Zählt die Paare eines Bereichs von Usern; große Bereiche werden geteilt und die Teilmatrizen addiert
+     */
+    private static class PairCountTask extends RecursiveTask<IntIntHashMap[]> {
+        private final List<int[]> users;
+        private final int from;
+        private final int to;
+        private final int titleCount;
+
+        private PairCountTask(List<int[]> users, int from, int to, int titleCount) {
+            this.users = users;
+            this.from = from;
+            this.to = to;
+            this.titleCount = titleCount;
+        }
+
+        @Override
+        protected IntIntHashMap[] compute() {
+            if (to - from <= USERS_PER_TASK) {
+                IntIntHashMap[] rows = new IntIntHashMap[titleCount];
+                for (int u = from; u < to; u++) {
+                    int[] ids = users.get(u);
+                    for (int i = 0; i < ids.length; i++) {
+                        for (int j = i + 1; j < ids.length; j++) {
+                            addPair(rows, ids[i], ids[j], 1);
+                        }
+                    }
+                }
+                return rows;
+            }
+
+            int middle = (from + to) >>> 1;
+            PairCountTask left = new PairCountTask(users, from, middle, titleCount);
+            left.fork();
+            IntIntHashMap[] right = new PairCountTask(users, middle, to, titleCount).compute();
+            IntIntHashMap[] merged = left.join();
+            for (int t = 0; t < titleCount; t++) {
+                if (right[t] == null) {
+                    continue;
+                }
+                if (merged[t] == null) {
+                    merged[t] = right[t];
+                } else if (merged[t].size() < right[t].size()) {
+                    right[t].addAll(merged[t]);
+                    merged[t] = right[t];
+                } else {
+                    merged[t].addAll(right[t]);
+                }
+            }
+            return merged;
+        }
+    }
+
+    private static class Change {
+        private final Long userId;
+        private final String title;
+        private final String key;
+        private final int delta;
+
+        private Change(Long userId, String title, int delta) {
+            this.userId = userId;
+            this.title = title;
+            this.key = TitleNormalizer.normalize(title);
+            this.delta = delta;
+        }
+    }
+
+    /**
+     * Ähnlicher Titel mit der Anzahl User, die beide Titel auf der Watchlist haben
+     */
+    public static class SimilarTitle {
+        private final String title;
+        private final int count;
+
+        public SimilarTitle(String title, int count) {
+            this.title = title;
+            this.count = count;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Letzter gespeicherter Stand des Trending-Sketches eines Knotens (eine Zeile pro Knoten).
+ *
+ * Jeder Knoten schreibt nur seine eigene Zeile und liest die der anderen, um sie in seine Rangliste einzurechnen.
+ */
+@Entity
+@Table(name = "trending_checkpoint")
+public class TrendingCheckpoint {
+
+    // Sketch (Breite x Tiefe x 8 Byte) plus Kandidaten-Titel
+    private static final int MAX_STATE_BYTES = 16 * 1024 * 1024;
+
+    @Id
+    @Column(name = "node_id", length = 255)
+    private String nodeId;
+
+    @Column(name = "state", nullable = false, length = MAX_STATE_BYTES)
+    private byte[] state;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Leerer Konstruktor für Hibernate
+    public TrendingCheckpoint() {}
+
+    public TrendingCheckpoint(String nodeId, byte[] state, LocalDateTime updatedAt) {
+        this.nodeId = nodeId;
+        this.state = state;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getter
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TrendingCheckpointRepository extends CrudRepository<TrendingCheckpoint, String> {
+
+    List<TrendingCheckpoint> findByUpdatedAtAfter(LocalDateTime since);
+}
\ No newline at end of file
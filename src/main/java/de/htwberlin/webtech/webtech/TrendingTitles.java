@@ -0,0 +1,354 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Global meistgenutzte Titel der letzten Zeit, komplett im Speicher.
+ *
+ * Jedes Hinzufügen und jedes Umschalten von "gesehen" zählt den normalisierten Titel in einem
+ * DecayingCountMinSketch (Halbwertszeit trending.half-life-hours). Ein Min-Heap hält die Kandidaten
+ * mit den höchsten Schätzungen; daraus wird nach jeder Änderung eine fertige Rangliste gebaut, die
+ * GET /titles/trending ohne Datenbankzugriff ausliefert.
+ *
+ * Periodisch schreibt jeder Knoten seinen Sketch als Checkpoint in trending_checkpoint und rechnet
+ * die Checkpoints der anderen Knoten in seine Rangliste ein. Beim Start wird der eigene Stand wiederhergestellt.
+ */
+@Component
+public class TrendingTitles {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingTitles.class);
+
+    private static final int STATE_VERSION = 1;
+    private static final Comparator<Candidate> BY_SCORE = Comparator.comparingDouble(candidate -> candidate.raw);
+
+    private final TrendingCheckpointRepository checkpoints;
+    private final String nodeId;
+    private final long halfLifeMillis;
+    private final int maxResults;
+    // Mehr Kandidaten als ausgeliefert werden, damit Titel knapp unter den Top-K nicht ständig herausfallen
+    private final int capacity;
+    private final Duration maxCheckpointAge;
+
+    // Nur unter dem Lock von this verändern
+    private final DecayingCountMinSketch local;
+    private DecayingCountMinSketch remote;
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(BY_SCORE);
+
+    private volatile Ranking ranking;
+
+    public TrendingTitles(TrendingCheckpointRepository checkpoints,
+                          @Value("${trending.node-id:${HOSTNAME:local}}") String nodeId,
+                          @Value("${trending.sketch.width:2048}") int width,
+                          @Value("${trending.sketch.depth:4}") int depth,
+                          @Value("${trending.half-life-hours:84}") long halfLifeHours,
+                          @Value("${trending.max-results:50}") int maxResults,
+                          @Value("${trending.max-checkpoint-age-hours:168}") long maxCheckpointAgeHours) {
+        this.checkpoints = checkpoints;
+        this.nodeId = nodeId;
+        this.halfLifeMillis = Duration.ofHours(halfLifeHours).toMillis();
+        this.maxResults = maxResults;
+        this.capacity = maxResults * 2;
+        this.maxCheckpointAge = Duration.ofHours(maxCheckpointAgeHours);
+
+        long now = System.currentTimeMillis();
+        this.local = new DecayingCountMinSketch(width, depth, halfLifeMillis, now);
+        this.remote = local.emptyCopy();
+        this.ranking = new Ranking(List.of(), now);
+    }
+
+    /**
+     * Zählt eine Nutzung des Titels; leere Titel werden ignoriert
+     */
+    public void record(String title) {
+        String key = TitleNormalizer.normalize(title);
+        if (key.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            local.add(key, now);
+            offer(key, title.trim(), local.estimateRaw(key, remote));
+            publishRanking();
+        }
+    }
+
+    /**
+     * Die höchstens limit meistgenutzten Titel mit ihrer abgeklungenen Anzahl, absteigend
+     */
+    public List<TrendingTitle> trending(int limit) {
+        Ranking current = ranking;
+        double decay = Math.exp(-Math.log(2) / halfLifeMillis * (System.currentTimeMillis() - current.landmark));
+        int size = Math.min(Math.max(limit, 0), current.entries.size());
+        List<TrendingTitle> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Candidate entry = current.entries.get(i);
+            result.add(new TrendingTitle(entry.title, entry.raw * decay));
+        }
+        return result;
+    }
+
+    /**
+     * Schreibt den eigenen Stand und übernimmt die Checkpoints der anderen Knoten
+     */
+    @Scheduled(fixedDelayString = "${trending.checkpoint-interval-ms:60000}",
+            initialDelayString = "${trending.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        byte[] state;
+        synchronized (this) {
+            // Landmark nachziehen, damit die Gewichte exp(lambda * (t - landmark)) klein bleiben
+            long now = System.currentTimeMillis();
+            local.rescale(now);
+            remote.rescale(now);
+            reestimate();
+            state = serialize(local, candidates.values());
+        }
+
+        try {
+            checkpoints.save(new TrendingCheckpoint(nodeId, state, LocalDateTime.now(ZoneOffset.UTC)));
+            load(false);
+        } catch (RuntimeException e) {
+            log.atWarn()
+                    .setMessage("Trending-Checkpoint fehlgeschlagen")
+                    .addKeyValue("event", "trending.checkpoint-failed")
+                    .addKeyValue("nodeId", nodeId)
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        }
+    }
+
+    /**
+     * Stellt nach dem Start den eigenen Stand wieder her und liest die der anderen Knoten
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            load(true);
+        } catch (RuntimeException e) {
+            log.atWarn()
+                    .setMessage("Trending-Checkpoints nicht geladen, Start ohne Vorwissen")
+                    .addKeyValue("event", "trending.restore-failed")
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    // Der eigene Checkpoint wird nur beim Start übernommen, sonst stünde er doppelt in local und remote
+    private void load(boolean includeOwn) {
+        LocalDateTime since = LocalDateTime.now(ZoneOffset.UTC).minus(maxCheckpointAge);
+        List<State> own = new ArrayList<>();
+        List<State> others = new ArrayList<>();
+        for (TrendingCheckpoint checkpoint : checkpoints.findByUpdatedAtAfter(since)) {
+            boolean isOwn = checkpoint.getNodeId().equals(nodeId);
+            if (isOwn && !includeOwn) {
+                continue;
+            }
+            try {
+                (isOwn ? own : others).add(deserialize(checkpoint.getState()));
+            } catch (RuntimeException e) {
+                log.atWarn()
+                        .setMessage("Trending-Checkpoint nicht lesbar")
+                        .addKeyValue("event", "trending.checkpoint-invalid")
+                        .addKeyValue("nodeId", checkpoint.getNodeId())
+                        .addKeyValue("error", e.getMessage())
+                        .log();
+            }
+        }
+
+        synchronized (this) {
+            for (State state : own) {
+                mergeInto(local, state);
+            }
+            DecayingCountMinSketch merged = local.emptyCopy();
+            for (State state : others) {
+                mergeInto(merged, state);
+            }
+            remote = merged;
+
+            reestimate();
+            for (State state : own) {
+                state.titles.forEach((key, title) -> offer(key, title, local.estimateRaw(key, remote)));
+            }
+            for (State state : others) {
+                state.titles.forEach((key, title) -> offer(key, title, local.estimateRaw(key, remote)));
+            }
+            publishRanking();
+        }
+    }
+
+    private void mergeInto(DecayingCountMinSketch target, State state) {
+        if (!target.isCompatible(state.sketch)) {
+            // Anders konfigurierter Knoten (Breite, Tiefe, Halbwertszeit) - nicht addierbar
+            log.atWarn()
+                    .setMessage("Trending-Checkpoint mit abweichenden Sketch-Parametern übersprungen")
+                    .addKeyValue("event", "trending.checkpoint-incompatible")
+                    .log();
+            state.titles.clear();
+            return;
+        }
+        target.merge(state.sketch);
+    }
+
+    // Kandidat aufnehmen oder aktualisieren; ist der Heap voll, verdrängt er nur den schwächsten
+    private void offer(String key, String title, double raw) {
+        Candidate candidate = candidates.get(key);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.title = title;
+            candidate.raw = raw;
+            heap.add(candidate);
+            return;
+        }
+        if (candidates.size() >= capacity) {
+            if (raw <= heap.peek().raw) {
+                return;
+            }
+            candidates.remove(heap.poll().key);
+        }
+        candidate = new Candidate(key, title, raw);
+        candidates.put(key, candidate);
+        heap.add(candidate);
+    }
+
+    // Nach Landmark-Wechsel oder Merge passen die gespeicherten Schätzungen nicht mehr
+    private void reestimate() {
+        heap.clear();
+        for (Candidate candidate : candidates.values()) {
+            candidate.raw = local.estimateRaw(candidate.key, remote);
+            heap.add(candidate);
+        }
+    }
+
+    private void publishRanking() {
+        List<Candidate> sorted = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates.values()) {
+            sorted.add(new Candidate(candidate.key, candidate.title, candidate.raw));
+        }
+        sorted.sort(BY_SCORE.reversed());
+        ranking = new Ranking(List.copyOf(sorted.subList(0, Math.min(maxResults, sorted.size()))), local.landmark());
+    }
+
+    private static byte[] serialize(DecayingCountMinSketch sketch, Iterable<Candidate> titles) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(STATE_VERSION);
+            byte[] sketchBytes = sketch.toBytes();
+            out.writeInt(sketchBytes.length);
+            out.write(sketchBytes);
+            List<Candidate> list = new ArrayList<>();
+            titles.forEach(list::add);
+            out.writeInt(list.size());
+            for (Candidate candidate : list) {
+                out.writeUTF(candidate.key);
+                out.writeUTF(candidate.title);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static State deserialize(byte[] state) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(state))) {
+            int version = in.readInt();
+            if (version != STATE_VERSION) {
+                throw new RuntimeException("Unbekanntes Checkpoint-Format: " + version);
+            }
+            byte[] sketchBytes = new byte[in.readInt()];
+            in.readFully(sketchBytes);
+            int count = in.readInt();
+            Map<String, String> titles = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                titles.put(in.readUTF(), in.readUTF());
+            }
+            return new State(DecayingCountMinSketch.fromBytes(sketchBytes), titles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Candidate {
+        private final String key;
+        private String title;
+        // Schätzung in Landmark-Einheiten (lokal + andere Knoten)
+        private double raw;
+
+        private Candidate(String key, String title, double raw) {
+            this.key = key;
+            this.title = title;
+            this.raw = raw;
+        }
+    }
+
+    private static class Ranking {
+        private final List<Candidate> entries;
+        private final long landmark;
+
+        private Ranking(List<Candidate> entries, long landmark) {
+            this.entries = entries;
+            this.landmark = landmark;
+        }
+    }
+
+    private static class State {
+        private final DecayingCountMinSketch sketch;
+        private final Map<String, String> titles;
+
+        private State(DecayingCountMinSketch sketch, Map<String, String> titles) {
+            this.sketch = sketch;
+            this.titles = titles;
+        }
+    }
+
+    /**
+     * Eintrag der Rangliste; score ist die auf jetzt abgeklungene, geschätzte Anzahl
+     */
+    public static class TrendingTitle {
+        private final String title;
+        private final double score;
+
+        public TrendingTitle(String title, double score) {
+            this.title = title;
+            this.score = score;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
\ No newline at end of file
@@ -19,7 +19,7 @@ public class User {
     private String email;
 
     @Column(nullable = false)
-    private String password; // In der Realität sollte das gehashed werden
+    private String password; // BCrypt-Hash (Klartext-Altbestände werden beim Login umgehasht)
 
     @Column(name = "first_name")
     private String firstName;
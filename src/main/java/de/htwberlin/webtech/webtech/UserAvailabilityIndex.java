@@ -0,0 +1,150 @@
+package de.htwberlin.webtech.webtech;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloom-Filter über alle Usernamen und Emails, damit Verfügbarkeits-Checks meist ohne DB auskommen.
+ *
+ * Nur "vielleicht vorhanden" muss noch in der DB geprüft werden. Der Filter ist nur ein Hinweis: Einträge
+ * anderer Knoten kennt er erst nach dem nächsten Neuaufbau (auth.availability.refresh-interval-ms), bis dahin
+ * kann er "frei" sagen, obwohl es den Namen schon gibt. Die Unique-Constraints in app_user bleiben die
+ * eigentliche Absicherung; registerUser fängt deren Verletzung ab. Der Neuaufbau entfernt auch gelöschte
+ * User und geänderte Emails wieder.
+ */
+@Component
+public class UserAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityIndex.class);
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+
+    // Während eines Neuaufbaus die neuen Filter; add() schreibt in beide, damit nichts verloren geht
+    private BloomFilter nextUsernames;
+    private BloomFilter nextEmails;
+
+    // Solange nicht geladen, muss jede Anfrage an die DB gehen
+    private volatile boolean loaded;
+
+    public UserAvailabilityIndex(UserRepository userRepository,
+                                 @Value("${auth.availability.expected-users:100000}") long expectedUsers,
+                                 @Value("${auth.availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.usernames = BloomFilter.create(expectedUsers, falsePositiveRate);
+        this.emails = BloomFilter.create(expectedUsers, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+        loaded = true;
+
+        log.atInfo()
+                .setMessage("Verfügbarkeits-Index geladen")
+                .addKeyValue("event", "auth.availability.loaded")
+                .addKeyValue("users", usernames.insertions())
+                .addKeyValue("memoryBytes", usernames.memoryBytes() + emails.memoryBytes())
+                .log();
+    }
+
+    /**
+     * Baut die Filter neu aus der DB auf: übernimmt, was andere Knoten registriert haben, und vergisst
+     * gelöschte Einträge (ein Bloom-Filter kann nichts entfernen)
+     */
+    @Scheduled(fixedDelayString = "${auth.availability.refresh-interval-ms:300000}",
+            initialDelayString = "${auth.availability.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (loaded) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        BloomFilter newUsernames = BloomFilter.create(expectedUsers, falsePositiveRate);
+        BloomFilter newEmails = BloomFilter.create(expectedUsers, falsePositiveRate);
+        synchronized (this) {
+            nextUsernames = newUsernames;
+            nextEmails = newEmails;
+        }
+        try {
+            userRepository.findAllUsernames().forEach(newUsernames::put);
+            userRepository.findAllEmails().forEach(newEmails::put);
+            synchronized (this) {
+                usernames = newUsernames;
+                emails = newEmails;
+            }
+        } finally {
+            synchronized (this) {
+                nextUsernames = null;
+                nextEmails = null;
+            }
+        }
+    }
+
+    public boolean mightContainUsername(String username) {
+        return !loaded || usernames.mightContain(username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return !loaded || emails.mightContain(email);
+    }
+
+    public synchronized void add(String username, String email) {
+        usernames.put(username);
+        if (nextUsernames != null) {
+            nextUsernames.put(username);
+        }
+        addEmail(email);
+    }
+
+    /**
+     * Neue Email eines bestehenden Users (Profil-Änderung)
+     */
+    public synchronized void addEmail(String email) {
+        emails.put(email);
+        if (nextEmails != null) {
+            nextEmails.put(email);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(loaded, usernames, emails);
+    }
+
+    public static class Stats {
+        private final boolean loaded;
+        private final long entries;
+        private final int hashFunctions;
+        private final double usernameFalsePositiveRate;
+        private final double emailFalsePositiveRate;
+        private final long memoryBytes;
+
+        Stats(boolean loaded, BloomFilter usernames, BloomFilter emails) {
+            this.loaded = loaded;
+            this.entries = usernames.insertions();
+            this.hashFunctions = usernames.numHashes();
+            this.usernameFalsePositiveRate = usernames.estimatedFalsePositiveRate();
+            this.emailFalsePositiveRate = emails.estimatedFalsePositiveRate();
+            this.memoryBytes = usernames.memoryBytes() + emails.memoryBytes();
+        }
+
+        public boolean isLoaded() { return loaded; }
+        public long getEntries() { return entries; }
+        public int getHashFunctions() { return hashFunctions; }
+        public double getUsernameFalsePositiveRate() { return usernameFalsePositiveRate; }
+        public double getEmailFalsePositiveRate() { return emailFalsePositiveRate; }
+        public long getMemoryBytes() { return memoryBytes; }
+    }
+}
@@ -1,7 +1,12 @@
 package de.htwberlin.webtech.webtech;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +19,17 @@ public interface UserRepository extends CrudRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // Nur die Spalten für den Verfügbarkeits-Index laden, keine ganzen Entities
+    @Query("select u.username from User u")
+    List<String> findAllUsernames();
+
+    @Query("select u.email from User u")
+    List<String> findAllEmails();
+
+    // Gezieltes UPDATE für das Passwort-Upgrade beim Login
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package de.htwberlin.webtech.webtech;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -11,19 +13,49 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LastLoginBuffer lastLoginBuffer;
+
+    @Autowired
+    private UserAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     public User registerUser(String username, String email, String password, String firstName, String lastName) {
-        // Prüfe ob Username oder Email bereits existiert
-        if (userRepository.existsByUsername(username)) {
+        // Prüfe ob Username oder Email bereits existiert (DB nur, wenn der Bloom-Filter "vielleicht" sagt)
+        if (!isUsernameAvailable(username)) {
             throw new RuntimeException("Username bereits vergeben!");
         }
 
-        if (userRepository.existsByEmail(email)) {
+        if (!isEmailAvailable(email)) {
             throw new RuntimeException("Email bereits registriert!");
         }
 
         // Erstelle neuen User
-        User newUser = new User(username, email, password, firstName, lastName);
-        return userRepository.save(newUser);
+        User newUser = new User(username, email, passwordHasher.hash(password), firstName, lastName);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(newUser);
+        } catch (DataIntegrityViolationException e) {
+            // Paralleler Signup mit gleichen Daten - Unique-Constraint hat gegriffen
+            throw new RuntimeException("Username oder Email bereits vergeben!");
+        }
+
+        availabilityIndex.add(username, email);
+        return savedUser;
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        return !availabilityIndex.mightContainUsername(username) || !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        return !availabilityIndex.mightContainEmail(email) || !userRepository.existsByEmail(email);
+    }
+
+    public UserAvailabilityIndex.Stats getAvailabilityStats() {
+        return availabilityIndex.stats();
     }
 
     public Optional<User> loginUser(String username, String password) {
@@ -31,11 +63,19 @@ public class UserService {
 
         if (userOptional.isPresent()) {
             User user = userOptional.get();
-            // Einfache Passwort-Prüfung (in der Realität sollte das gehashed werden)
-            if (user.getPassword().equals(password)) {
-                // Update last login
-                user.setLastLogin(LocalDateTime.now());
-                userRepository.save(user);
+            // Hash-Vergleich läuft auf dem Hashing-Pool, nicht auf dem Request-Thread
+            if (passwordHasher.matches(password, user.getPassword())) {
+                // Klartext oder schwächere Hashes transparent auf die aktuelle Stärke bringen
+                if (passwordHasher.needsRehash(user.getPassword())) {
+                    String upgradedHash = passwordHasher.hash(password);
+                    userRepository.updatePassword(user.getId(), upgradedHash);
+                    user.setPassword(upgradedHash);
+                }
+
+                // Last Login wird gepuffert und gesammelt geschrieben (kein UPDATE pro Login)
+                LocalDateTime now = LocalDateTime.now();
+                user.setLastLogin(now);
+                lastLoginBuffer.record(user.getId(), now);
                 return Optional.of(user);
             }
         }
@@ -44,19 +84,28 @@ public class UserService {
     }
 
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return userRepository.findById(id)
+                .map(user -> {
+                    // Noch nicht geschriebenen Last Login berücksichtigen
+                    lastLoginBuffer.pendingFor(id).ifPresent(user::setLastLogin);
+                    return user;
+                });
     }
 
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
+    // In einer Transaktion bleibt der User managed: SELECT + UPDATE ohne zusätzliches SELECT durch merge
+    @Transactional
     public User updateUser(Long userId, String firstName, String lastName, String email) {
         return userRepository.findById(userId)
                 .map(user -> {
                     user.setFirstName(firstName);
                     user.setLastName(lastName);
                     user.setEmail(email);
+                    // Schon vor dem Commit: ein falsches "vielleicht vorhanden" kostet nur eine DB-Abfrage
+                    availabilityIndex.addEmail(email);
                     return userRepository.save(user);
                 })
                 .orElseThrow(() -> new RuntimeException("User not found"));
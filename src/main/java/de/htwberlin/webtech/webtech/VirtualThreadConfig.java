@@ -0,0 +1,37 @@
+package de.htwberlin.webtech.webtech;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Virtual-Thread-Modus (Profil virtual-threads, spring.threads.virtual.enabled=true):
+ * setzt vor den Hikari-Pool ein Limit, damit Virtual Threads den Pool nicht überrennen.
+ *
+ * Der Schalter wird zur Laufzeit gelesen (kein @Conditional), damit das auch mit AOT funktioniert.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+                boolean capEnabled = environment.getProperty("virtual-threads.db-cap.enabled", Boolean.class, true);
+                if (bean instanceof HikariDataSource hikari && virtualThreads && capEnabled) {
+                    // Standard: so viele Permits wie Connections im Pool
+                    int permits = environment.getProperty("virtual-threads.db-cap.permits", Integer.class,
+                            hikari.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikari, permits,
+                            environment.getProperty("virtual-threads.db-cap.acquire-timeout-ms", Long.class, 2000L),
+                            environment.getProperty("virtual-threads.db-cap.max-waiting", Integer.class, 1000));
+                }
+                return bean;
+            }
+        };
+    }
+}
\ No newline at end of file
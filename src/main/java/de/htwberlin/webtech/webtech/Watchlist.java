@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_watchlist_user_type", columnList = "user_id, type_id"),
+        @Index(name = "idx_watchlist_user_sort_key", columnList = "user_id, sort_key, id")})
+@EntityListeners(WatchlistCategoryListener.class)
 public class Watchlist {
 
     @Id
@@ -11,8 +15,20 @@ public class Watchlist {
     private Long id;
 
     private String title;
+
     private String type;
     private String genre;
+
+    // Type und Genre zusätzlich als IDs aus dem Wörterbuch (CategoryDictionary), nur als Filter-Index für
+    // WatchlistRepository.findFiltered; WatchlistCategoryListener berechnet sie bei jedem Schreiben neu
+    @Column(name = "type_id")
+    @JsonIgnore
+    private Short typeId;
+
+    @Column(name = "genre_mask", nullable = false)
+    @JsonIgnore
+    private Long genreMask;
+
     private boolean watched;
     private int rating;
 
@@ -20,6 +36,11 @@ public class Watchlist {
     @Column(name = "poster_url", length = 500)
     private String posterUrl;
 
+    // Platz in der manuellen Reihenfolge (RankKeys); ändert sich nur über WatchlistOrdering, nie beim normalen Update
+    @Column(name = "sort_key", nullable = false, updatable = false)
+    @JsonIgnore
+    private String sortKey;
+
     // Many-to-One Beziehung zu User
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -31,8 +52,8 @@ public class Watchlist {
 
     public Watchlist(String title, String type, String genre, boolean watched, int rating, User user) {
         this.title = title;
-        this.type = type;
-        this.genre = genre;
+        setType(type);
+        setGenre(genre);
         this.watched = watched;
         this.rating = rating;
         this.user = user;
@@ -40,14 +61,22 @@ public class Watchlist {
 
     public Watchlist(String title, String type, String genre, boolean watched, int rating, String posterUrl, User user) {
         this.title = title;
-        this.type = type;
-        this.genre = genre;
+        setType(type);
+        setGenre(genre);
         this.watched = watched;
         this.rating = rating;
         this.posterUrl = posterUrl;
         this.user = user;
     }
 
+    // Neue Einträge kommen ans Ende der Reihenfolge, ohne den bisher letzten Schlüssel lesen zu müssen
+    @PrePersist
+    void assignSortKey() {
+        if (sortKey == null) {
+            sortKey = RankKeys.forTimestamp(System.currentTimeMillis());
+        }
+    }
+
     // Getter und Setter
     public Long getId() {
         return id;
@@ -81,6 +110,20 @@ public class Watchlist {
         this.genre = genre;
     }
 
+    public Long getGenreMask() {
+        return genreMask;
+    }
+
+    /**
+     * Text in der Schreibweise des Wörterbuchs und passender Filter-Index (WatchlistCategoryListener)
+     */
+    void index(String type, Short typeId, String genre, long genreMask) {
+        this.type = type;
+        this.typeId = typeId;
+        this.genre = genre;
+        this.genreMask = genreMask;
+    }
+
     public boolean isWatched() {
         return watched;
     }
@@ -112,4 +155,8 @@ public class Watchlist {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public String getSortKey() {
+        return sortKey;
+    }
 }
\ No newline at end of file
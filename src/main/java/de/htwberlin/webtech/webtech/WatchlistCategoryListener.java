@@ -0,0 +1,26 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Setzt vor jedem INSERT/UPDATE type_id und genre_mask aus dem aktuellen Text von Watchlist.type und
+ * Watchlist.genre, damit der Filter-Index nie hinter dem Text zurückbleibt - auch bei Schreibzugriffen, die
+ * nicht über WatchlistService laufen. Unbekannte Werte werden dabei registriert (im Normalfall hat das
+ * WatchlistService schon vor der Transaktion getan, dann wird hier nur nachgeschlagen).
+ * Hibernate holt den Listener über Spring, daher die Injection.
+ */
+public class WatchlistCategoryListener {
+
+    @Autowired
+    private CategoryDictionary dictionary;
+
+    @PrePersist
+    @PreUpdate
+    void index(Watchlist item) {
+        String type = dictionary.canonicalType(item.getType());
+        String genre = dictionary.canonicalGenres(item.getGenre());
+        item.index(type, type != null ? dictionary.findTypeId(type) : null, genre, dictionary.findGenreMask(genre));
+    }
+}
\ No newline at end of file
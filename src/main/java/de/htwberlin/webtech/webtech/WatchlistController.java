@@ -1,22 +1,40 @@
 package de.htwberlin.webtech.webtech;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @CrossOrigin(origins = {"http://localhost:5173", "https://watchlist-frontend-bzxi.onrender.com"})
 public class WatchlistController {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_ORDERED_PAGE_SIZE = 200;
+
     @Autowired
     private WatchlistService watchlistService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private WatchlistStatsService statsService;
+
+    /**
+     * Einträge eines Users (oder alle); type und genre filtern nur zusammen mit userId
+     */
     @GetMapping("/Watchlist")
-    public List<Watchlist> getAllWatchlistItems(@RequestParam(required = false) Long userId) {
-        if (userId != null) {
+    public List<Watchlist> getAllWatchlistItems(@RequestParam(required = false) Long userId,
+                                                @RequestParam(required = false) String type,
+                                                @RequestParam(required = false) String genre) {
+        if (userId != null && (type != null || genre != null)) {
+            return watchlistService.getFilteredWatchlistItemsByUser(userId, type, genre);
+        } else if (userId != null) {
             return watchlistService.getAllWatchlistItemsByUser(userId);
         } else {
             return watchlistService.getAllWatchlistItems();
@@ -25,8 +43,10 @@ public class WatchlistController {
 
     @PostMapping("/Watchlist")
     public Watchlist addWatchlistItem(@RequestBody WatchlistRequest request) {
+        long lookupStart = RequestTimings.start();
         User user = userService.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User nicht gefunden"));
+        RequestTimings.record(RequestTimings.Phase.USER, lookupStart);
 
         Watchlist newItem = new Watchlist(
                 request.getTitle(),
@@ -47,9 +67,7 @@ public class WatchlistController {
 
     @PutMapping("/Watchlist/{id}")
     public Watchlist updateWatchlistItem(@PathVariable Long id, @RequestBody WatchlistRequest request) {
-        User user = userService.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User nicht gefunden"));
-
+        // Kein eigener User-Lookup: findByIdAndUserId im Service prüft den Besitz
         Watchlist updatedItem = new Watchlist(
                 request.getTitle(),
                 request.getType(),
@@ -57,11 +75,126 @@ public class WatchlistController {
                 request.isWatched(),
                 request.getRating(),
                 request.getPosterUrl(),
-                user
+                null
         );
         return watchlistService.updateWatchlistItem(id, updatedItem, request.getUserId());
     }
 
+    /**
+     * Volltextsuche in Titel und Genre der eigenen Watchlist (ohne Groß-/Kleinschreibung und Akzente), seitenweise
+     */
+    @GetMapping("/Watchlist/search")
+    public SearchResponse searchWatchlist(@RequestParam Long userId,
+                                          @RequestParam String q,
+                                          @RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        int pageIndex = Math.max(0, page);
+        int pageSize = Math.min(Math.max(1, size), MAX_SEARCH_PAGE_SIZE);
+        WatchlistSearchIndex.SearchResult result = watchlistService.searchWatchlist(userId, q, pageIndex, pageSize);
+        return new SearchResponse(result.getItems(), pageIndex, pageSize, result.getTotalResults());
+    }
+
+    /**
+     * Kennzahlen der Watchlist eines Users aus der vorberechneten Statistik (unabhängig von der Listenlänge)
+     */
+    @GetMapping("/Watchlist/stats")
+    public StatsResponse getWatchlistStats(@RequestParam Long userId) {
+        StatsResponse response = new StatsResponse(userId);
+        statsService.findStats(userId).ifPresent(stats -> {
+            response.setTotalCount(stats.getTotalCount());
+            response.setWatchedCount(stats.getWatchedCount());
+            response.setRatedCount(stats.getRatedCount());
+            if (stats.getTotalCount() > 0) {
+                response.setWatchedPercentage(100.0 * stats.getWatchedCount() / stats.getTotalCount());
+            }
+            if (stats.getRatedCount() > 0) {
+                response.setAverageRating((double) stats.getRatingSum() / stats.getRatedCount());
+            }
+        });
+        for (WatchlistGenreStats genre : statsService.findGenres(userId)) {
+            response.getGenres().put(genre.getGenre(), genre.getItemCount());
+        }
+        return response;
+    }
+
+    /**
+     * Einträge nach Tags filtern (Listen kommagetrennt): alle aus all UND mindestens einer aus any, OHNE die aus none
+     */
+    @GetMapping("/Watchlist/tagged")
+    public List<Watchlist> getTaggedWatchlistItems(@RequestParam Long userId,
+                                                   @RequestParam(defaultValue = "") List<String> all,
+                                                   @RequestParam(defaultValue = "") List<String> any,
+                                                   @RequestParam(defaultValue = "") List<String> none) {
+        return badRequestOnInvalidInput(() -> watchlistService.getWatchlistItemsByTags(userId, all, any, none));
+    }
+
+    /**
+     * Alle Tags eines Users mit der Anzahl getaggter Einträge
+     */
+    @GetMapping("/Watchlist/tags")
+    public Map<String, Long> getTagCounts(@RequestParam Long userId) {
+        return watchlistService.getTagCounts(userId);
+    }
+
+    @GetMapping("/Watchlist/{id}/tags")
+    public List<String> getTags(@PathVariable Long id, @RequestParam Long userId) {
+        return watchlistService.getTags(id, userId);
+    }
+
+    /**
+     * Tag an einen Eintrag hängen; liefert alle Tags des Eintrags
+     */
+    @PutMapping("/Watchlist/{id}/tags/{tag}")
+    public List<String> addTag(@PathVariable Long id, @PathVariable String tag, @RequestParam Long userId) {
+        return badRequestOnInvalidInput(() -> watchlistService.addTag(id, userId, tag));
+    }
+
+    @DeleteMapping("/Watchlist/{id}/tags/{tag}")
+    public List<String> removeTag(@PathVariable Long id, @PathVariable String tag, @RequestParam Long userId) {
+        return badRequestOnInvalidInput(() -> watchlistService.removeTag(id, userId, tag));
+    }
+
+    /**
+     * Einträge in der manuellen Reihenfolge; nextCursor der Antwort holt die nächste Seite (null = Ende)
+     */
+    @GetMapping("/Watchlist/ordered")
+    public OrderedPage getOrderedWatchlistItems(@RequestParam Long userId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int size) {
+        int pageSize = Math.min(Math.max(1, size), MAX_ORDERED_PAGE_SIZE);
+        String afterKey = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            // Cursor = Schlüssel:ID des letzten Eintrags der vorigen Seite (Schlüssel enthalten kein ':')
+            int separator = cursor.lastIndexOf(':');
+            try {
+                afterKey = cursor.substring(0, separator);
+                afterId = Long.valueOf(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ungültiger Cursor!");
+            }
+        }
+        List<Watchlist> items = watchlistService.getOrderedWatchlistItems(userId, afterKey, afterId, pageSize);
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            Watchlist last = items.get(items.size() - 1);
+            nextCursor = last.getSortKey() + ":" + last.getId();
+        }
+        return new OrderedPage(items, nextCursor);
+    }
+
+    /**
+     * Drag-and-Drop: Eintrag zwischen after und before schieben (IDs der neuen Nachbarn; ganz vorne nur before,
+     * ganz hinten nur after). Ändert nur diesen einen Eintrag.
+     */
+    @PutMapping("/Watchlist/{id}/position")
+    public Watchlist moveWatchlistItem(@PathVariable Long id,
+                                       @RequestParam Long userId,
+                                       @RequestParam(required = false) Long after,
+                                       @RequestParam(required = false) Long before) {
+        return badRequestOnInvalidInput(() -> watchlistService.moveWatchlistItem(id, userId, after, before));
+    }
+
     @GetMapping("/Watchlist/{id}")
     public Watchlist getWatchlistItem(@PathVariable Long id, @RequestParam Long userId) {
         return watchlistService.getWatchlistItem(id, userId)
@@ -89,6 +222,15 @@ public class WatchlistController {
         }
     }
 
+    // Ungültiger Tag (leer, zu lang, zu viele Tags) oder unmögliche Verschiebung ist ein Fehler des Clients
+    private static <T> T badRequestOnInvalidInput(Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     // Erweiterte Request DTO für POST/PUT Requests
     public static class WatchlistRequest {
         private String title;
@@ -121,4 +263,74 @@ public class WatchlistController {
         public Long getUserId() { return userId; }
         public void setUserId(Long userId) { this.userId = userId; }
     }
+
+    // Response DTO für die Watchlist-Statistik
+    public static class StatsResponse {
+        private Long userId;
+        private long totalCount;
+        private long watchedCount;
+        private double watchedPercentage;
+        private long ratedCount;
+        private Double averageRating; // null, solange nichts bewertet ist
+        private Map<String, Long> genres = new LinkedHashMap<>(); // absteigend nach Anzahl
+
+        public StatsResponse(Long userId) {
+            this.userId = userId;
+        }
+
+        // Getters und Setters
+        public Long getUserId() { return userId; }
+
+        public long getTotalCount() { return totalCount; }
+        public void setTotalCount(long totalCount) { this.totalCount = totalCount; }
+
+        public long getWatchedCount() { return watchedCount; }
+        public void setWatchedCount(long watchedCount) { this.watchedCount = watchedCount; }
+
+        public double getWatchedPercentage() { return watchedPercentage; }
+        public void setWatchedPercentage(double watchedPercentage) { this.watchedPercentage = watchedPercentage; }
+
+        public long getRatedCount() { return ratedCount; }
+        public void setRatedCount(long ratedCount) { this.ratedCount = ratedCount; }
+
+        public Double getAverageRating() { return averageRating; }
+        public void setAverageRating(Double averageRating) { this.averageRating = averageRating; }
+
+        public Map<String, Long> getGenres() { return genres; }
+    }
+    // Response DTO für die Suche (eine Seite Treffer)
+    public static class SearchResponse {
+        private List<Watchlist> items;
+        private int page;
+        private int size;
+        private int totalResults;
+
+        public SearchResponse(List<Watchlist> items, int page, int size, int totalResults) {
+            this.items = items;
+            this.page = page;
+            this.size = size;
+            this.totalResults = totalResults;
+        }
+
+        // Getters
+        public List<Watchlist> getItems() { return items; }
+        public int getPage() { return page; }
+        public int getSize() { return size; }
+        public int getTotalResults() { return totalResults; }
+    }
+
+    // Response DTO für eine Seite in manueller Reihenfolge
+    public static class OrderedPage {
+        private List<Watchlist> items;
+        private String nextCursor; // null auf der letzten Seite
+
+        public OrderedPage(List<Watchlist> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        // Getters
+        public List<Watchlist> getItems() { return items; }
+        public String getNextCursor() { return nextCursor; }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+/**
+ * Genre im Wörterbuch (CategoryDictionary); bit_index ist die Position in watchlist.genre_mask
+ */
+@Entity
+@Table(name = "watchlist_genre")
+public class WatchlistGenre {
+
+    @Id
+    @Column(name = "bit_index")
+    private Short bitIndex;
+
+    // Schreibweise, wie sie die API ausgibt
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    // Wie TitleNormalizer.normalize(name); verhindert "Sci-Fi" und "sci fi" als zwei Genres
+    @Column(name = "lookup_key", nullable = false, unique = true)
+    private String lookupKey;
+
+    // Leerer Konstruktor für Hibernate
+    public WatchlistGenre() {}
+
+    // Getter
+    public Short getBitIndex() {
+        return bitIndex;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLookupKey() {
+        return lookupKey;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Anzahl der Einträge pro User und Genre (Genres eines Eintrags sind kommagetrennt)
+ */
+@Entity
+@Table(name = "watchlist_genre_stats")
+@IdClass(WatchlistGenreStats.Key.class)
+public class WatchlistGenreStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "genre")
+    private String genre;
+
+    @Column(name = "item_count", nullable = false)
+    private long itemCount;
+
+    // Leerer Konstruktor für Hibernate
+    public WatchlistGenreStats() {}
+
+    // Getter
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Zusammengesetzter Primärschlüssel (user_id, genre)
+     */
+    public static class Key implements Serializable {
+        private Long userId;
+        private String genre;
+
+        public Key() {}
+
+        public Key(Long userId, String genre) {
+            this.userId = userId;
+            this.genre = genre;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(genre, key.genre);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, genre);
+        }
+    }
+}
\ No newline at end of file
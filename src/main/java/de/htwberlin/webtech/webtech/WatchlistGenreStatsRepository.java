@@ -0,0 +1,27 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+@Repository
+public interface WatchlistGenreStatsRepository extends CrudRepository<WatchlistGenreStats, WatchlistGenreStats.Key> {
+
+    // Zeilen mit 0 bleiben bis zum nächsten Abgleich stehen und werden hier ausgefiltert
+    List<WatchlistGenreStats> findByUserIdAndItemCountGreaterThanOrderByItemCountDesc(Long userId, long minCount);
+
+    @Modifying
+    @Transactional
+    @Query("update WatchlistGenreStats g set g.itemCount = g.itemCount + :delta where g.userId = :userId and g.genre = :genre")
+    int applyDelta(@Param("userId") Long userId, @Param("genre") String genre, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into watchlist_genre_stats (user_id, genre, item_count) values (:userId, :genre, :count)",
+            nativeQuery = true)
+    int insert(@Param("userId") Long userId, @Param("genre") String genre, @Param("count") long count);
+}
\ No newline at end of file
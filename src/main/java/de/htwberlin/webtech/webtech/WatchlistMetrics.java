@@ -0,0 +1,64 @@
+package de.htwberlin.webtech.webtech;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fachliche Metriken: OMDb-Latenz nach Ergebnis und Poster-Treffer.
+ *
+ * Endpunkt-Timer (http.server.requests), Repository-Timer (spring.data.repository.invocations)
+ * und HikariCP-Metriken liefert Spring Boot automatisch.
+ */
+@Component
+public class WatchlistMetrics {
+
+    public enum OmdbOutcome {
+        FOUND("found"),
+        NOT_FOUND("not_found"),
+        NO_POSTER("n/a"),
+        ERROR("error");
+
+        private final String tag;
+
+        OmdbOutcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    // Timer pro Ergebnis vorab registrieren, damit pro Aufruf kein Lookup nötig ist
+    private final EnumMap<OmdbOutcome, Timer> omdbTimers = new EnumMap<>(OmdbOutcome.class);
+    private final Counter posterHits;
+    private final Counter posterMisses;
+
+    public WatchlistMetrics(MeterRegistry registry) {
+        for (OmdbOutcome outcome : OmdbOutcome.values()) {
+            omdbTimers.put(outcome, Timer.builder("omdb.requests")
+                    .description("Latenz der OMDb-API-Aufrufe")
+                    .tag("outcome", outcome.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        posterHits = Counter.builder("watchlist.poster.lookups")
+                .description("Poster-Suchen für Watchlist-Einträge")
+                .tag("result", "hit")
+                .register(registry);
+        posterMisses = Counter.builder("watchlist.poster.lookups")
+                .description("Poster-Suchen für Watchlist-Einträge")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    public void recordOmdbCall(OmdbOutcome outcome, long durationNanos) {
+        omdbTimers.get(outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPosterLookup(String posterUrl) {
+        (posterUrl != null ? posterHits : posterMisses).increment();
+    }
+}
@@ -0,0 +1,190 @@
+package de.htwberlin.webtech.webtech;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manuelle Reihenfolge der Watchlist (Drag-and-Drop) über Rang-Schlüssel (RankKeys) in watchlist.sort_key.
+ *
+ * Verschieben bekommt die neuen Nachbarn und schreibt genau eine Zeile: den Schlüssel zwischen deren
+ * Schlüsseln. Ist nur ein Nachbar angegeben, wird der andere unter derselben Sperre nachgeschlagen.
+ * Verschiebungen und Neu-Durchnummerieren eines Users sperren zuerst dessen Zeile in app_user und laufen
+ * damit nacheinander. Wird derselbe Platz immer wieder getroffen, werden die Schlüssel länger; würde ein
+ * Schlüssel länger als ordering.max-key-length (die Spalte hat 255 Zeichen), wird der User sofort neu
+ * durchnummeriert. Gleiche Schlüssel entstehen, wenn zwei Einträge in derselben Millisekunde angelegt
+ * werden - dann ebenfalls. Der Hintergrund-Job holt User mit zu langen Schlüsseln aus älteren Ständen nach.
+ */
+@Component
+public class WatchlistOrdering {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistOrdering.class);
+
+    private static final String LONG_KEY_USERS_SQL =
+            "SELECT DISTINCT user_id FROM watchlist WHERE LENGTH(sort_key) > ? LIMIT ?";
+
+    private static final String LOCK_USER_SQL = "SELECT id FROM app_user WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_USER_ITEMS_SQL =
+            "SELECT id FROM watchlist WHERE user_id = ? ORDER BY sort_key, id FOR UPDATE";
+
+    private final WatchlistRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxKeyLength;
+    private final int rebalanceBatchSize;
+
+    // Länge der Spalte watchlist.sort_key
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    public WatchlistOrdering(WatchlistRepository repository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${ordering.max-key-length:64}") int maxKeyLength,
+                             @Value("${ordering.rebalance-batch-size:100}") int rebalanceBatchSize) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxKeyLength = Math.min(maxKeyLength, MAX_COLUMN_LENGTH);
+        this.rebalanceBatchSize = rebalanceBatchSize;
+    }
+
+    /**
+     * Eine Seite in Reihenfolge; nach dem letzten Eintrag der vorigen Seite (afterKey/afterId), sonst von vorne
+     */
+    public List<Watchlist> page(Long userId, String afterKey, Long afterId, int size) {
+        PageRequest limit = PageRequest.of(0, size);
+        if (afterKey == null) {
+            return repository.findOrdered(userId, limit);
+        }
+        return repository.findOrderedAfter(userId, afterKey, afterId, limit);
+    }
+
+    /**
+     * Verschiebt den Eintrag zwischen afterId (steht danach davor) und beforeId (steht danach dahinter);
+     * eines von beiden darf fehlen (Anfang bzw. Ende der Liste). Schreibt nur den verschobenen Eintrag.
+     */
+    public Watchlist move(Long id, Long userId, Long afterId, Long beforeId) {
+        if (afterId == null && beforeId == null) {
+            throw new IllegalArgumentException("after oder before muss angegeben werden!");
+        }
+        if (id.equals(afterId) || id.equals(beforeId) || (afterId != null && afterId.equals(beforeId))) {
+            throw new IllegalArgumentException("Ein Eintrag kann nicht neben sich selbst verschoben werden!");
+        }
+
+        Watchlist moved = transactionTemplate.execute(status -> tryMove(id, userId, afterId, beforeId));
+        if (moved == null) {
+            // Nachbarn mit gleichem Schlüssel oder Schlüssel zu lang - erst durchnummerieren, dann ist Platz dazwischen
+            rebalance(userId);
+            log.atInfo()
+                    .setMessage("Reihenfolge beim Verschieben neu durchnummeriert")
+                    .addKeyValue("event", "watchlist.ordering.rebalanced-on-move")
+                    .addKeyValue("userId", userId)
+                    .log();
+            moved = transactionTemplate.execute(status -> tryMove(id, userId, afterId, beforeId));
+        }
+        if (moved == null) {
+            throw new IllegalStateException("Eintrag " + id + " konnte nicht verschoben werden");
+        }
+        return moved;
+    }
+
+    /**
+     * Vergibt dem User kurze, gleichmäßige Schlüssel in der bisherigen Reihenfolge; liefert die Anzahl Einträge
+     */
+    public int rebalance(Long userId) {
+        Integer count = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList(LOCK_USER_SQL, Long.class, userId);
+            List<Long> ids = jdbcTemplate.queryForList(LOCK_USER_ITEMS_SQL, Long.class, userId);
+            List<String> keys = RankKeys.sequence(ids.size());
+            List<Object[]> rows = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                rows.add(new Object[]{keys.get(i), ids.get(i)});
+            }
+            jdbcTemplate.batchUpdate("UPDATE watchlist SET sort_key = ? WHERE id = ?", rows);
+            return ids.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Nummeriert User neu durch, deren Schlüssel zu lang geworden sind (häufiges Verschieben an dieselbe Stelle)
+     */
+    @Scheduled(fixedDelayString = "${ordering.rebalance-interval-ms:3600000}",
+            initialDelayString = "${ordering.rebalance-interval-ms:3600000}")
+    public void rebalanceLongKeys() {
+        List<Long> userIds = jdbcTemplate.queryForList(LONG_KEY_USERS_SQL, Long.class, maxKeyLength, rebalanceBatchSize);
+        for (Long userId : userIds) {
+            try {
+                int items = rebalance(userId);
+                log.atInfo()
+                        .setMessage("Reihenfolge neu durchnummeriert")
+                        .addKeyValue("event", "watchlist.ordering.rebalanced")
+                        .addKeyValue("userId", userId)
+                        .addKeyValue("items", items)
+                        .log();
+            } catch (RuntimeException e) {
+                log.atWarn()
+                        .setMessage("Neu-Durchnummerieren fehlgeschlagen")
+                        .addKeyValue("event", "watchlist.ordering.rebalance-failed")
+                        .addKeyValue("userId", userId)
+                        .addKeyValue("error", e.getMessage())
+                        .log();
+            }
+        }
+    }
+
+    // null = Nachbarn haben denselben Schlüssel oder der neue Schlüssel wäre zu lang
+    private Watchlist tryMove(Long id, Long userId, Long afterId, Long beforeId) {
+        // Ohne Sperre könnte ein gleichzeitiges Verschieben den nachgeschlagenen Nachbarn ändern
+        if (jdbcTemplate.queryForList(LOCK_USER_SQL, Long.class, userId).isEmpty()) {
+            throw new RuntimeException("Watchlist item with id " + id + " not found or access denied");
+        }
+        Watchlist item = find(id, userId);
+        Watchlist after = afterId == null ? null : find(afterId, userId);
+        Watchlist before = beforeId == null ? null : find(beforeId, userId);
+
+        // Nur ein Nachbar angegeben: der andere ist der, der bisher direkt daneben steht - nicht Anfang bzw. Ende
+        PageRequest first = PageRequest.of(0, 1);
+        if (before == null) {
+            before = repository.findNextInOrder(userId, after.getSortKey(), after.getId(), id, first)
+                    .stream().findFirst().orElse(null);
+        } else if (after == null) {
+            after = repository.findPreviousInOrder(userId, before.getSortKey(), before.getId(), id, first)
+                    .stream().findFirst().orElse(null);
+        }
+
+        String lower = after == null ? null : after.getSortKey();
+        String upper = before == null ? null : before.getSortKey();
+        if (lower != null && upper != null) {
+            int order = lower.compareTo(upper);
+            if (order > 0 || (order == 0 && after.getId() > before.getId())) {
+                throw new IllegalArgumentException("after muss in der Reihenfolge vor before stehen!");
+            }
+            if (order == 0) {
+                return null;
+            }
+        }
+
+        String sortKey = RankKeys.between(lower, upper);
+        if (sortKey.length() > maxKeyLength) {
+            return null;
+        }
+        repository.updateSortKey(id, sortKey);
+        return item;
+    }
+
+    private Watchlist find(Long id, Long userId) {
+        return repository.findForUpdate(id, userId)
+                .orElseThrow(() -> new RuntimeException("Watchlist item with id " + id + " not found or access denied"));
+    }
+}
\ No newline at end of file
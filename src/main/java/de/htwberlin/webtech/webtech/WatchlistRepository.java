@@ -1,7 +1,15 @@
 package de.htwberlin.webtech.webtech;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,5 +20,53 @@ public interface WatchlistRepository extends CrudRepository<Watchlist, Long> {
 
     Optional<Watchlist> findByIdAndUserId(Long id, Long userId);
 
-    void deleteByIdAndUserId(Long id, Long userId);
+    List<Watchlist> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // Nur die IDs, ohne Entities zu laden (Ausgangsmenge für Tag-Abfragen mit nur "none")
+    @Query("select w.id from Watchlist w where w.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // typeId 0 = alle Types, genreMask 0 = alle Genres; sonst reicht eines der Genres der Maske
+    @Query("select w from Watchlist w where w.user.id = :userId "
+            + "and (:typeId = 0 or w.typeId = :typeId) "
+            + "and (:genreMask = 0 or bitand(w.genreMask, :genreMask) <> 0)")
+    List<Watchlist> findFiltered(@Param("userId") Long userId, @Param("typeId") short typeId,
+                                 @Param("genreMask") long genreMask);
+
+    // Manuelle Reihenfolge, gleiche Schlüssel (gleichzeitig angelegt) nach ID; Index (user_id, sort_key, id)
+    @Query("select w from Watchlist w where w.user.id = :userId order by w.sortKey, w.id")
+    List<Watchlist> findOrdered(@Param("userId") Long userId, Pageable page);
+
+    // Keyset-Seite nach (sortKey, id); ">=" vorab, damit der Index als Bereich genutzt wird
+    @Query("select w from Watchlist w where w.user.id = :userId and w.sortKey >= :sortKey "
+            + "and (w.sortKey > :sortKey or w.id > :id) order by w.sortKey, w.id")
+    List<Watchlist> findOrderedAfter(@Param("userId") Long userId, @Param("sortKey") String sortKey,
+                                     @Param("id") Long id, Pageable page);
+
+    // SELECT ... FOR UPDATE, damit Verschieben und Neu-Durchnummerieren sich nicht überholen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Watchlist w where w.id = :id and w.user.id = :userId")
+    Optional<Watchlist> findForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Direkte Nachbarn eines Eintrags in der Reihenfolge (sortKey, id), ohne den gerade verschobenen
+    @Query("select w from Watchlist w where w.user.id = :userId and w.id <> :excludedId and w.sortKey >= :sortKey "
+            + "and (w.sortKey > :sortKey or w.id > :id) order by w.sortKey, w.id")
+    List<Watchlist> findNextInOrder(@Param("userId") Long userId, @Param("sortKey") String sortKey,
+                                    @Param("id") Long id, @Param("excludedId") Long excludedId, Pageable page);
+
+    @Query("select w from Watchlist w where w.user.id = :userId and w.id <> :excludedId and w.sortKey <= :sortKey "
+            + "and (w.sortKey < :sortKey or w.id < :id) order by w.sortKey desc, w.id desc")
+    List<Watchlist> findPreviousInOrder(@Param("userId") Long userId, @Param("sortKey") String sortKey,
+                                        @Param("id") Long id, @Param("excludedId") Long excludedId, Pageable page);
+
+    // sort_key ist in der Entity nicht updatable - nur hier gezielt setzen
+    @Modifying
+    @Query("update Watchlist w set w.sortKey = :sortKey where w.id = :id")
+    int updateSortKey(@Param("id") Long id, @Param("sortKey") String sortKey);
+
+    // Ein DELETE statt SELECT + DELETE (abgeleitete Delete-Methoden laden die Entity vorher)
+    @Modifying
+    @Transactional
+    @Query("delete from Watchlist w where w.id = :id and w.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package de.htwberlin.webtech.webtech;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC-Abbildung der Tabelle watchlist für die reaktive /v2-API.
+ *
+ * Gleiches Schema wie die JPA-Entity Watchlist; statt der User-Beziehung nur die user_id.
+ * Type und Genre stehen zusätzlich als type_id/genre_mask (Filter-Index aus CategoryDictionary) in der Tabelle,
+ * WatchlistV2Handler setzt sie beim Schreiben. Die JSON-Ausgabe entspricht der von /Watchlist.
+ */
+@Table("watchlist")
+public class WatchlistRow {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String type;
+    private String genre;
+
+    @Column("type_id")
+    @JsonIgnore
+    private Short typeId;
+
+    @Column("genre_mask")
+    @JsonIgnore
+    private long genreMask;
+
+    private boolean watched;
+    private int rating;
+
+    @Column("poster_url")
+    private String posterUrl;
+
+    @Column("user_id")
+    @JsonIgnore
+    private Long userId;
+
+    // Wie bei Watchlist ans Ende; nur beim Anlegen geschrieben, Updates gehen über
+    // ReactiveWatchlistRepository.updateContent bzw. updatePosterUrl und lassen sort_key aus
+    @Column("sort_key")
+    @JsonIgnore
+    private String sortKey;
+
+    public WatchlistRow() {}
+
+    public WatchlistRow(String title, String type, String genre, boolean watched, int rating, String posterUrl, Long userId) {
+        this.title = title;
+        this.type = type;
+        this.genre = genre;
+        this.watched = watched;
+        this.rating = rating;
+        this.posterUrl = posterUrl;
+        this.userId = userId;
+        this.sortKey = RankKeys.forTimestamp(System.currentTimeMillis());
+    }
+
+    // Getter und Setter
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+
+    public Short getTypeId() { return typeId; }
+    public void setTypeId(Short typeId) { this.typeId = typeId; }
+
+    public long getGenreMask() { return genreMask; }
+    public void setGenreMask(long genreMask) { this.genreMask = genreMask; }
+
+    public boolean isWatched() { return watched; }
+    public void setWatched(boolean watched) { this.watched = watched; }
+
+    public int getRating() { return rating; }
+    public void setRating(int rating) { this.rating = rating; }
+
+    public String getPosterUrl() { return posterUrl; }
+    public void setPosterUrl(String posterUrl) { this.posterUrl = posterUrl; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getSortKey() { return sortKey; }
+    public void setSortKey(String sortKey) { this.sortKey = sortKey; }
+}
\ No newline at end of file
@@ -0,0 +1,309 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Volltextsuche innerhalb der Watchlist eines Users über Titel und Genre.
+ *
+ * Pro User wird beim ersten Suchen ein invertierter Index im Speicher aufgebaut (ein SELECT) und danach von
+ * WatchlistService bei jedem Schreiben nachgeführt. Tokens sind wie bei TitleNormalizer klein geschrieben und
+ * ohne Akzente; jedes Such-Token muss als Wortanfang in Titel oder Genre vorkommen. Es werden höchstens
+ * search.max-cached-users Indizes gehalten (LRU), nach search.index-ttl-seconds wird neu geladen, damit auch
+ * Änderungen über /v2 oder andere Knoten ankommen.
+ */
+@Component
+public class WatchlistSearchIndex {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private static final Comparator<Hit> BY_RANK = Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+            .thenComparing(hit -> hit.doc.normalizedTitle)
+            .thenComparing(hit -> hit.doc.item.getId(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final WatchlistRepository repository;
+    private final long ttlMillis;
+    private final Map<Long, UserIndex> cache;
+
+    // Wird bei jedem Schreiben eines Users erhöht; ein Index, dessen Laden sich damit überschnitten hat, wird nicht gecacht
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public WatchlistSearchIndex(WatchlistRepository repository,
+                                @Value("${search.max-cached-users:10000}") int maxCachedUsers,
+                                @Value("${search.index-ttl-seconds:300}") long ttlSeconds) {
+        this.repository = repository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserIndex> eldest) {
+                return size() > maxCachedUsers;
+            }
+        };
+    }
+
+    /**
+     * Sucht in der Watchlist des Users; Treffer absteigend nach Relevanz, dann nach Titel, seitenweise
+     */
+    public SearchResult search(Long userId, String query, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        UserIndex index = indexFor(userId);
+        List<Hit> hits;
+        synchronized (index) {
+            hits = index.search(tokens, String.join(" ", tokens));
+        }
+        hits.sort(BY_RANK);
+
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<Watchlist> items = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            items.add(hit.doc.item);
+        }
+        return new SearchResult(items, hits.size());
+    }
+
+    /**
+     * Neuer oder geänderter Eintrag; nur relevant, wenn der Index des Users gerade geladen ist
+     */
+    public void itemSaved(Watchlist item) {
+        if (item.getUser() == null || item.getUser().getId() == null || item.getId() == null) {
+            return;
+        }
+        Long userId = item.getUser().getId();
+        UserIndex index = cached(userId);
+        if (index != null) {
+            synchronized (index) {
+                index.put(item);
+            }
+        }
+        bumpGeneration(userId);
+    }
+
+    public void itemDeleted(Long userId, Long itemId) {
+        UserIndex index = cached(userId);
+        if (index != null) {
+            synchronized (index) {
+                index.remove(itemId);
+            }
+        }
+        bumpGeneration(userId);
+    }
+
+    /**
+     * Verwirft den Index des Users (z.B. nach Änderungen, die nicht über WatchlistService laufen)
+     */
+    public void invalidate(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+        bumpGeneration(userId);
+    }
+
+    public int cachedUsers() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private UserIndex cached(Long userId) {
+        synchronized (cache) {
+            return cache.get(userId);
+        }
+    }
+
+    // Laden außerhalb des Locks; parallele Suchen desselben Users laden im Zweifel doppelt
+    private UserIndex indexFor(Long userId) {
+        UserIndex index = cached(userId);
+        if (index != null && System.currentTimeMillis() - index.loadedAt < ttlMillis) {
+            return index;
+        }
+
+        long generation = generations.get(stripe(userId));
+        UserIndex loaded = new UserIndex(System.currentTimeMillis());
+        for (Watchlist item : repository.findByUserId(userId)) {
+            loaded.put(item);
+        }
+        synchronized (cache) {
+            if (generations.get(stripe(userId)) == generation) {
+                cache.put(userId, loaded);
+            } else {
+                cache.remove(userId);
+            }
+        }
+        return loaded;
+    }
+
+    private void bumpGeneration(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), GENERATION_STRIPES);
+    }
+
+    private static List<String> tokenize(String text) {
+        String normalized = TitleNormalizer.normalize(text);
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    /**
+     * Invertierter Index eines Users; nur unter dem eigenen Lock benutzen
+     */
+    private static class UserIndex {
+        private final long loadedAt;
+        private final Map<Long, Doc> docs = new HashMap<>();
+        // Token -> IDs der Einträge; sortiert, damit Präfixe per subMap gefunden werden
+        private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+
+        private UserIndex(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        private void put(Watchlist item) {
+            remove(item.getId());
+            Doc doc = new Doc(item);
+            docs.put(item.getId(), doc);
+            for (String token : doc.titleTokens) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(item.getId());
+            }
+            for (String token : doc.genreTokens) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(item.getId());
+            }
+        }
+
+        private void remove(Long itemId) {
+            Doc doc = docs.remove(itemId);
+            if (doc == null) {
+                return;
+            }
+            for (String token : doc.titleTokens) {
+                removePosting(token, itemId);
+            }
+            for (String token : doc.genreTokens) {
+                removePosting(token, itemId);
+            }
+        }
+
+        private void removePosting(String token, Long itemId) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null && ids.remove(itemId) && ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+
+        private List<Hit> search(List<String> tokens, String phrase) {
+            // Schnittmenge über alle Such-Tokens, jedes als Präfix
+            Set<Long> candidates = null;
+            for (String token : tokens) {
+                Set<Long> matching = new HashSet<>();
+                NavigableMap<String, Set<Long>> range = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+                for (Set<Long> ids : range.values()) {
+                    matching.addAll(ids);
+                }
+                if (candidates == null) {
+                    candidates = matching;
+                } else {
+                    candidates.retainAll(matching);
+                }
+                if (candidates.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(candidates.size());
+            for (Long id : candidates) {
+                Doc doc = docs.get(id);
+                hits.add(new Hit(doc, doc.score(tokens, phrase)));
+            }
+            return hits;
+        }
+    }
+
+    private static class Doc {
+        private final Watchlist item;
+        private final String normalizedTitle;
+        private final String[] titleTokens;
+        private final String[] genreTokens;
+
+        private Doc(Watchlist item) {
+            this.item = item;
+            this.normalizedTitle = TitleNormalizer.normalize(item.getTitle());
+            this.titleTokens = tokenize(item.getTitle()).toArray(new String[0]);
+            this.genreTokens = tokenize(item.getGenre()).toArray(new String[0]);
+        }
+
+        // Ganzes Wort im Titel vor Wortanfang im Titel vor Genre; ganzer Titel bzw. Titelanfang gibt Bonus
+        private double score(List<String> tokens, String phrase) {
+            double score = 0;
+            for (String token : tokens) {
+                score += Math.max(match(titleTokens, token, 3.0, 2.0), match(genreTokens, token, 1.5, 1.0));
+            }
+            if (normalizedTitle.equals(phrase)) {
+                score += 5.0;
+            } else if (normalizedTitle.startsWith(phrase)) {
+                score += 2.0;
+            }
+            return score;
+        }
+
+        private static double match(String[] docTokens, String token, double exact, double prefix) {
+            double best = 0;
+            for (String docToken : docTokens) {
+                if (docToken.equals(token)) {
+                    return exact;
+                }
+                if (docToken.startsWith(token)) {
+                    best = prefix;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static class Hit {
+        private final Doc doc;
+        private final double score;
+
+        private Hit(Doc doc, double score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Eine Seite Treffer und die Gesamtzahl
+     */
+    public static class SearchResult {
+        private final List<Watchlist> items;
+        private final int totalResults;
+
+        public SearchResult(List<Watchlist> items, int totalResults) {
+            this.items = items;
+            this.totalResults = totalResults;
+        }
+
+        public List<Watchlist> getItems() {
+            return items;
+        }
+
+        public int getTotalResults() {
+            return totalResults;
+        }
+    }
+}
\ No newline at end of file
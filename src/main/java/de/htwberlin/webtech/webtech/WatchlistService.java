@@ -1,38 +1,215 @@
 package de.htwberlin.webtech.webtech;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class WatchlistService {
 
+    private static final Logger log = LoggerFactory.getLogger(WatchlistService.class);
+
+    // Speichern/Aktualisieren passiert ständig - nur Stichproben loggen
+    private static final LogSampler WRITE_LOG_SAMPLER = new LogSampler(20);
+
     @Autowired
     private WatchlistRepository repository;
 
     @Autowired
     private OMDbService omdbService;
 
+    @Autowired
+    private WatchlistMetrics metrics;
+
+    @Autowired
+    private WatchlistStatsService statsService;
+
+    @Autowired
+    private TrendingTitles trendingTitles;
+
+    @Autowired
+    private TitleRecommendations recommendations;
+
+    @Autowired
+    private WatchlistSearchIndex searchIndex;
+
+    @Autowired
+    private CategoryDictionary categories;
+
+    @Autowired
+    private WatchlistTagIndex tagIndex;
+
+    @Autowired
+    private WatchlistOrdering ordering;
+
+    // Eintrag und Statistik-Delta in einer Transaktion, erst nach der OMDb-Abfrage (keine Verbindung über HTTP halten)
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Höchstens so viele IDs pro IN-Liste beim Laden getaggter Einträge
+    private static final int TAGGED_LOAD_CHUNK = 1000;
+
+    // So lange wartet eine Batch-Abfrage höchstens auf einen Platz im adaptiven Limit
+    private static final long BATCH_PERMIT_TIMEOUT_MILLIS = 30_000;
+
+    // Wie viele OMDb-Abfragen das Batch-Update gleichzeitig stellen darf (nur im Virtual-Thread-Modus parallel)
+    @Value("${omdb.batch.parallelism:4}")
+    private int batchParallelism = 4;
+
+    // Mindestabstand zwischen zwei OMDb-Abfragen eines Batch-Updates, um API-Limits zu respektieren
+    @Value("${omdb.batch.min-interval-ms:200}")
+    private long batchIntervalMillis = 200;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter omdbLimiter;
+
     public List<Watchlist> getAllWatchlistItemsByUser(Long userId) {
         return repository.findByUserId(userId);
     }
 
+    /**
+     * Einträge eines Users nach Type und/oder Genre (kommagetrennt, eines muss passen); null = kein Filter
+     */
+    public List<Watchlist> getFilteredWatchlistItemsByUser(Long userId, String type, String genre) {
+        short typeId = 0;
+        if (type != null && !type.isBlank()) {
+            Short id = categories.findTypeId(type);
+            if (id == null) {
+                // Nicht im Wörterbuch = in keinem Eintrag gespeichert
+                return List.of();
+            }
+            typeId = id;
+        }
+        long genreMask = 0;
+        Set<String> unindexed = Set.of();
+        if (genre != null && !genre.isBlank()) {
+            genreMask = categories.findGenreMask(genre);
+            unindexed = categories.unindexedGenres(genre);
+            if (genreMask == 0 && unindexed.isEmpty()) {
+                return List.of();
+            }
+        }
+        if (unindexed.isEmpty()) {
+            return repository.findFiltered(userId, typeId, genreMask);
+        }
+
+        // Genres ohne Bit (Wörterbuch voll) stehen nur im Text, dafür alle Einträge des Types durchsehen
+        long mask = genreMask;
+        Set<String> keys = unindexed;
+        return repository.findFiltered(userId, typeId, 0).stream()
+                .filter(item -> (item.getGenreMask() != null && (item.getGenreMask() & mask) != 0)
+                        || WatchlistStatsService.splitGenres(item.getGenre()).stream()
+                                .anyMatch(part -> keys.contains(TitleNormalizer.normalize(part))))
+                .toList();
+    }
+
+    /**
+     * Suche in Titel und Genre der Watchlist eines Users, sortiert nach Relevanz
+     */
+    public WatchlistSearchIndex.SearchResult searchWatchlist(Long userId, String query, int page, int size) {
+        return searchIndex.search(userId, query, page, size);
+    }
+
+    /**
+     * Einträge eines Users nach Tag-Kombination: alle aus all, mindestens einer aus any, keiner aus none; nach ID sortiert
+     */
+    public List<Watchlist> getWatchlistItemsByTags(Long userId, Collection<String> all, Collection<String> any,
+                                                   Collection<String> none) {
+        long[] ids = tagIndex.query(userId, all, any, none).toArray();
+        List<Watchlist> items = new ArrayList<>(ids.length);
+        // Besitz wird beim Laden nochmals geprüft; IDs inzwischen gelöschter Einträge fallen weg
+        for (int from = 0; from < ids.length; from += TAGGED_LOAD_CHUNK) {
+            List<Long> chunk = new ArrayList<>(TAGGED_LOAD_CHUNK);
+            for (int i = from; i < Math.min(from + TAGGED_LOAD_CHUNK, ids.length); i++) {
+                chunk.add(ids[i]);
+            }
+            items.addAll(repository.findByUserIdAndIdIn(userId, chunk));
+        }
+        items.sort(Comparator.comparing(Watchlist::getId));
+        return items;
+    }
+
+    public List<String> addTag(Long id, Long userId, String tag) {
+        requireOwnItem(id, userId);
+        return tagIndex.addTag(userId, id, tag);
+    }
+
+    public List<String> removeTag(Long id, Long userId, String tag) {
+        requireOwnItem(id, userId);
+        return tagIndex.removeTag(userId, id, tag);
+    }
+
+    public List<String> getTags(Long id, Long userId) {
+        requireOwnItem(id, userId);
+        return tagIndex.tagsOf(userId, id);
+    }
+
+    public Map<String, Long> getTagCounts(Long userId) {
+        return tagIndex.tagCounts(userId);
+    }
+
+    /**
+     * Einträge in der manuellen Reihenfolge des Users, seitenweise per Keyset (Schlüssel und ID des letzten Eintrags)
+     */
+    public List<Watchlist> getOrderedWatchlistItems(Long userId, String afterKey, Long afterId, int size) {
+        return ordering.page(userId, afterKey, afterId, size);
+    }
+
+    public Watchlist moveWatchlistItem(Long id, Long userId, Long afterId, Long beforeId) {
+        return ordering.move(id, userId, afterId, beforeId);
+    }
+
     public List<Watchlist> getAllWatchlistItems() {
         return (List<Watchlist>) repository.findAll();
     }
 
     public Watchlist saveWatchlistItem(Watchlist watchlist) {
+        canonicalize(watchlist);
+
         // Automatisch Cover suchen, falls noch keines vorhanden
         if (watchlist.getPosterUrl() == null || watchlist.getPosterUrl().isEmpty()) {
+            long enrichStart = RequestTimings.start();
             String posterUrl = omdbService.fetchPosterUrl(watchlist.getTitle(), watchlist.getType());
             watchlist.setPosterUrl(posterUrl);
+            metrics.recordPosterLookup(posterUrl);
+            RequestTimings.record(RequestTimings.Phase.ENRICH, enrichStart);
 
-            System.out.println("🎬 Watchlist Item erstellt: " + watchlist.getTitle() +
-                    " | Cover: " + (posterUrl != null ? "✅ Gefunden" : "❌ Nicht gefunden"));
+            logPosterLookup("watchlist.created", watchlist.getTitle(), posterUrl);
         }
 
-        return repository.save(watchlist);
+        Watchlist saved = transactionTemplate.execute(status -> {
+            Watchlist result = repository.save(watchlist);
+            statsService.recordChange(null, WatchlistStatsService.Snapshot.of(watchlist));
+            return result;
+        });
+        trendingTitles.record(watchlist.getTitle());
+        searchIndex.itemSaved(watchlist);
+        if (watchlist.getUser() != null) {
+            recommendations.itemAdded(watchlist.getUser().getId(), watchlist.getTitle());
+        }
+        return saved;
     }
 
     public Optional<Watchlist> getWatchlistItem(Long id, Long userId) {
@@ -40,19 +217,37 @@ public class WatchlistService {
     }
 
     public boolean deleteWatchlistItem(Long id, Long userId) {
-        Optional<Watchlist> item = repository.findByIdAndUserId(id, userId);
-        if (item.isPresent()) {
-            repository.deleteById(id);
+        // Der alte Stand wird für die Statistik-Deltas gebraucht
+        Optional<Watchlist> existing = repository.findByIdAndUserId(id, userId);
+        if (existing.isEmpty()) {
+            return false;
+        }
+        WatchlistStatsService.Snapshot before = WatchlistStatsService.Snapshot.of(existing.get());
+
+        // Besitz-Prüfung steckt in der WHERE-Klausel; nur wer wirklich gelöscht hat, zieht ab
+        boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (repository.deleteByIdAndUserId(id, userId) == 0) {
+                return false;
+            }
+            statsService.recordChange(before, null);
             return true;
+        }));
+        if (deleted) {
+            recommendations.itemRemoved(userId, existing.get().getTitle());
+            searchIndex.itemDeleted(userId, id);
+            tagIndex.itemDeleted(userId, id);
         }
-        return false;
+        return deleted;
     }
 
     public Watchlist updateWatchlistItem(Long id, Watchlist updatedWatchlist, Long userId) {
         return repository.findByIdAndUserId(id, userId)
                 .map(existingItem -> {
+                    canonicalize(updatedWatchlist);
                     String oldTitle = existingItem.getTitle();
                     String oldType = existingItem.getType();
+                    boolean oldWatched = existingItem.isWatched();
+                    WatchlistStatsService.Snapshot before = WatchlistStatsService.Snapshot.of(existingItem);
 
                     existingItem.setTitle(updatedWatchlist.getTitle());
                     existingItem.setType(updatedWatchlist.getType());
@@ -62,23 +257,39 @@ public class WatchlistService {
 
                     // Cover neu suchen, falls Titel oder Type geändert wurde
                     boolean titleChanged = !oldTitle.equals(updatedWatchlist.getTitle());
-                    boolean typeChanged = !oldType.equals(updatedWatchlist.getType());
+                    boolean typeChanged = !Objects.equals(oldType, updatedWatchlist.getType());
 
                     if (titleChanged || typeChanged) {
+                        long enrichStart = RequestTimings.start();
                         String newPosterUrl = omdbService.fetchPosterUrl(
                                 updatedWatchlist.getTitle(),
                                 updatedWatchlist.getType()
                         );
                         existingItem.setPosterUrl(newPosterUrl);
+                        metrics.recordPosterLookup(newPosterUrl);
+                        RequestTimings.record(RequestTimings.Phase.ENRICH, enrichStart);
 
-                        System.out.println("🔄 Watchlist Item aktualisiert: " + updatedWatchlist.getTitle() +
-                                " | Cover neu gesucht: " + (newPosterUrl != null ? "✅ Gefunden" : "❌ Nicht gefunden"));
+                        logPosterLookup("watchlist.updated", updatedWatchlist.getTitle(), newPosterUrl);
                     } else if (updatedWatchlist.getPosterUrl() != null) {
                         // Behalte vorhandene Poster URL, falls keine Änderung
                         existingItem.setPosterUrl(updatedWatchlist.getPosterUrl());
                     }
 
-                    return repository.save(existingItem);
+                    Watchlist saved = transactionTemplate.execute(status -> {
+                        Watchlist result = repository.save(existingItem);
+                        statsService.recordChange(before, WatchlistStatsService.Snapshot.of(existingItem));
+                        return result;
+                    });
+                    searchIndex.itemSaved(existingItem);
+                    // Umschalten von "gesehen" zählt für die Trending-Titel wie ein neuer Eintrag
+                    if (oldWatched != existingItem.isWatched()) {
+                        trendingTitles.record(existingItem.getTitle());
+                    }
+                    if (titleChanged) {
+                        recommendations.itemRemoved(userId, oldTitle);
+                        recommendations.itemAdded(userId, existingItem.getTitle());
+                    }
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Watchlist item with id " + id + " not found or access denied"));
     }
@@ -89,41 +300,203 @@ public class WatchlistService {
     public Watchlist refreshPoster(Long id, Long userId) {
         return repository.findByIdAndUserId(id, userId)
                 .map(item -> {
+                    long enrichStart = RequestTimings.start();
                     String newPosterUrl = omdbService.fetchPosterUrl(item.getTitle(), item.getType());
                     item.setPosterUrl(newPosterUrl);
+                    metrics.recordPosterLookup(newPosterUrl);
+                    RequestTimings.record(RequestTimings.Phase.ENRICH, enrichStart);
 
-                    System.out.println("🔄 Cover manuell aktualisiert für: " + item.getTitle() +
-                            " | Neues Cover: " + (newPosterUrl != null ? "✅ Gefunden" : "❌ Nicht gefunden"));
+                    // Manuell ausgelöst und selten - immer loggen
+                    log.atInfo()
+                            .setMessage("Cover manuell aktualisiert")
+                            .addKeyValue("event", "watchlist.poster.refreshed")
+                            .addKeyValue("itemId", id)
+                            .addKeyValue("posterFound", newPosterUrl != null)
+                            .log();
 
-                    return repository.save(item);
+                    Watchlist saved = repository.save(item);
+                    searchIndex.itemSaved(item);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Watchlist item with id " + id + " not found"));
     }
 
     /**
-     * Batch-Update für alle Einträge eines Users ohne Cover
+     * Batch-Update für alle Einträge eines Users ohne Cover; wartet auf alle Einträge und wirft eine Exception,
+     * wenn einzelne fehlgeschlagen sind (die übrigen bleiben gespeichert)
      */
     public void refreshAllMissingPosters(Long userId) {
-        List<Watchlist> userItems = repository.findByUserId(userId);
-
-        for (Watchlist item : userItems) {
-            if (item.getPosterUrl() == null || item.getPosterUrl().isEmpty()) {
-                String posterUrl = omdbService.fetchPosterUrl(item.getTitle(), item.getType());
-                if (posterUrl != null) {
-                    item.setPosterUrl(posterUrl);
-                    repository.save(item);
-
-                    System.out.println("📦 Batch-Update - Cover hinzugefügt für: " + item.getTitle());
-
-                    // Kleine Verzögerung um API-Limits zu respektieren
-                    try {
-                        Thread.sleep(200); // 200ms Pause zwischen Requests
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+        List<Watchlist> missing = repository.findByUserId(userId).stream()
+                .filter(item -> item.getPosterUrl() == null || item.getPosterUrl().isEmpty())
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        // Höchstens eine OMDb-Abfrage pro omdb.batch.min-interval-ms, auch wenn parallel abgefragt wird
+        AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+        List<Future<?>> futures = new ArrayList<>(missing.size());
+        if (virtualThreads) {
+            // Ein Virtual Thread pro Eintrag; die Semaphore begrenzt die parallelen OMDb-Abfragen
+            Semaphore permits = new Semaphore(Math.max(1, batchParallelism));
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Watchlist item : missing) {
+                    futures.add(executor.submit(() -> refreshPoster(item, permits, nextSlot)));
                 }
             }
+        } else {
+            // Plattform-Threads: nacheinander im Request-Thread
+            for (Watchlist item : missing) {
+                FutureTask<Void> task = new FutureTask<>(() -> refreshPoster(item, null, nextSlot), null);
+                task.run();
+                futures.add(task);
+            }
+        }
+
+        // Alle Tasks sind fertig - get() blockiert nicht mehr
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                log.atWarn()
+                        .setMessage("Batch-Update - Cover nicht aktualisiert")
+                        .addKeyValue("event", "watchlist.poster.batch-failed")
+                        .addKeyValue("itemId", missing.get(i).getId())
+                        .addKeyValue("error", e.getCause().getMessage())
+                        .log();
+                if (failure == null) {
+                    failure = new RuntimeException("Cover nicht für alle Einträge aktualisiert", e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Batch-Update unterbrochen", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void refreshPoster(Watchlist item, Semaphore permits, AtomicLong nextSlot) {
+        try {
+            if (permits != null) {
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            awaitBatchSlot(nextSlot);
+            String posterUrl = fetchPosterLimited(item);
+            metrics.recordPosterLookup(posterUrl);
+            if (posterUrl != null) {
+                item.setPosterUrl(posterUrl);
+                repository.save(item);
+                searchIndex.itemSaved(item);
+
+                log.atDebug()
+                        .setMessage("Batch-Update - Cover hinzugefügt")
+                        .addKeyValue("event", "watchlist.poster.batch")
+                        .addKeyValue("itemId", item.getId())
+                        .log();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    // Reserviert den nächsten Startzeitpunkt und wartet bis dahin
+    private void awaitBatchSlot(AtomicLong nextSlot) throws InterruptedException {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(batchIntervalMillis);
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextSlot.getAndUpdate(next -> Math.max(next, now) + intervalNanos));
+        if (slot > now) {
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+        }
+    }
+
+    /**
+     * OMDb-Abfrage des Batch-Updates mit eigenem Platz im adaptiven Limit. Gemessen wird wie im
+     * ConcurrencyLimitInterceptor nur die Phase OMDB, ein Cache-Treffer gibt den Platz ohne Messung frei.
+     */
+    private String fetchPosterLimited(Watchlist item) throws InterruptedException {
+        int inFlight = acquireOmdbPermit();
+        // Virtual Threads haben noch keine Messung; im Request-Thread zählt die Differenz
+        RequestTimings timings = RequestTimings.current();
+        boolean ownTimings = timings == null;
+        if (ownTimings) {
+            timings = RequestTimings.begin();
+        }
+        int callsBefore = timings.phaseCount(RequestTimings.Phase.OMDB);
+        long nanosBefore = timings.phaseNanos(RequestTimings.Phase.OMDB);
+        boolean success = false;
+        try {
+            String posterUrl = omdbService.fetchPosterUrl(item.getTitle(), item.getType());
+            success = true;
+            return posterUrl;
+        } finally {
+            int calls = timings.phaseCount(RequestTimings.Phase.OMDB) - callsBefore;
+            long nanos = timings.phaseNanos(RequestTimings.Phase.OMDB) - nanosBefore;
+            if (ownTimings) {
+                timings.end();
+            }
+            if (!success) {
+                omdbLimiter.release(inFlight, nanos, false);
+            } else if (calls == 0) {
+                omdbLimiter.release();
+            } else {
+                omdbLimiter.release(inFlight, nanos / calls, true);
+            }
+        }
+    }
+
+    // Anders als Requests wartet das Batch-Update auf einen freien Platz statt sofort aufzugeben
+    private int acquireOmdbPermit() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + BATCH_PERMIT_TIMEOUT_MILLIS;
+        while (true) {
+            int inFlight = omdbLimiter.tryAcquire();
+            if (inFlight > 0) {
+                return inFlight;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new RuntimeException("OMDb-Limit erreicht, Batch-Update abgebrochen");
+            }
+            Thread.sleep(Math.max(1, batchIntervalMillis));
+        }
+    }
+
+    private void requireOwnItem(Long id, Long userId) {
+        if (repository.findByIdAndUserId(id, userId).isEmpty()) {
+            throw new RuntimeException("Watchlist item with id " + id + " not found or access denied");
+        }
+    }
+
+    /**
+     * Type und Genre so setzen, wie sie nach dem Speichern gelesen werden ("movie" -> "Film"),
+     * damit Statistik, Such-Index und Antwort schon jetzt dieselben Werte sehen
+     */
+    private void canonicalize(Watchlist watchlist) {
+        watchlist.setType(categories.canonicalType(watchlist.getType()));
+        watchlist.setGenre(categories.canonicalGenres(watchlist.getGenre()));
+    }
+
+    private void logPosterLookup(String event, String title, String posterUrl) {
+        if (log.isInfoEnabled() && WRITE_LOG_SAMPLER.sample()) {
+            log.atInfo()
+                    .setMessage("Cover gesucht")
+                    .addKeyValue("event", event)
+                    .addKeyValue("title", title)
+                    .addKeyValue("posterFound", posterUrl != null)
+                    .addKeyValue("sampleRate", WRITE_LOG_SAMPLER.rate())
+                    .log();
         }
     }
 }
\ No newline at end of file
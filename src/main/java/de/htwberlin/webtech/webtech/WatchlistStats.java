@@ -0,0 +1,59 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+/**
+ * Aggregierte Kennzahlen der Watchlist eines Users, eine Zeile pro User.
+ *
+ * Wird von WatchlistStatsService bei jeder Änderung per Delta-UPDATE fortgeschrieben,
+ * WatchlistStatsReconciler korrigiert Abweichungen.
+ */
+@Entity
+@Table(name = "watchlist_stats")
+public class WatchlistStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_count", nullable = false)
+    private long totalCount;
+
+    @Column(name = "watched_count", nullable = false)
+    private long watchedCount;
+
+    // Einträge mit Bewertung (rating > 0), Basis für den Durchschnitt
+    @Column(name = "rated_count", nullable = false)
+    private long ratedCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    // Leerer Konstruktor für Hibernate
+    public WatchlistStats() {}
+
+    public WatchlistStats(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getter
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getWatchedCount() {
+        return watchedCount;
+    }
+
+    public long getRatedCount() {
+        return ratedCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package de.htwberlin.webtech.webtech;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gleicht die inkrementell gepflegte Statistik im Hintergrund mit den tatsächlichen Einträgen ab.
+ *
+ * Pro Lauf wird ein Block von User-IDs neu gezählt (ein GROUP BY über deren Einträge) und nur bei
+ * Abweichung überschrieben. Der Cursor läuft reihum über alle User, so dass jede Drift (Absturz
+ * zwischen Eintrag und Statistik, gleichzeitige Updates) nach einem Durchlauf korrigiert ist.
+ *
+ * Der Vergleich über den ganzen Block ist nur eine Vorauswahl. Für jeden abweichenden User wird in einer
+ * Transaktion die watchlist_stats-Zeile gesperrt (FOR UPDATE), dann neu gezählt und erst dann überschrieben.
+ * Schreibende Requests ändern Eintrag und Statistik in einer Transaktion und sperren dabei dieselbe Zeile;
+ * ein gleichzeitiger Request wird also entweder mitgezählt oder addiert sein Delta erst auf den korrigierten Wert.
+ */
+@Component
+public class WatchlistStatsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistStatsReconciler.class);
+
+    private static final String NEXT_RANGE_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM app_user WHERE id > ? ORDER BY id LIMIT ?) ids";
+
+    private static final String ACTUAL_TOTALS_SQL =
+            "SELECT user_id, COUNT(*), "
+                    + "SUM(CASE WHEN watched THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN rating > 0 THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN rating > 0 THEN rating ELSE 0 END) "
+                    + "FROM watchlist WHERE user_id > ? AND user_id <= ? GROUP BY user_id";
+
+    private static final String ACTUAL_GENRES_SQL =
+            "SELECT user_id, genre, COUNT(*) FROM watchlist "
+                    + "WHERE user_id > ? AND user_id <= ? AND genre IS NOT NULL GROUP BY user_id, genre";
+
+    private static final String STORED_TOTALS_SQL =
+            "SELECT user_id, total_count, watched_count, rated_count, rating_sum FROM watchlist_stats "
+                    + "WHERE user_id > ? AND user_id <= ?";
+
+    private static final String LOCK_STATS_SQL = "SELECT user_id FROM watchlist_stats WHERE user_id = ? FOR UPDATE";
+
+    private static final String STORED_GENRES_SQL =
+            "SELECT user_id, genre, item_count FROM watchlist_genre_stats WHERE user_id > ? AND user_id <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter corrected;
+    private final int batchSize;
+
+    // Letzte abgeglichene User-ID; 0 = von vorne
+    private final AtomicLong cursor = new AtomicLong();
+
+    public WatchlistStatsReconciler(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry registry,
+                                    @Value("${watchlist.stats.reconcile-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.corrected = Counter.builder("watchlist.stats.corrected")
+                .description("User, deren Statistik beim Abgleich korrigiert werden musste")
+                .register(registry);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gleicht den nächsten Block von Usern ab und rückt den Cursor weiter (am Ende wieder von vorne)
+     */
+    @Scheduled(fixedDelayString = "${watchlist.stats.reconcile-interval-ms:60000}",
+            initialDelayString = "${watchlist.stats.reconcile-interval-ms:60000}")
+    public void reconcileNextBatch() {
+        long from = cursor.get();
+        Long to = jdbcTemplate.queryForObject(NEXT_RANGE_SQL, Long.class, from, batchSize);
+        if (to == null) {
+            cursor.set(0);
+            return;
+        }
+
+        try {
+            int fixed = reconcile(from, to);
+            if (fixed > 0) {
+                log.atInfo()
+                        .setMessage("Watchlist-Statistik korrigiert")
+                        .addKeyValue("event", "watchlist.stats.reconciled")
+                        .addKeyValue("fromUserId", from)
+                        .addKeyValue("toUserId", to)
+                        .addKeyValue("correctedUsers", fixed)
+                        .log();
+            }
+            cursor.set(to);
+        } catch (RuntimeException e) {
+            // Cursor bleibt stehen, der Block wird beim nächsten Lauf wiederholt
+            log.atWarn()
+                    .setMessage("Abgleich der Watchlist-Statistik fehlgeschlagen")
+                    .addKeyValue("event", "watchlist.stats.reconcile-failed")
+                    .addKeyValue("fromUserId", from)
+                    .addKeyValue("error", e.getMessage())
+                    .log();
+        }
+    }
+
+    /**
+     * Gleicht alle User mit fromExclusive < id <= toInclusive ab; liefert die Anzahl korrigierter User
+     */
+    public int reconcile(long fromExclusive, long toInclusive) {
+        Map<Long, long[]> actualTotals = totals(ACTUAL_TOTALS_SQL, fromExclusive, toInclusive);
+        Map<Long, long[]> storedTotals = totals(STORED_TOTALS_SQL, fromExclusive, toInclusive);
+        Map<Long, Map<String, Long>> actualGenres = actualGenres(fromExclusive, toInclusive);
+        Map<Long, Map<String, Long>> storedGenres = storedGenres(fromExclusive, toInclusive);
+
+        Set<Long> userIds = new HashSet<>(actualTotals.keySet());
+        userIds.addAll(storedTotals.keySet());
+        userIds.addAll(storedGenres.keySet());
+
+        int fixed = 0;
+        for (Long userId : userIds) {
+            long[] actual = actualTotals.get(userId);
+            long[] stored = storedTotals.get(userId);
+            Map<String, Long> genres = actualGenres.getOrDefault(userId, Map.of());
+            boolean totalsMatch = actual == null
+                    ? stored == null || WatchlistStatsService.isZero(stored)
+                    : Arrays.equals(actual, stored);
+            if (totalsMatch && Objects.equals(genres, storedGenres.getOrDefault(userId, Map.of()))) {
+                continue;
+            }
+
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcileLocked(userId)))) {
+                corrected.increment();
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    // Unter Sperre neu lesen: die Vorauswahl kann durch gleichzeitige Änderungen schon überholt sein
+    private boolean reconcileLocked(Long userId) {
+        boolean rowExists = !jdbcTemplate.queryForList(LOCK_STATS_SQL, Long.class, userId).isEmpty();
+        long[] actual = totals(ACTUAL_TOTALS_SQL, userId - 1, userId).get(userId);
+        long[] stored = totals(STORED_TOTALS_SQL, userId - 1, userId).get(userId);
+        Map<String, Long> genres = actualGenres(userId - 1, userId).getOrDefault(userId, Map.of());
+        boolean totalsMatch = actual == null
+                ? stored == null || WatchlistStatsService.isZero(stored)
+                : Arrays.equals(actual, stored);
+        if (totalsMatch && Objects.equals(genres, storedGenres(userId - 1, userId).getOrDefault(userId, Map.of()))) {
+            return false;
+        }
+        overwrite(userId, rowExists, actual, genres);
+        return true;
+    }
+
+    // watchlist_stats per UPDATE statt DELETE + INSERT: ein wartendes Delta fände eine neu eingefügte Zeile nicht
+    private void overwrite(Long userId, boolean rowExists, long[] actual, Map<String, Long> genres) {
+        long[] totals = actual != null ? actual : new long[4];
+        if (rowExists) {
+            jdbcTemplate.update("UPDATE watchlist_stats SET total_count = ?, watched_count = ?, rated_count = ?, "
+                    + "rating_sum = ? WHERE user_id = ?", totals[0], totals[1], totals[2], totals[3], userId);
+        } else if (actual != null) {
+            jdbcTemplate.update("INSERT INTO watchlist_stats (user_id, total_count, watched_count, rated_count, rating_sum) "
+                    + "VALUES (?, ?, ?, ?, ?)", userId, totals[0], totals[1], totals[2], totals[3]);
+        }
+        jdbcTemplate.update("DELETE FROM watchlist_genre_stats WHERE user_id = ?", userId);
+        List<Object[]> rows = new ArrayList<>(genres.size());
+        genres.forEach((genre, count) -> rows.add(new Object[]{userId, genre, count}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO watchlist_genre_stats (user_id, genre, item_count) VALUES (?, ?, ?)", rows);
+        }
+    }
+
+    private Map<Long, long[]> totals(String sql, long from, long to) {
+        Map<Long, long[]> result = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            result.put(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)});
+        }, from, to);
+        return result;
+    }
+
+    // Genre-Felder werden wie in WatchlistStatsService zerlegt, damit beide Seiten gleich zählen
+    private Map<Long, Map<String, Long>> actualGenres(long from, long to) {
+        Map<Long, Map<String, Long>> result = new HashMap<>();
+        jdbcTemplate.query(ACTUAL_GENRES_SQL, rs -> {
+            Map<String, Long> genres = result.computeIfAbsent(rs.getLong(1), id -> new HashMap<>());
+            long count = rs.getLong(3);
+            for (String genre : WatchlistStatsService.splitGenres(rs.getString(2))) {
+                genres.merge(genre, count, Long::sum);
+            }
+        }, from, to);
+        return result;
+    }
+
+    // Zeilen mit 0 zählen als nicht vorhanden, werden beim Überschreiben aber mit entfernt
+    private Map<Long, Map<String, Long>> storedGenres(long from, long to) {
+        Map<Long, Map<String, Long>> result = new HashMap<>();
+        jdbcTemplate.query(STORED_GENRES_SQL, rs -> {
+            Map<String, Long> genres = result.computeIfAbsent(rs.getLong(1), id -> new HashMap<>());
+            if (rs.getLong(3) != 0) {
+                genres.put(rs.getString(2), rs.getLong(3));
+            }
+        }, from, to);
+        return result;
+    }
+}
\ No newline at end of file
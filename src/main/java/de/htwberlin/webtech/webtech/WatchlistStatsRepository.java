@@ -0,0 +1,28 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface WatchlistStatsRepository extends CrudRepository<WatchlistStats, Long> {
+
+    // Delta statt Neuberechnung; atomar in der Datenbank, auch bei parallelen Änderungen
+    @Modifying
+    @Transactional
+    @Query("update WatchlistStats s set s.totalCount = s.totalCount + :total, s.watchedCount = s.watchedCount + :watched, "
+            + "s.ratedCount = s.ratedCount + :rated, s.ratingSum = s.ratingSum + :ratingSum where s.userId = :userId")
+    int applyDelta(@Param("userId") Long userId, @Param("total") long total, @Param("watched") long watched,
+                   @Param("rated") long rated, @Param("ratingSum") long ratingSum);
+
+    // Direktes INSERT statt save(): save() mit gesetzter ID macht vorher ein SELECT (merge)
+    @Modifying
+    @Transactional
+    @Query(value = "insert into watchlist_stats (user_id, total_count, watched_count, rated_count, rating_sum) "
+            + "values (:userId, :total, :watched, :rated, :ratingSum)", nativeQuery = true)
+    int insert(@Param("userId") Long userId, @Param("total") long total, @Param("watched") long watched,
+               @Param("rated") long rated, @Param("ratingSum") long ratingSum);
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Schreibt die Statistik pro User inkrementell fort: aus dem Zustand eines Eintrags vor und nach
+ * einer Änderung werden Deltas berechnet und per UPDATE addiert, nie die ganze Liste neu gezählt.
+ */
+@Service
+public class WatchlistStatsService {
+
+    @Autowired
+    private WatchlistStatsRepository statsRepository;
+
+    @Autowired
+    private WatchlistGenreStatsRepository genreStatsRepository;
+
+    /**
+     * Überträgt eine Änderung in die Statistik. before == null: neuer Eintrag, after == null: gelöscht.
+     */
+    @Transactional
+    public void recordChange(Snapshot before, Snapshot after) {
+        Snapshot any = after != null ? after : before;
+        if (any == null || any.userId == null) {
+            return;
+        }
+        Long userId = any.userId;
+
+        long[] delta = totalsDelta(before, after);
+        Map<String, Long> genreDeltas = genreDeltas(before, after);
+        // Auch ohne Änderung der Summen die Zeile anfassen: sperrt sie wie beim Abgleich (WatchlistStatsReconciler)
+        if (!isZero(delta) || !genreDeltas.isEmpty()) {
+            int updated = statsRepository.applyDelta(userId, delta[0], delta[1], delta[2], delta[3]);
+            // Neue Zeile nur beim ersten Eintrag; fehlt sie sonst, korrigiert das der Reconciler
+            if (updated == 0 && before == null) {
+                statsRepository.insert(userId, delta[0], delta[1], delta[2], delta[3]);
+            }
+        }
+
+        for (Map.Entry<String, Long> entry : genreDeltas.entrySet()) {
+            int updated = genreStatsRepository.applyDelta(userId, entry.getKey(), entry.getValue());
+            if (updated == 0 && entry.getValue() > 0) {
+                genreStatsRepository.insert(userId, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public Optional<WatchlistStats> findStats(Long userId) {
+        return statsRepository.findById(userId);
+    }
+
+    public List<WatchlistGenreStats> findGenres(Long userId) {
+        return genreStatsRepository.findByUserIdAndItemCountGreaterThanOrderByItemCountDesc(userId, 0);
+    }
+
+    /**
+     * Zerlegt das Genre-Feld ("Sci-Fi, Action") in einzelne Genres, ohne Duplikate
+     */
+    static List<String> splitGenres(String genre) {
+        if (genre == null || genre.isBlank()) {
+            return List.of();
+        }
+        Set<String> genres = new LinkedHashSet<>();
+        for (String part : genre.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                genres.add(trimmed);
+            }
+        }
+        return new ArrayList<>(genres);
+    }
+
+    /**
+     * Deltas für total_count, watched_count, rated_count, rating_sum
+     */
+    static long[] totalsDelta(Snapshot before, Snapshot after) {
+        return new long[]{
+                count(after) - count(before),
+                watched(after) - watched(before),
+                rated(after) - rated(before),
+                ratingSum(after) - ratingSum(before)
+        };
+    }
+
+    static boolean isZero(long[] delta) {
+        for (long value : delta) {
+            if (value != 0) return false;
+        }
+        return true;
+    }
+
+    static Map<String, Long> genreDeltas(Snapshot before, Snapshot after) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        if (before != null) {
+            splitGenres(before.genre).forEach(genre -> deltas.merge(genre, -1L, Long::sum));
+        }
+        if (after != null) {
+            splitGenres(after.genre).forEach(genre -> deltas.merge(genre, 1L, Long::sum));
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    private static long count(Snapshot s) {
+        return s != null ? 1 : 0;
+    }
+
+    private static long watched(Snapshot s) {
+        return s != null && s.watched ? 1 : 0;
+    }
+
+    private static long rated(Snapshot s) {
+        return s != null && s.rating > 0 ? 1 : 0;
+    }
+
+    private static long ratingSum(Snapshot s) {
+        return s != null && s.rating > 0 ? s.rating : 0;
+    }
+
+    /**
+     * Die für die Statistik relevanten Felder eines Eintrags zu einem Zeitpunkt
+     */
+    public static class Snapshot {
+        private final Long userId;
+        private final boolean watched;
+        private final int rating;
+        private final String genre;
+
+        public Snapshot(Long userId, boolean watched, int rating, String genre) {
+            this.userId = userId;
+            this.watched = watched;
+            this.rating = rating;
+            this.genre = genre;
+        }
+
+        public static Snapshot of(Watchlist item) {
+            Long userId = item.getUser() != null ? item.getUser().getId() : null;
+            return new Snapshot(userId, item.isWatched(), item.getRating(), item.getGenre());
+        }
+
+        public static Snapshot of(WatchlistRow item) {
+            return new Snapshot(item.getUserId(), item.isWatched(), item.getRating(), item.getGenre());
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Ein Tag eines Users mit allen Einträgen, die ihn tragen, als CompressedBitmap der Eintrags-IDs.
+ *
+ * Mehrere Knoten können denselben Tag gleichzeitig ändern; @Version sorgt dafür, dass keine Änderung
+ * überschrieben wird (WatchlistTagIndex liest dann neu und wiederholt).
+ */
+@Entity
+@Table(name = "watchlist_tag")
+@IdClass(WatchlistTag.Key.class)
+public class WatchlistTag {
+
+    // 10.000 Einträge brauchen je nach Verteilung 20-80 KB
+    private static final int MAX_BITMAP_BYTES = 16 * 1024 * 1024;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "tag", length = 50)
+    private String tag;
+
+    @Column(name = "item_ids", nullable = false, length = MAX_BITMAP_BYTES)
+    private byte[] itemIds;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    // Leerer Konstruktor für Hibernate
+    public WatchlistTag() {}
+
+    public WatchlistTag(Long userId, String tag) {
+        this.userId = userId;
+        this.tag = tag;
+    }
+
+    public CompressedBitmap bitmap() {
+        return itemIds == null ? new CompressedBitmap() : CompressedBitmap.fromBytes(itemIds);
+    }
+
+    public void setBitmap(CompressedBitmap bitmap) {
+        this.itemIds = bitmap.toBytes();
+    }
+
+    // Getter
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Zusammengesetzter Primärschlüssel (user_id, tag)
+     */
+    public static class Key implements Serializable {
+        private Long userId;
+        private String tag;
+
+        public Key() {}
+
+        public Key(Long userId, String tag) {
+            this.userId = userId;
+            this.tag = tag;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(tag, key.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, tag);
+        }
+    }
+}
\ No newline at end of file
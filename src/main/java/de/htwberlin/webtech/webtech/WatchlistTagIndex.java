@@ -0,0 +1,289 @@
+package de.htwberlin.webtech.webtech;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Tags der Watchlist-Einträge ("mit Kindern", "rewatch") und Filter über Tag-Kombinationen.
+ *
+ * Pro User und Tag gibt es eine CompressedBitmap der Eintrags-IDs, gespeichert in watchlist_tag und pro User
+ * im Speicher gehalten (LRU, höchstens tags.max-cached-users, nach tags.cache-ttl-seconds neu geladen). Eine
+ * Abfrage "alle von all, mindestens einer von any, keiner von none" ist damit reine Bitmap-Arithmetik statt
+ * eines JOINs pro Tag. Schreiben geht sofort in die Datenbank; gleichzeitige Änderungen anderer Knoten
+ * erkennt die @Version-Spalte, dann wird neu gelesen und wiederholt.
+ */
+@Component
+public class WatchlistTagIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistTagIndex.class);
+
+    private static final int LOCK_STRIPES = 1024;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final WatchlistTagRepository tagRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final long ttlMillis;
+    private final int maxTagsPerUser;
+    private final int maxTagLength;
+    private final Map<Long, UserTags> cache;
+
+    // Laden und Schreiben eines Users laufen unter demselben Lock, damit kein veralteter Stand gecacht wird
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public WatchlistTagIndex(WatchlistTagRepository tagRepository, WatchlistRepository watchlistRepository,
+                             @Value("${tags.max-cached-users:10000}") int maxCachedUsers,
+                             @Value("${tags.cache-ttl-seconds:300}") long ttlSeconds,
+                             @Value("${tags.max-tags-per-user:500}") int maxTagsPerUser,
+                             @Value("${tags.max-tag-length:50}") int maxTagLength) {
+        this.tagRepository = tagRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxTagsPerUser = maxTagsPerUser;
+        this.maxTagLength = maxTagLength;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserTags> eldest) {
+                return size() > maxCachedUsers;
+            }
+        };
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Tag in Kleinbuchstaben mit einfachen Leerzeichen; leer, zu lang oder mit Komma (Trenner in Abfragen)
+     * gibt IllegalArgumentException
+     */
+    public String normalizeTag(String tag) {
+        String normalized = tag == null ? "" : tag.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Tag darf nicht leer sein!");
+        }
+        if (normalized.length() > maxTagLength) {
+            throw new IllegalArgumentException("Tag darf höchstens " + maxTagLength + " Zeichen lang sein!");
+        }
+        if (normalized.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("Tag darf kein Komma enthalten!");
+        }
+        return normalized;
+    }
+
+    /**
+     * Taggt den Eintrag (Besitz muss der Aufrufer geprüft haben); liefert alle Tags des Eintrags
+     */
+    public List<String> addTag(Long userId, Long itemId, String tag) {
+        String normalized = normalizeTag(tag);
+        synchronized (lock(userId)) {
+            UserTags tags = tagsFor(userId);
+            if (!tags.bitmaps.containsKey(normalized) && tags.bitmaps.size() >= maxTagsPerUser) {
+                throw new IllegalArgumentException("Höchstens " + maxTagsPerUser + " verschiedene Tags pro User!");
+            }
+            tags.update(normalized, write(userId, normalized, bitmap -> bitmap.add(itemId)));
+            return tags.tagsOf(itemId);
+        }
+    }
+
+    public List<String> removeTag(Long userId, Long itemId, String tag) {
+        String normalized = normalizeTag(tag);
+        synchronized (lock(userId)) {
+            UserTags tags = tagsFor(userId);
+            tags.update(normalized, write(userId, normalized, bitmap -> bitmap.remove(itemId)));
+            return tags.tagsOf(itemId);
+        }
+    }
+
+    public List<String> tagsOf(Long userId, Long itemId) {
+        return tagsFor(userId).tagsOf(itemId);
+    }
+
+    /**
+     * Alle Tags des Users mit der Anzahl getaggter Einträge, alphabetisch
+     */
+    public Map<String, Long> tagCounts(Long userId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        tagsFor(userId).bitmaps.forEach((tag, bitmap) -> counts.put(tag, bitmap.cardinality()));
+        return counts;
+    }
+
+    /**
+     * IDs der Einträge, die alle Tags aus all, mindestens einen aus any und keinen aus none tragen.
+     * Sind all und any leer, ist die Ausgangsmenge die ganze Watchlist des Users.
+     */
+    public CompressedBitmap query(Long userId, Collection<String> all, Collection<String> any,
+                                  Collection<String> none) {
+        UserTags tags = tagsFor(userId);
+        CompressedBitmap result = null;
+        for (String tag : all) {
+            CompressedBitmap bitmap = tags.bitmap(normalizeTag(tag));
+            result = result == null ? bitmap : result.and(bitmap);
+        }
+        if (!any.isEmpty()) {
+            CompressedBitmap union = new CompressedBitmap();
+            for (String tag : any) {
+                union = union.or(tags.bitmap(normalizeTag(tag)));
+            }
+            result = result == null ? union : result.and(union);
+        }
+        if (result == null) {
+            result = new CompressedBitmap();
+            for (Long id : watchlistRepository.findIdsByUserId(userId)) {
+                result.add(id);
+            }
+        }
+        for (String tag : none) {
+            result = result.andNot(tags.bitmap(normalizeTag(tag)));
+        }
+        return result;
+    }
+
+    /**
+     * Gelöschter Eintrag: aus allen Tags des Users entfernen. Fehler werden nur geloggt - veraltete IDs
+     * fallen beim Laden der Einträge ohnehin heraus.
+     */
+    public void itemDeleted(Long userId, Long itemId) {
+        synchronized (lock(userId)) {
+            try {
+                // Aus der Datenbank statt aus dem Cache, damit auch Tags anderer Knoten erfasst werden
+                for (WatchlistTag stored : tagRepository.findByUserId(userId)) {
+                    if (stored.bitmap().contains(itemId)) {
+                        write(userId, stored.getTag(), bitmap -> bitmap.remove(itemId));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.atWarn()
+                        .setMessage("Tags des gelöschten Eintrags nicht entfernt")
+                        .addKeyValue("event", "watchlist.tags.delete-failed")
+                        .addKeyValue("itemId", itemId)
+                        .addKeyValue("error", e.getMessage())
+                        .log();
+            }
+            invalidate(userId);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    public int cachedUsers() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private UserTags tagsFor(Long userId) {
+        UserTags tags = cached(userId);
+        if (tags != null && System.currentTimeMillis() - tags.loadedAt < ttlMillis) {
+            return tags;
+        }
+        synchronized (lock(userId)) {
+            tags = cached(userId);
+            if (tags != null && System.currentTimeMillis() - tags.loadedAt < ttlMillis) {
+                return tags;
+            }
+            UserTags loaded = new UserTags(System.currentTimeMillis());
+            for (WatchlistTag stored : tagRepository.findByUserId(userId)) {
+                loaded.update(stored.getTag(), stored.bitmap());
+            }
+            synchronized (cache) {
+                cache.put(userId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private UserTags cached(Long userId) {
+        synchronized (cache) {
+            return cache.get(userId);
+        }
+    }
+
+    /**
+     * Liest die Bitmap des Tags, ändert sie und schreibt sie zurück (leer = Zeile löschen);
+     * bei einer gleichzeitigen Änderung wird neu gelesen
+     */
+    private CompressedBitmap write(Long userId, String tag, Consumer<CompressedBitmap> change) {
+        WatchlistTag.Key key = new WatchlistTag.Key(userId, tag);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Optional<WatchlistTag> stored = tagRepository.findById(key);
+                CompressedBitmap bitmap = stored.map(WatchlistTag::bitmap).orElseGet(CompressedBitmap::new);
+                change.accept(bitmap);
+                if (bitmap.isEmpty()) {
+                    stored.ifPresent(tagRepository::delete);
+                } else {
+                    WatchlistTag row = stored.orElseGet(() -> new WatchlistTag(userId, tag));
+                    row.setBitmap(bitmap);
+                    tagRepository.save(row);
+                }
+                return bitmap;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // Anderer Knoten war schneller (Update bzw. erstes Anlegen desselben Tags)
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                log.atDebug()
+                        .setMessage("Tag gleichzeitig geändert - neuer Versuch")
+                        .addKeyValue("event", "watchlist.tags.write-conflict")
+                        .addKeyValue("tag", tag)
+                        .addKeyValue("attempt", attempt)
+                        .log();
+            }
+        }
+    }
+
+    private Object lock(Long userId) {
+        return locks[Math.floorMod(Long.hashCode(userId), LOCK_STRIPES)];
+    }
+
+    /**
+     * Tags eines Users; die Bitmaps werden nach dem Einfügen nicht mehr verändert, Lesen braucht daher kein Lock
+     */
+    private static class UserTags {
+        private final long loadedAt;
+        private final ConcurrentSkipListMap<String, CompressedBitmap> bitmaps = new ConcurrentSkipListMap<>();
+
+        private UserTags(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        private void update(String tag, CompressedBitmap bitmap) {
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(tag);
+            } else {
+                bitmaps.put(tag, bitmap);
+            }
+        }
+
+        private CompressedBitmap bitmap(String tag) {
+            return bitmaps.getOrDefault(tag, new CompressedBitmap());
+        }
+
+        private List<String> tagsOf(Long itemId) {
+            List<String> tags = new ArrayList<>();
+            bitmaps.forEach((tag, bitmap) -> {
+                if (bitmap.contains(itemId)) {
+                    tags.add(tag);
+                }
+            });
+            return tags;
+        }
+    }
+}
\ No newline at end of file
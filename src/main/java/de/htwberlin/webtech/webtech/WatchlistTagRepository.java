@@ -0,0 +1,11 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface WatchlistTagRepository extends CrudRepository<WatchlistTag, WatchlistTag.Key> {
+
+    List<WatchlistTag> findByUserId(Long userId);
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+/**
+ * Type eines Watchlist-Eintrags im Wörterbuch (CategoryDictionary); watchlist.type_id verweist hierher
+ */
+@Entity
+@Table(name = "watchlist_type")
+public class WatchlistType {
+
+    @Id
+    @Column(name = "id")
+    private Short id;
+
+    // Schreibweise, wie sie die API ausgibt
+    @Column(name = "name", nullable = false, unique = true)
+    private String name;
+
+    // Leerer Konstruktor für Hibernate
+    public WatchlistType() {}
+
+    // Getter
+    public Short getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.*;
+
+/**
+ * Normalisierte Schreibweise eines Types ("movie", "tv") und der Type, auf den sie zeigt
+ */
+@Entity
+@Table(name = "watchlist_type_alias")
+public class WatchlistTypeAlias {
+
+    @Id
+    @Column(name = "alias")
+    private String alias;
+
+    @Column(name = "type_id", nullable = false)
+    private Short typeId;
+
+    // Leerer Konstruktor für Hibernate
+    public WatchlistTypeAlias() {}
+
+    // Getter
+    public String getAlias() {
+        return alias;
+    }
+
+    public Short getTypeId() {
+        return typeId;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,223 @@
+package de.htwberlin.webtech.webtech;
+
+import de.htwberlin.webtech.webtech.WatchlistController.WatchlistRequest;
+import de.htwberlin.webtech.webtech.WatchlistStatsService.Snapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Handler der reaktiven /v2/Watchlist-Endpunkte. Gleiche Semantik wie WatchlistController/WatchlistService,
+ * aber durchgehend nicht-blockierend (R2DBC, WebClient für OMDb).
+ */
+public class WatchlistV2Handler {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistV2Handler.class);
+
+    private final ReactiveWatchlistRepository watchlistRepository;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveWatchlistStatsWriter statsWriter;
+    private final OMDbService omdbService;
+    private final WatchlistMetrics metrics;
+    private final TrendingTitles trendingTitles;
+    private final TitleRecommendations recommendations;
+    private final WatchlistSearchIndex searchIndex;
+    private final CategoryDictionary categories;
+    private final WatchlistTagIndex tagIndex;
+
+    public WatchlistV2Handler(ReactiveWatchlistRepository watchlistRepository, ReactiveUserRepository userRepository,
+                              ReactiveWatchlistStatsWriter statsWriter, OMDbService omdbService, WatchlistMetrics metrics,
+                              TrendingTitles trendingTitles, TitleRecommendations recommendations,
+                              WatchlistSearchIndex searchIndex, CategoryDictionary categories,
+                              WatchlistTagIndex tagIndex) {
+        this.watchlistRepository = watchlistRepository;
+        this.userRepository = userRepository;
+        this.statsWriter = statsWriter;
+        this.omdbService = omdbService;
+        this.metrics = metrics;
+        this.trendingTitles = trendingTitles;
+        this.recommendations = recommendations;
+        this.searchIndex = searchIndex;
+        this.categories = categories;
+        this.tagIndex = tagIndex;
+    }
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        Flux<WatchlistRow> items = request.queryParam("userId")
+                .map(userId -> watchlistRepository.findByUserId(Long.valueOf(userId)))
+                .orElseGet(watchlistRepository::findAll);
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(items, WatchlistRow.class);
+    }
+
+    public Mono<ServerResponse> get(ServerRequest request) {
+        Long id = id(request);
+        return watchlistRepository.findByIdAndUserId(id, userId(request))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Watchlist item with id " + id + " not found")))
+                .flatMap(this::ok);
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(WatchlistRequest.class)
+                .flatMap(body -> userRepository.existsById(body.getUserId())
+                        .flatMap(exists -> exists
+                                ? Mono.just(body)
+                                : Mono.error(new RuntimeException("User nicht gefunden"))))
+                .map(body -> new WatchlistRow(body.getTitle(), body.getType(), body.getGenre(),
+                        body.isWatched(), body.getRating(), body.getPosterUrl(), body.getUserId()))
+                .flatMap(this::encode)
+                .flatMap(item -> {
+                    // Automatisch Cover suchen, falls noch keines vorhanden
+                    if (item.getPosterUrl() == null || item.getPosterUrl().isEmpty()) {
+                        return lookupPoster(item);
+                    }
+                    return Mono.just(item);
+                })
+                .flatMap(watchlistRepository::save)
+                .flatMap(saved -> statsWriter.recordChange(null, Snapshot.of(saved)).thenReturn(saved))
+                .doOnNext(saved -> {
+                    trendingTitles.record(saved.getTitle());
+                    recommendations.itemAdded(saved.getUserId(), saved.getTitle());
+                    // Der Such-Index hält Watchlist-Entities, nicht WatchlistRow - beim nächsten Suchen neu laden
+                    searchIndex.invalidate(saved.getUserId());
+                })
+                .flatMap(this::ok);
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        Long id = id(request);
+        return request.bodyToMono(WatchlistRequest.class)
+                .flatMap(body -> watchlistRepository.findByIdAndUserId(id, body.getUserId())
+                        .switchIfEmpty(Mono.error(() ->
+                                new RuntimeException("Watchlist item with id " + id + " not found or access denied")))
+                        .flatMap(existing -> {
+                            Snapshot before = Snapshot.of(existing);
+                            String oldTitle = existing.getTitle();
+                            String oldType = existing.getType();
+                            boolean watchedChanged = existing.isWatched() != body.isWatched();
+
+                            existing.setTitle(body.getTitle());
+                            existing.setType(body.getType());
+                            existing.setGenre(body.getGenre());
+                            existing.setWatched(body.isWatched());
+                            existing.setRating(body.getRating());
+
+                            // Vergleich erst nach dem Übersetzen, "movie" statt "Film" ist keine Änderung
+                            return encode(existing).flatMap(item -> {
+                                boolean titleChanged = !Objects.equals(oldTitle, item.getTitle());
+                                boolean typeChanged = !Objects.equals(oldType, item.getType());
+
+                                // Cover neu suchen, falls Titel oder Type geändert wurde
+                                Mono<WatchlistRow> prepared;
+                                if (titleChanged || typeChanged) {
+                                    prepared = lookupPoster(item);
+                                } else {
+                                    if (body.getPosterUrl() != null) {
+                                        item.setPosterUrl(body.getPosterUrl());
+                                    }
+                                    prepared = Mono.just(item);
+                                }
+                                return prepared
+                                        .flatMap(watchlistRepository::updateContent)
+                                        .flatMap(saved -> statsWriter.recordChange(before, Snapshot.of(saved)).thenReturn(saved))
+                                        .doOnNext(saved -> {
+                                            if (watchedChanged) {
+                                                trendingTitles.record(saved.getTitle());
+                                            }
+                                            if (titleChanged) {
+                                                recommendations.itemRemoved(saved.getUserId(), oldTitle);
+                                                recommendations.itemAdded(saved.getUserId(), saved.getTitle());
+                                            }
+                                            searchIndex.invalidate(saved.getUserId());
+                                        });
+                            });
+                        }))
+                .flatMap(this::ok);
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        Long id = id(request);
+        Long userId = userId(request);
+        // Alter Stand für die Statistik-Deltas; nur wer wirklich gelöscht hat, zieht ab
+        return watchlistRepository.findByIdAndUserId(id, userId)
+                .flatMap(existing -> watchlistRepository.deleteByIdAndUserId(id, userId)
+                        .flatMap(deleted -> deleted > 0
+                                ? statsWriter.recordChange(Snapshot.of(existing), null)
+                                        .doOnSuccess(done -> {
+                                            recommendations.itemRemoved(userId, existing.getTitle());
+                                            searchIndex.invalidate(userId);
+                                        })
+                                        // Tags liegen per JPA in der Datenbank - nicht auf dem Event-Loop
+                                        .then(Mono.fromRunnable(() -> tagIndex.itemDeleted(userId, id))
+                                                .subscribeOn(Schedulers.boundedElastic()))
+                                        .thenReturn(true)
+                                : Mono.just(false)))
+                .defaultIfEmpty(false)
+                .flatMap(this::ok);
+    }
+
+    public Mono<ServerResponse> refreshPoster(ServerRequest request) {
+        Long id = id(request);
+        return watchlistRepository.findByIdAndUserId(id, userId(request))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Watchlist item with id " + id + " not found")))
+                .flatMap(this::lookupPoster)
+                .doOnNext(item -> log.atInfo()
+                        .setMessage("Cover manuell aktualisiert")
+                        .addKeyValue("event", "watchlist.poster.refreshed")
+                        .addKeyValue("itemId", id)
+                        .addKeyValue("posterFound", item.getPosterUrl() != null)
+                        .log())
+                .flatMap(item -> watchlistRepository.updatePosterUrl(item.getId(), item.getPosterUrl()).thenReturn(item))
+                .flatMap(this::ok);
+    }
+
+    private Mono<WatchlistRow> lookupPoster(WatchlistRow item) {
+        return omdbService.fetchPosterUrlReactive(item.getTitle(), item.getType())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(posterUrl -> {
+                    item.setPosterUrl(posterUrl.orElse(null));
+                    metrics.recordPosterLookup(posterUrl.orElse(null));
+                    return item;
+                });
+    }
+
+    // Schreibweise des Wörterbuchs plus type_id/genre_mask als Filter-Index; unbekannte Types/Genres registriert
+    // das Wörterbuch per JDBC - daher nicht auf dem Event-Loop
+    private Mono<WatchlistRow> encode(WatchlistRow item) {
+        return Mono.fromCallable(() -> {
+                    item.setType(categories.canonicalType(item.getType()));
+                    item.setGenre(categories.canonicalGenres(item.getGenre()));
+                    item.setTypeId(categories.findTypeId(item.getType()));
+                    item.setGenreMask(categories.findGenreMask(item.getGenre()));
+                    return item;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<ServerResponse> ok(Object body) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+
+    private static Long id(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Ungültige id: " + request.pathVariable("id"));
+        }
+    }
+
+    private static Long userId(ServerRequest request) {
+        return request.queryParam("userId")
+                .map(Long::valueOf)
+                .orElseThrow(() -> new ServerWebInputException("Parameter userId fehlt"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package de.htwberlin.webtech.webtech;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${omdb.concurrency.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${omdb.concurrency.min-limit:2}")
+    private int minLimit;
+
+    @Value("${omdb.concurrency.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${omdb.concurrency.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${omdb.concurrency.window-size:100}")
+    private int windowSize;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter omdbConcurrencyLimiter() {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTolerance, windowSize);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // POST /Watchlist, PUT /Watchlist/{id}, POST /Watchlist/{id}/refresh-poster; das Batch-Update
+        // belegt pro OMDb-Abfrage einen eigenen Platz (WatchlistService.refreshAllMissingPosters)
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(omdbConcurrencyLimiter()))
+                .addPathPatterns("/Watchlist", "/Watchlist/*", "/Watchlist/*/refresh-poster")
+                .excludePathPatterns("/Watchlist/refresh-all-posters");
+
+        // JFR-Events für WatchlistController und AuthController
+        registry.addInterceptor(new RequestEventInterceptor())
+                .addPathPatterns("/Watchlist", "/Watchlist/**", "/auth/**");
+    }
+}
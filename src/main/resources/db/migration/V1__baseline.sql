@@ -0,0 +1,24 @@
+-- Ausgangsschema, wie es bisher per ddl-auto=update von Hibernate erzeugt wurde.
+-- Bestehende Datenbanken werden per baseline-on-migrate auf Version 1 gesetzt, V1 läuft dort nicht.
+
+CREATE TABLE app_user (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username    VARCHAR(255) NOT NULL UNIQUE,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    last_login  TIMESTAMP(6)
+);
+
+CREATE TABLE watchlist (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       VARCHAR(255),
+    type        VARCHAR(255),
+    genre       VARCHAR(255),
+    watched     BOOLEAN NOT NULL,
+    rating      INTEGER NOT NULL,
+    poster_url  VARCHAR(500),
+    user_id     BIGINT NOT NULL REFERENCES app_user (id)
+);
\ No newline at end of file
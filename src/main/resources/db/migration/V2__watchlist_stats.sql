@@ -0,0 +1,38 @@
+-- Vorberechnete Statistik pro User für GET /Watchlist/stats (inkrementell gepflegt von WatchlistStatsService)
+
+CREATE TABLE watchlist_stats (
+    user_id        BIGINT PRIMARY KEY REFERENCES app_user (id) ON DELETE CASCADE,
+    total_count    BIGINT NOT NULL,
+    watched_count  BIGINT NOT NULL,
+    rated_count    BIGINT NOT NULL,
+    rating_sum     BIGINT NOT NULL
+);
+
+CREATE TABLE watchlist_genre_stats (
+    user_id     BIGINT NOT NULL REFERENCES app_user (id) ON DELETE CASCADE,
+    genre       VARCHAR(255) NOT NULL,
+    item_count  BIGINT NOT NULL,
+    PRIMARY KEY (user_id, genre)
+);
+
+-- Bestand einmalig aufbauen; danach nur noch Deltas
+INSERT INTO watchlist_stats (user_id, total_count, watched_count, rated_count, rating_sum)
+SELECT user_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE watched),
+       COUNT(*) FILTER (WHERE rating > 0),
+       COALESCE(SUM(rating) FILTER (WHERE rating > 0), 0)
+FROM watchlist
+GROUP BY user_id;
+
+-- Genres sind kommagetrennt; pro Eintrag zählt jedes Genre einmal (wie WatchlistStatsService.splitGenres)
+INSERT INTO watchlist_genre_stats (user_id, genre, item_count)
+SELECT user_id, genre, COUNT(*)
+FROM (
+    SELECT DISTINCT w.id, w.user_id, TRIM(part) AS genre
+    FROM watchlist w
+    CROSS JOIN LATERAL unnest(string_to_array(w.genre, ',')) AS part
+    WHERE w.genre IS NOT NULL
+) genres
+WHERE genre <> ''
+GROUP BY user_id, genre;
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- Checkpoints des Trending-Sketches (TrendingTitles), eine Zeile pro Knoten
+
+CREATE TABLE trending_checkpoint (
+    node_id     VARCHAR(255) PRIMARY KEY,
+    state       BYTEA NOT NULL,
+    updated_at  TIMESTAMP NOT NULL
+);
\ No newline at end of file
@@ -0,0 +1,90 @@
+-- Type und Genre der Einträge als Wörterbuch (CategoryDictionary): watchlist.type_id verweist auf watchlist_type,
+-- watchlist.genre_mask hat ein Bit pro Genre aus watchlist_genre. Filter nach Type/Genre werden so zu
+-- Integer- bzw. Bit-Vergleichen über den Index (user_id, type_id).
+-- Die Spalten type und genre bleiben die Quelle der Daten; type_id und genre_mask sind nur Filter-Indizes und
+-- lassen sich jederzeit aus ihnen neu berechnen. Die Zeilen werden dadurch um 10 Byte größer, nicht kleiner:
+-- der Text bleibt, weil Genres über 63 hinaus kein Bit bekommen und sonst verloren gingen.
+
+CREATE TABLE watchlist_type (
+    id    SMALLINT PRIMARY KEY,
+    name  VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE watchlist_type_alias (
+    alias    VARCHAR(255) PRIMARY KEY,
+    type_id  SMALLINT NOT NULL REFERENCES watchlist_type (id)
+);
+
+CREATE TABLE watchlist_genre (
+    bit_index   SMALLINT PRIMARY KEY CHECK (bit_index BETWEEN 0 AND 62),
+    name        VARCHAR(255) NOT NULL,
+    lookup_key  VARCHAR(255) NOT NULL UNIQUE
+);
+
+-- Wie TitleNormalizer.normalize: ohne Akzente, klein, Satzzeichen als ein Leerzeichen
+CREATE FUNCTION pg_temp.category_key(value TEXT) RETURNS TEXT AS $$
+    SELECT trim(regexp_replace(lower(regexp_replace(normalize(value, NFD), '[\u0300-\u036f]+', '', 'g')),
+                               '[^[:alnum:]]+', ' ', 'g'))
+$$ LANGUAGE SQL IMMUTABLE;
+
+-- Standard-Types mit den Aliasen aus OMDbService.mapToOMDbType
+INSERT INTO watchlist_type (id, name) VALUES (1, 'Film'), (2, 'Serie'), (3, 'Dokumentation'), (4, 'Anime');
+INSERT INTO watchlist_type_alias (alias, type_id) VALUES
+    ('film', 1), ('movie', 1),
+    ('serie', 2), ('series', 2), ('tv', 2),
+    ('dokumentation', 3), ('documentary', 3),
+    ('anime', 4);
+
+-- Weitere Types aus den bestehenden Einträgen; die älteste Schreibweise wird zum Namen
+INSERT INTO watchlist_type (id, name)
+SELECT 4 + ROW_NUMBER() OVER (ORDER BY key), name
+FROM (
+    SELECT DISTINCT ON (key) key, name
+    FROM (SELECT id, pg_temp.category_key(type) AS key, trim(type) AS name FROM watchlist) types
+    WHERE key <> '' AND key NOT IN (SELECT alias FROM watchlist_type_alias)
+    ORDER BY key, id
+) new_types;
+
+INSERT INTO watchlist_type_alias (alias, type_id)
+SELECT pg_temp.category_key(name), id FROM watchlist_type WHERE id > 4;
+
+-- Genres nach Häufigkeit auf die Bits verteilen; mehr als 63 passen nicht in die Maske. Seltenere Genres
+-- bleiben ohne Bit nur in watchlist.genre und werden beim Filtern über den Text gefunden
+WITH parts AS (
+    SELECT w.id, trim(part) AS name, pg_temp.category_key(part) AS key
+    FROM watchlist w
+    CROSS JOIN LATERAL unnest(string_to_array(w.genre, ',')) AS part
+    WHERE w.genre IS NOT NULL
+), genres AS (
+    SELECT DISTINCT ON (key) key, name, COUNT(*) OVER (PARTITION BY key) AS uses
+    FROM parts
+    WHERE key <> ''
+    ORDER BY key, id
+)
+INSERT INTO watchlist_genre (bit_index, name, lookup_key)
+SELECT ROW_NUMBER() OVER (ORDER BY uses DESC, key) - 1, name, key
+FROM genres
+ORDER BY uses DESC, key
+LIMIT 63;
+
+ALTER TABLE watchlist ADD COLUMN type_id SMALLINT REFERENCES watchlist_type (id);
+ALTER TABLE watchlist ADD COLUMN genre_mask BIGINT NOT NULL DEFAULT 0;
+
+UPDATE watchlist w
+SET type_id = a.type_id
+FROM watchlist_type_alias a
+WHERE a.alias = pg_temp.category_key(w.type);
+
+UPDATE watchlist w
+SET genre_mask = masks.mask
+FROM (
+    SELECT src.id, bit_or(1::bigint << g.bit_index) AS mask
+    FROM watchlist src
+    CROSS JOIN LATERAL unnest(string_to_array(src.genre, ',')) AS part
+    JOIN watchlist_genre g ON g.lookup_key = pg_temp.category_key(part)
+    GROUP BY src.id
+) masks
+WHERE masks.id = w.id;
+
+-- Ersetzt auch den fehlenden Index auf user_id allein
+CREATE INDEX idx_watchlist_user_type ON watchlist (user_id, type_id);
\ No newline at end of file
@@ -0,0 +1,9 @@
+-- Tags der Watchlist-Einträge: pro User und Tag die IDs der Einträge als komprimierte Bitmap (CompressedBitmap)
+
+CREATE TABLE watchlist_tag (
+    user_id   BIGINT NOT NULL REFERENCES app_user (id) ON DELETE CASCADE,
+    tag       VARCHAR(50) NOT NULL,
+    item_ids  BYTEA NOT NULL,
+    version   BIGINT NOT NULL,
+    PRIMARY KEY (user_id, tag)
+);
\ No newline at end of file
@@ -0,0 +1,20 @@
+-- Manuelle Reihenfolge der Einträge (Drag-and-Drop): Rang-Schlüssel aus RankKeys, byteweise verglichen
+
+ALTER TABLE watchlist ADD COLUMN sort_key VARCHAR(255) COLLATE "C";
+
+-- Bestand in der bisherigen Reihenfolge (nach ID): 'd' + vier Base62-Ziffern = Ganzzahl-Schlüssel 1, 2, ...
+-- pro User; alle später per Zeitstempel vergebenen Schlüssel ('g...') sortieren danach
+UPDATE watchlist w
+SET sort_key = 'd'
+    || substr(d.digits, ((r.rn / 238328) % 62)::int + 1, 1)
+    || substr(d.digits, ((r.rn / 3844) % 62)::int + 1, 1)
+    || substr(d.digits, ((r.rn / 62) % 62)::int + 1, 1)
+    || substr(d.digits, (r.rn % 62)::int + 1, 1)
+FROM (SELECT id, row_number() OVER (PARTITION BY user_id ORDER BY id) AS rn FROM watchlist) r,
+     (SELECT '0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz'::text AS digits) d
+WHERE w.id = r.id;
+
+ALTER TABLE watchlist ALTER COLUMN sort_key SET NOT NULL;
+
+-- Seitenweises Lesen in Reihenfolge (Keyset über sort_key, id) und Nachbarn beim Verschieben
+CREATE INDEX idx_watchlist_user_sort_key ON watchlist (user_id, sort_key, id);
\ No newline at end of file
@@ -0,0 +1,18 @@
+-- Antworten auf Requests mit Idempotency-Key (IdempotencyStore); status NULL = erster Request läuft noch,
+-- heartbeat_at wird dann vom ausführenden Knoten regelmäßig erneuert
+
+CREATE TABLE idempotency_record (
+    idempotency_key  VARCHAR(255) NOT NULL,
+    endpoint         VARCHAR(255) NOT NULL,
+    fingerprint      VARCHAR(64) NOT NULL,
+    status           INTEGER,
+    content_type     VARCHAR(255),
+    headers          VARCHAR(4096),
+    body             BYTEA,
+    created_at       TIMESTAMP NOT NULL,
+    heartbeat_at     TIMESTAMP NOT NULL,
+    expires_at       TIMESTAMP NOT NULL,
+    PRIMARY KEY (idempotency_key, endpoint)
+);
+
+CREATE INDEX idx_idempotency_record_expires_at ON idempotency_record (expires_at);
\ No newline at end of file
@@ -0,0 +1,126 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 200_000_000L;  // 200 ms
+    private static final long SLOW = 5_000_000_000L; // 5 s
+
+    @Test
+    void testRejectsAboveLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 100);
+
+        // Act & Assert
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void testGrowsWhileLatencyStable() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 100, 2.0, 100);
+
+        // Act - voll ausgelastet bei gleichbleibender Latenz
+        for (int i = 0; i < 10; i++) {
+            int inFlight = limiter.tryAcquire();
+            limiter.release(limiter.getLimit(), FAST, true);
+            assertTrue(inFlight > 0);
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() > 4);
+    }
+
+    @Test
+    void testShrinksWhenLatencyRises() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 2.0, 100);
+        limiter.tryAcquire();
+        limiter.release(1, FAST, true);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(1, SLOW, true);
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() < 20);
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void testAdaptsToNewBaselineAfterWindow() {
+        // Arrange - Fenster von 5 Messungen
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 2.0, 5);
+        limiter.tryAcquire();
+        limiter.release(1, FAST, true);
+
+        // Act - dauerhaft langsam: nach dem Fenster gilt die neue Latenz als Referenz
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(limiter.getLimit(), SLOW, true);
+        }
+        int limitAfterAdapting = limiter.getLimit();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(limiter.getLimit(), SLOW, true);
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() > limitAfterAdapting);
+    }
+
+    @Test
+    void testSingleOutlier_DoesNotShrink() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 2.0, 100);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(1, FAST, true);
+        }
+
+        // Act - eine Messung über der Toleranz, die geglättete Latenz bleibt darunter
+        limiter.tryAcquire();
+        limiter.release(1, 3 * FAST, true);
+
+        // Assert
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void testReleaseWithoutSample_KeepsLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 2.0, 100);
+        limiter.tryAcquire();
+
+        // Act
+        limiter.release();
+
+        // Assert
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testErrorsShrinkLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 2.0, 100);
+
+        // Act
+        limiter.tryAcquire();
+        limiter.release(1, FAST, false);
+
+        // Assert
+        assertEquals(9, limiter.getLimit());
+    }
+}
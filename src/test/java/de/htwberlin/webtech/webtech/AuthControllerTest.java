@@ -9,6 +9,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -21,6 +22,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(AuthController.class)
 @ActiveProfiles("test")
+@DisabledInAotMode
 class AuthControllerTest {
 
     @Autowired
@@ -29,6 +31,10 @@ class AuthControllerTest {
     @MockitoBean // Neue Annotation statt @MockBean
     private UserService userService;
 
+    // Für IdempotencyFilter, den @WebMvcTest mitlädt
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -106,4 +112,29 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Ungültige Anmeldedaten!"));
     }
+
+    @Test
+    void testCheckAvailability() throws Exception {
+        // Arrange
+        when(userService.isUsernameAvailable("testuser")).thenReturn(false);
+        when(userService.isEmailAvailable("new@example.com")).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(get("/auth/available")
+                        .param("username", "testuser")
+                        .param("email", "new@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false))
+                .andExpect(jsonPath("$.emailAvailable").value(true));
+    }
+
+    @Test
+    void testCheckAvailability_MissingParameters() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/auth/available"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        verify(userService, never()).isUsernameAvailable(anyString());
+    }
 }
\ No newline at end of file
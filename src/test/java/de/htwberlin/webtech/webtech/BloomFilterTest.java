@@ -0,0 +1,59 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_NoFalseNegatives() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            filter.put("user" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+        assertEquals(1000, filter.insertions());
+    }
+
+    @Test
+    void testFalsePositiveRate_CloseToConfigured() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Assert - großzügige Grenze, damit der Test nicht flackert
+        assertTrue(falsePositives < 300, "Zu viele False Positives: " + falsePositives);
+        assertTrue(filter.estimatedFalsePositiveRate() < 0.03);
+        assertTrue(filter.memoryBytes() > 0);
+    }
+
+    @Test
+    void testEmptyFilter_ContainsNothing() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+
+        // Act & Assert
+        assertFalse(filter.mightContain("testuser"));
+        assertEquals(0.0, filter.estimatedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,112 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(CategoryDictionary.class)
+class CategoryDictionaryTest {
+
+    @Autowired
+    private CategoryDictionary categories;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testTypeAliases() {
+        // Act & Assert
+        assertEquals(categories.typeId("Film"), categories.typeId("movie"));
+        assertEquals(categories.typeId("Serie"), categories.typeId(" TV "));
+        assertEquals("Film", categories.canonicalType("MOVIE"));
+        assertEquals("Serie", categories.canonicalType("series"));
+        assertEquals("Dokumentation", categories.canonicalType("documentary"));
+        assertNull(categories.typeId("  "));
+    }
+
+    @Test
+    void testUnknownTypeIsRegistered() {
+        // Arrange
+        assertNull(categories.findTypeId("Kurzfilm"));
+
+        // Act
+        Short id = categories.typeId("Kurzfilm");
+
+        // Assert
+        assertNotNull(id);
+        assertEquals(id, categories.findTypeId("kurzfilm"));
+        assertEquals("Kurzfilm", categories.typeName(id));
+    }
+
+    @Test
+    void testGenreMask_RoundTrip() {
+        // Act
+        long mask = categories.genreMask("Neo-Noir, Mockumentary, neo noir");
+
+        // Assert
+        assertEquals(2, Long.bitCount(mask));
+        assertEquals(List.of("Mockumentary", "Neo-Noir"), categories.genreList(mask).stream().sorted().toList());
+        assertEquals(mask, categories.findGenreMask("MOCKUMENTARY, Neo-Noir"));
+        assertEquals("Neo-Noir", categories.canonicalGenres("neo noir"));
+        assertNull(categories.genreNames(0));
+    }
+
+    @Test
+    void testFindGenreMask_DoesNotRegister() {
+        // Act
+        long mask = categories.findGenreMask("Space-Western");
+
+        // Assert
+        assertEquals(0, mask);
+        assertEquals(0, categories.findGenreMask("Space-Western"));
+    }
+
+    @Test
+    void testOtherNodeSeesSameIds() {
+        // Arrange
+        Short type = categories.typeId("Webserie");
+        long genre = categories.genreMask("Cyberpunk");
+
+        // Act - zweite Instanz wie ein weiterer Knoten auf derselben Datenbank
+        CategoryDictionary otherNode = new CategoryDictionary(dataSource);
+
+        // Assert
+        assertEquals(type, otherNode.findTypeId("Webserie"));
+        assertEquals(genre, otherNode.findGenreMask("cyberpunk"));
+        assertEquals("Cyberpunk", otherNode.genreNames(genre));
+    }
+
+    @Test
+    void testRegistrationOnOtherNode_IsReloadedOnMiss() {
+        // Arrange - beide Knoten haben das Wörterbuch schon geladen
+        CategoryDictionary otherNode = new CategoryDictionary(dataSource);
+        otherNode.preload();
+        categories.preload();
+
+        // Act
+        Short type = otherNode.typeId("Miniserie");
+        long genre = otherNode.genreMask("Solarpunk");
+
+        // Assert
+        assertEquals("Miniserie", categories.typeName(type));
+        assertEquals(genre, categories.findGenreMask("solarpunk"));
+        assertEquals("Solarpunk", categories.genreNames(genre));
+    }
+
+    @Test
+    void testCanonicalGenres_KeepsSpelling() {
+        // Act & Assert
+        assertEquals("Heist", categories.canonicalGenres(" Heist , heist"));
+        assertTrue(categories.unindexedGenres("Heist").isEmpty());
+        assertEquals("Kurzfilm", categories.canonicalType(" Kurzfilm "));
+    }
+}
\ No newline at end of file
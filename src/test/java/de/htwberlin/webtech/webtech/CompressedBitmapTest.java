@@ -0,0 +1,118 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class CompressedBitmapTest {
+
+    @Test
+    void testAddRemoveContains() {
+        // Arrange
+        CompressedBitmap bitmap = CompressedBitmap.of(3, 70_000, 5_000_000_000L);
+
+        // Act
+        boolean addedAgain = bitmap.add(3);
+        boolean removed = bitmap.remove(70_000);
+        boolean removedMissing = bitmap.remove(70_001);
+
+        // Assert
+        assertFalse(addedAgain);
+        assertTrue(removed);
+        assertFalse(removedMissing);
+        assertTrue(bitmap.contains(3));
+        assertFalse(bitmap.contains(70_000));
+        assertArrayEquals(new long[]{3, 5_000_000_000L}, bitmap.toArray());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    void testDenseBlock_SwitchesToBitmapAndBack() {
+        // Arrange - mehr als 4096 Werte in einem Block
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long i = 0; i < 10_000; i++) {
+            bitmap.add(i * 2);
+        }
+        int denseBytes = bitmap.toBytes().length;
+
+        // Act
+        for (long i = 100; i < 10_000; i++) {
+            bitmap.remove(i * 2);
+        }
+
+        // Assert
+        assertTrue(denseBytes < 10_000 * 2, "Bitmap-Block sollte kleiner als das Array sein");
+        assertEquals(100, bitmap.cardinality());
+        assertTrue(bitmap.toBytes().length < 300);
+        assertTrue(bitmap.contains(198));
+        assertFalse(bitmap.contains(200));
+    }
+
+    @Test
+    void testSetOperations_MatchTreeSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 60; round++) {
+            // Arrange - abwechselnd dünne und dichte Blöcke
+            int range = round % 3 == 0 ? 70_000 : round % 3 == 1 ? 300_000 : 20_000_000;
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            TreeSet<Long> expectedA = new TreeSet<>();
+            TreeSet<Long> expectedB = new TreeSet<>();
+            int count = random.nextInt(12_000);
+            for (int i = 0; i < count; i++) {
+                long value = random.nextInt(range);
+                a.add(value);
+                expectedA.add(value);
+                long other = random.nextInt(range);
+                b.add(other);
+                expectedB.add(other);
+            }
+
+            // Act & Assert
+            TreeSet<Long> and = new TreeSet<>(expectedA);
+            and.retainAll(expectedB);
+            assertMatches(and, a.and(b));
+
+            TreeSet<Long> or = new TreeSet<>(expectedA);
+            or.addAll(expectedB);
+            assertMatches(or, a.or(b));
+
+            TreeSet<Long> andNot = new TreeSet<>(expectedA);
+            andNot.removeAll(expectedB);
+            assertMatches(andNot, a.andNot(b));
+
+            // Operanden bleiben unverändert
+            assertMatches(expectedA, a);
+            assertMatches(expectedB, b);
+        }
+    }
+
+    @Test
+    void testBytes_RoundTrip() {
+        // Arrange
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long i = 0; i < 5_000; i++) {
+            bitmap.add(i);
+            bitmap.add(1_000_000 + i * 17);
+        }
+
+        // Act
+        CompressedBitmap restored = CompressedBitmap.fromBytes(bitmap.toBytes());
+
+        // Assert
+        assertEquals(bitmap, restored);
+        assertEquals(10_000, restored.cardinality());
+        assertTrue(CompressedBitmap.fromBytes(new CompressedBitmap().toBytes()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.fromBytes(new byte[]{9}));
+    }
+
+    private static void assertMatches(TreeSet<Long> expected, CompressedBitmap actual) {
+        assertEquals(expected.size(), actual.cardinality());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), actual.toArray());
+    }
+}
\ No newline at end of file
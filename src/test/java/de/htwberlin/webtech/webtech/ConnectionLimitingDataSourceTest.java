@@ -0,0 +1,71 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class ConnectionLimitingDataSourceTest {
+
+    private final DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:limit;DB_CLOSE_DELAY=-1", "sa", "");
+
+    @Test
+    void testGetConnection_TimesOutWhenNoPermitLeft() throws Exception {
+        // Arrange
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(h2, 1, 50, 10);
+
+        // Act
+        try (Connection first = dataSource.getConnection()) {
+
+            // Assert
+            assertTrue(first.isValid(1));
+            assertEquals(0, dataSource.availablePermits());
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    void testClose_ReleasesPermitOnlyOnce() throws Exception {
+        // Arrange
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(h2, 2, 50, 10);
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    void testGetConnection_RejectsWhenTooManyWaiting() throws Exception {
+        // Arrange
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(h2, 1, 5_000, 1);
+        Connection held = dataSource.getConnection();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try (Connection ignored = dataSource.getConnection()) {
+                // wartet, bis held geschlossen wird
+            } catch (Exception ignored) {
+            }
+        });
+        while (dataSource.waitingCount() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act + Assert
+        long start = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+
+        held.close();
+        waiter.join();
+        assertEquals(1, dataSource.availablePermits());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class DecayingCountMinSketchTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    void testEstimate_NeverBelowTrueCount() {
+        // Arrange
+        DecayingCountMinSketch sketch = new DecayingCountMinSketch(256, 4, 24 * HOUR, 0);
+
+        // Act - viel Rauschen, ein häufiger Titel
+        for (int i = 0; i < 5000; i++) {
+            sketch.add("title " + i, 0);
+        }
+        for (int i = 0; i < 300; i++) {
+            sketch.add("inception", 0);
+        }
+
+        // Assert
+        double estimate = sketch.estimate("inception", 0);
+        assertTrue(estimate >= 300 - 1e-9);
+        // Fehlergrenze e/width * N mit großzügigem Puffer
+        assertTrue(estimate < 300 + 2 * Math.E / 256 * 5300, "Schätzung zu hoch: " + estimate);
+    }
+
+    @Test
+    void testEstimate_HalvesAfterHalfLife() {
+        // Arrange
+        DecayingCountMinSketch sketch = new DecayingCountMinSketch(1024, 4, 24 * HOUR, 0);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("inception", 0);
+        }
+
+        // Act
+        double afterOneHalfLife = sketch.estimate("inception", 24 * HOUR);
+        double afterTwoHalfLives = sketch.estimate("inception", 48 * HOUR);
+
+        // Assert
+        assertEquals(50.0, afterOneHalfLife, 1e-6);
+        assertEquals(25.0, afterTwoHalfLives, 1e-6);
+    }
+
+    @Test
+    void testRescale_KeepsEstimates() {
+        // Arrange
+        DecayingCountMinSketch sketch = new DecayingCountMinSketch(1024, 4, 24 * HOUR, 0);
+        sketch.add("inception", 0);
+        sketch.add("inception", 12 * HOUR);
+        double before = sketch.estimate("inception", 30 * HOUR);
+
+        // Act
+        sketch.rescale(30 * HOUR);
+
+        // Assert
+        assertEquals(before, sketch.estimate("inception", 30 * HOUR), 1e-9);
+        assertEquals(30 * HOUR, sketch.landmark());
+    }
+
+    @Test
+    void testMerge_EqualsSingleSketchOverAllEvents() {
+        // Arrange - zwei Knoten mit unterschiedlichem Landmark
+        DecayingCountMinSketch nodeA = new DecayingCountMinSketch(512, 4, 24 * HOUR, 0);
+        DecayingCountMinSketch nodeB = new DecayingCountMinSketch(512, 4, 24 * HOUR, 6 * HOUR);
+        DecayingCountMinSketch combined = new DecayingCountMinSketch(512, 4, 24 * HOUR, 0);
+        for (int i = 0; i < 50; i++) {
+            nodeA.add("inception", 2 * HOUR);
+            combined.add("inception", 2 * HOUR);
+            nodeB.add("inception", 8 * HOUR);
+            combined.add("inception", 8 * HOUR);
+            nodeB.add("matrix", 8 * HOUR);
+            combined.add("matrix", 8 * HOUR);
+        }
+
+        // Act
+        nodeA.merge(nodeB);
+
+        // Assert
+        assertEquals(combined.estimate("inception", 10 * HOUR), nodeA.estimate("inception", 10 * HOUR), 1e-6);
+        assertEquals(combined.estimate("matrix", 10 * HOUR), nodeA.estimate("matrix", 10 * HOUR), 1e-6);
+    }
+
+    @Test
+    void testMerge_IncompatibleSketch_Throws() {
+        // Arrange
+        DecayingCountMinSketch narrow = new DecayingCountMinSketch(256, 4, 24 * HOUR, 0);
+        DecayingCountMinSketch wide = new DecayingCountMinSketch(512, 4, 24 * HOUR, 0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> narrow.merge(wide));
+    }
+
+    @Test
+    void testToBytes_RoundTrip() {
+        // Arrange
+        DecayingCountMinSketch sketch = new DecayingCountMinSketch(128, 3, 24 * HOUR, 5 * HOUR);
+        sketch.add("inception", 6 * HOUR);
+        sketch.add("matrix", 7 * HOUR);
+
+        // Act
+        DecayingCountMinSketch restored = DecayingCountMinSketch.fromBytes(sketch.toBytes());
+
+        // Assert
+        assertTrue(restored.isCompatible(sketch));
+        assertEquals(sketch.landmark(), restored.landmark());
+        assertEquals(sketch.estimate("inception", 8 * HOUR), restored.estimate("inception", 8 * HOUR), 1e-12);
+        assertEquals(sketch.estimate("matrix", 8 * HOUR), restored.estimate("matrix", 8 * HOUR), 1e-12);
+    }
+}
\ No newline at end of file
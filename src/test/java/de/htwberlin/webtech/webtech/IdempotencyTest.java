@@ -0,0 +1,268 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "ratelimit.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisabledInAotMode
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private OMDbService omdbService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        when(omdbService.fetchPosterUrl(anyString(), anyString())).thenReturn("http://example.com/poster.jpg");
+
+        String suffix = Long.toString(System.nanoTime(), 36);
+        user = userService.registerUser("idem-" + suffix, "idem-" + suffix + "@test.com", "password", "Idem", "Potent");
+    }
+
+    private MockHttpServletRequestBuilder create(String key, String title) {
+        return post("/Watchlist")
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"type\":\"Film\",\"genre\":\"Action\",\"userId\":" + user.getId() + "}");
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    void testRetryWithSameKey_ReplaysFirstResponse() throws Exception {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+
+        // Act
+        MockHttpServletResponse first = perform(create(key, "Dune"));
+        MockHttpServletResponse retry = perform(create(key, "Dune"));
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(200, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals(1, watchlistRepository.findByUserId(user.getId()).size());
+        verify(omdbService, times(1)).fetchPosterUrl(anyString(), anyString());
+        assertTrue(recordRepository.findById(new IdempotencyRecord.Key(key, "/Watchlist")).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void testWithoutKey_EveryRequestExecutes() throws Exception {
+        // Act
+        mockMvc.perform(post("/Watchlist").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Dune\",\"type\":\"Film\",\"userId\":" + user.getId() + "}"));
+        mockMvc.perform(post("/Watchlist").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Dune\",\"type\":\"Film\",\"userId\":" + user.getId() + "}"));
+
+        // Assert
+        assertEquals(2, watchlistRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testSameKeyDifferentBody_Returns422() throws Exception {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+        perform(create(key, "Dune"));
+
+        // Act
+        MockHttpServletResponse response = perform(create(key, "Alien"));
+
+        // Assert
+        assertEquals(422, response.getStatus());
+        assertEquals(1, watchlistRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testBlankKey_Returns400() throws Exception {
+        // Act
+        MockHttpServletResponse response = perform(create(" ", "Dune"));
+
+        // Assert
+        assertEquals(400, response.getStatus());
+        assertTrue(watchlistRepository.findByUserId(user.getId()).isEmpty());
+    }
+
+    @Test
+    void testConcurrentDuplicates_WaitForFirstRequest() throws Exception {
+        // Arrange - langsame OMDb-Abfrage, alle Duplikate kommen während des ersten Requests an
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        when(omdbService.fetchPosterUrl(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(300);
+            return "http://example.com/poster.jpg";
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        try {
+            // Act
+            Future<MockHttpServletResponse> first = executor.submit(() -> perform(create(key, "Dune")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<MockHttpServletResponse>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                duplicates.add(executor.submit(() -> perform(create(key, "Dune"))));
+            }
+
+            // Assert
+            String body = first.get().getContentAsString();
+            for (Future<MockHttpServletResponse> duplicate : duplicates) {
+                assertEquals(200, duplicate.get().getStatus());
+                assertEquals(body, duplicate.get().getContentAsString());
+                assertEquals("true", duplicate.get().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+            }
+            assertEquals(1, watchlistRepository.findByUserId(user.getId()).size());
+            verify(omdbService, times(1)).fetchPosterUrl(anyString(), anyString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedRequest_ReleasesKey() throws Exception {
+        // Arrange - unbekannter User: der Controller wirft, die Reservierung muss wieder frei werden
+        String key = UUID.randomUUID().toString();
+        MockHttpServletRequestBuilder unknownUser = post("/Watchlist")
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Dune\",\"type\":\"Film\",\"userId\":-1}");
+
+        // Act
+        assertThrows(Exception.class, () -> mockMvc.perform(unknownUser));
+
+        // Assert
+        assertTrue(recordRepository.findById(new IdempotencyRecord.Key(key, "/Watchlist")).isEmpty());
+    }
+
+    @Test
+    void testOtherNode_WaitsForStoredResponse() throws Exception {
+        // Arrange - zwei Stores auf derselben Datenbank stehen für zwei Knoten
+        IdempotencyStore nodeA = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 5000, 60);
+        IdempotencyStore nodeB = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 5000, 60);
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore.Reservation first = nodeA.begin("/Watchlist/refresh-all-posters", key, "fp");
+        assertEquals(IdempotencyStore.Reservation.State.EXECUTE, first.getState());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            Future<IdempotencyStore.Reservation> duplicate =
+                    executor.submit(() -> nodeB.begin("/Watchlist/refresh-all-posters", key, "fp"));
+            Thread.sleep(250);
+            assertFalse(duplicate.isDone());
+            nodeA.complete(first, new IdempotencyStore.StoredResponse(200, "text/plain",
+                    "gestartet".getBytes(StandardCharsets.UTF_8)));
+
+            // Assert
+            IdempotencyStore.Reservation replay = duplicate.get();
+            assertEquals(IdempotencyStore.Reservation.State.REPLAY, replay.getState());
+            assertEquals("gestartet", new String(replay.getResponse().getBody(), StandardCharsets.UTF_8));
+            assertEquals(IdempotencyStore.Reservation.State.MISMATCH,
+                    nodeB.begin("/Watchlist/refresh-all-posters", key, "other").getState());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAbandonedReservation_IsTakenOver() throws Exception {
+        // Arrange - Knoten A ist abgestürzt, seine Reservierung gilt sofort als verwaist
+        IdempotencyStore nodeA = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 5000, 0);
+        IdempotencyStore nodeB = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 5000, 0);
+        String key = UUID.randomUUID().toString();
+        nodeA.begin("/Watchlist", key, "fp");
+        Thread.sleep(5);
+
+        // Act
+        IdempotencyStore.Reservation takeover = nodeB.begin("/Watchlist", key, "fp");
+
+        // Assert
+        assertEquals(IdempotencyStore.Reservation.State.EXECUTE, takeover.getState());
+    }
+
+    @Test
+    void testHeartbeat_KeepsSlowRequestFromBeingTakenOver() throws Exception {
+        // Arrange - Reservierungen ohne Heartbeat gelten nach 1 s als verwaist
+        IdempotencyStore nodeA = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 100, 1);
+        IdempotencyStore nodeB = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 100, 1);
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore.Reservation first = nodeA.begin("/Watchlist/refresh-all-posters", key, "fp");
+        Thread.sleep(700);
+        nodeA.heartbeat();
+        Thread.sleep(700);
+
+        // Act
+        IdempotencyStore.Reservation duplicate = nodeB.begin("/Watchlist/refresh-all-posters", key, "fp");
+
+        // Assert
+        assertEquals(IdempotencyStore.Reservation.State.EXECUTE, first.getState());
+        assertEquals(IdempotencyStore.Reservation.State.BUSY, duplicate.getState());
+    }
+
+    @Test
+    void testReplayOnOtherNode_KeepsHeaders() {
+        // Arrange
+        IdempotencyStore nodeA = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 5000, 60);
+        IdempotencyStore nodeB = new IdempotencyStore(recordRepository, jdbcTemplate, 100, 3600, 5000, 60);
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore.Reservation first = nodeA.begin("/Watchlist", key, "fp");
+        nodeA.complete(first, new IdempotencyStore.StoredResponse(201, "application/json",
+                Map.of("Location", List.of("/Watchlist/42")), "{}".getBytes(StandardCharsets.UTF_8)));
+
+        // Act
+        IdempotencyStore.Reservation replay = nodeB.begin("/Watchlist", key, "fp");
+
+        // Assert
+        assertEquals(IdempotencyStore.Reservation.State.REPLAY, replay.getState());
+        assertEquals(201, replay.getResponse().getStatus());
+        assertEquals(List.of("/Watchlist/42"), replay.getResponse().getHeaders().get("Location"));
+    }
+}
\ No newline at end of file
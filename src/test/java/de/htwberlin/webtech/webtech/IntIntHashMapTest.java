@@ -0,0 +1,92 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class IntIntHashMapTest {
+
+    @Test
+    void testAddTo_SumsAndRemovesAtZero() {
+        // Arrange
+        IntIntHashMap map = new IntIntHashMap();
+
+        // Act
+        map.addTo(7, 2);
+        map.addTo(7, 3);
+        map.addTo(9, 1);
+        int afterRemove = map.addTo(9, -1);
+
+        // Assert
+        assertEquals(5, map.get(7));
+        assertEquals(0, afterRemove);
+        assertEquals(0, map.get(9));
+        assertEquals(1, map.size());
+        assertArrayEquals(new int[]{7}, map.keys());
+    }
+
+    @Test
+    void testRandomOperations_MatchHashMap() {
+        // Arrange - viele Kollisionen und Löschungen, damit das Zurückschieben beim Entfernen greift
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2000);
+            int delta = random.nextInt(3) - 1;
+            map.addTo(key, delta);
+            expected.merge(key, delta, Integer::sum);
+            expected.remove(key, 0);
+            if (random.nextInt(20) == 0) {
+                int removed = random.nextInt(2000);
+                map.remove(removed);
+                expected.remove(removed);
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value.intValue(), map.get(key)));
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void testAddAll() {
+        // Arrange
+        IntIntHashMap left = new IntIntHashMap();
+        left.addTo(1, 1);
+        left.addTo(2, 2);
+        IntIntHashMap right = new IntIntHashMap();
+        right.addTo(2, -2);
+        right.addTo(3, 3);
+
+        // Act
+        left.addAll(right);
+
+        // Assert
+        assertEquals(1, left.get(1));
+        assertEquals(0, left.get(2));
+        assertEquals(3, left.get(3));
+        assertEquals(2, left.size());
+    }
+
+    @Test
+    void testNegativeKey_Rejected() {
+        // Arrange
+        IntIntHashMap map = new IntIntHashMap();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(-1, 1));
+        assertEquals(0, map.get(-1));
+    }
+}
\ No newline at end of file
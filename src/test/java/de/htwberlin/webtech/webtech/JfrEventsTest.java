@@ -0,0 +1,175 @@
+package de.htwberlin.webtech.webtech;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisabledInAotMode
+class JfrEventsTest {
+
+    @Test
+    void testOmdbCallEvent_IsRecorded() throws Exception {
+        // Arrange
+        OMDbService omdbService = new OMDbService();
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        ReflectionTestUtils.setField(omdbService, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(omdbService, "apiKey", "test-api-key");
+        ReflectionTestUtils.setField(omdbService, "metrics", new WatchlistMetrics(new SimpleMeterRegistry()));
+
+        OMDbService.OMDbResponse response = new OMDbService.OMDbResponse();
+        response.setResponse("False");
+        when(restTemplate.getForObject(anyString(), eq(OMDbService.OMDbResponse.class))).thenReturn(response);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(OmdbCallEvent.class);
+            recording.start();
+
+            // Act
+            omdbService.fetchPosterUrl("Unbekannt", "Film");
+
+            recording.stop();
+            events = readEvents(recording, "de.htwberlin.webtech.OmdbCall");
+        }
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals("Unbekannt", events.get(0).getString("title"));
+        assertEquals("Film", events.get(0).getString("type"));
+        assertEquals("NOT_FOUND", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    void testHttpRequestEvent_IsRecorded() throws Exception {
+        // Arrange
+        RequestEventInterceptor interceptor = new RequestEventInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Watchlist/5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(404);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(HttpRequestEvent.class);
+            recording.start();
+
+            // Act
+            interceptor.preHandle(request, response, new Object());
+            interceptor.afterCompletion(request, response, new Object(), null);
+
+            recording.stop();
+            events = readEvents(recording, "de.htwberlin.webtech.HttpRequest");
+        }
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals("GET", events.get(0).getString("method"));
+        assertEquals("/Watchlist/5", events.get(0).getString("path"));
+        assertEquals(404, events.get(0).getInt("status"));
+    }
+
+    @Test
+    void testHttpRequestEvent_WithoutRecording_NothingStored() throws Exception {
+        // Arrange
+        RequestEventInterceptor interceptor = new RequestEventInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Watchlist");
+
+        // Act
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        // Assert
+        assertFalse(request.getAttributeNames().hasMoreElements());
+    }
+
+    @Test
+    void testProfiling_Disabled_NotFound() {
+        // Arrange
+        ProfilingController controller = profilingController(false, "secret");
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.record("secret", 10, "profile"));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    void testProfiling_WrongToken_Forbidden() {
+        // Arrange
+        ProfilingController controller = profilingController(true, "secret");
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.record("falsch", 10, "profile"));
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+    }
+
+    @Test
+    void testProfiling_NoTokenConfigured_Forbidden() {
+        // Arrange
+        ProfilingController controller = profilingController(true, "");
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.record("", 10, "profile"));
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+    }
+
+    @Test
+    void testProfiling_DurationTooLong_BadRequest() {
+        // Arrange
+        ProfilingController controller = profilingController(true, "secret");
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.record("secret", 3600, "profile"));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private ProfilingController profilingController(boolean enabled, String token) {
+        ProfilingController controller = new ProfilingController();
+        ReflectionTestUtils.setField(controller, "enabled", enabled);
+        ReflectionTestUtils.setField(controller, "adminToken", token);
+        ReflectionTestUtils.setField(controller, "maxDurationSeconds", 120);
+        ReflectionTestUtils.setField(controller, "maxSizeMb", 50);
+        return controller;
+    }
+
+    private List<RecordedEvent> readEvents(Recording recording, String eventName) throws Exception {
+        Path file = Files.createTempFile("jfr-test-", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(eventName))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
\ No newline at end of file
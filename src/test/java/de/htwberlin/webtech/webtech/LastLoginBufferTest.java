@@ -0,0 +1,86 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+@DisabledInAotMode
+class LastLoginBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LastLoginBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new LastLoginBuffer(jdbcTemplate, "UTC");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesLatestLoginPerUserInOneBatch() {
+        // Arrange
+        LocalDateTime earlier = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime later = earlier.plusMinutes(5);
+        buffer.record(1L, later);
+        buffer.record(1L, earlier); // älterer Wert darf den neueren nicht überschreiben
+        buffer.record(2L, earlier);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        ArgumentCaptor<Collection<Map.Entry<Long, LocalDateTime>>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        Collection<Map.Entry<Long, LocalDateTime>> batch = captor.getValue();
+        assertEquals(2, batch.size());
+        assertTrue(batch.contains(Map.entry(1L, later)));
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void testFlush_NothingPending() {
+        // Act
+        buffer.flush();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_FailureKeepsEntries() {
+        // Arrange
+        LocalDateTime loginTime = LocalDateTime.now();
+        buffer.record(1L, loginTime);
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("DB nicht erreichbar"));
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        assertEquals(loginTime, buffer.pendingFor(1L).orElseThrow());
+    }
+}
@@ -0,0 +1,84 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Durchsatz von saveWatchlistItem mit Logging auf INFO gegenüber OFF (async Appender aus logback-spring.xml).
+ *
+ * Läuft nur mit ./gradlew test --tests LoggingThroughputBenchmark -Dbenchmark=true
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@DisabledInAotMode
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoggingThroughputBenchmark {
+
+    private static final int THREADS = 8;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Autowired
+    private WatchlistService watchlistService;
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    @MockitoBean
+    private WatchlistRepository watchlistRepository;
+
+    @MockitoBean
+    private OMDbService omdbService;
+
+    @Test
+    void throughputWithLoggingInfoVersusOff() throws Exception {
+        when(omdbService.fetchPosterUrl(anyString(), anyString())).thenReturn("http://example.com/poster.jpg");
+        when(watchlistRepository.save(any(Watchlist.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Aufwärmen
+        measure();
+
+        loggingSystem.setLogLevel("de.htwberlin.webtech", LogLevel.INFO);
+        double withInfo = measure();
+
+        loggingSystem.setLogLevel("de.htwberlin.webtech", LogLevel.OFF);
+        double withOff = measure();
+
+        System.out.printf("Logging INFO: %,.0f Saves/s | Logging OFF: %,.0f Saves/s | Overhead: %.1f %%%n",
+                withInfo, withOff, (withOff - withInfo) / withOff * 100);
+    }
+
+    private double measure() throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        long deadline = System.currentTimeMillis() + MEASURE_MILLIS;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int i = 0; i < THREADS; i++) {
+            executor.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    watchlistService.saveWatchlistItem(new Watchlist("Inception", "Film", "Sci-Fi", false, 0, null));
+                    operations.increment();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(MEASURE_MILLIS * 2, TimeUnit.MILLISECONDS);
+
+        return operations.sum() / (MEASURE_MILLIS / 1000.0);
+    }
+}
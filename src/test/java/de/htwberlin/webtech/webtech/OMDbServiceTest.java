@@ -1,5 +1,6 @@
 package de.htwberlin.webtech.webtech;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +9,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
+import org.springframework.test.context.aot.DisabledInAotMode;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -16,10 +18,12 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
+@DisabledInAotMode
 class OMDbServiceTest {
 
     private RestTemplate restTemplate;
     private OMDbService omdbService;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -29,6 +33,9 @@ class OMDbServiceTest {
         // ReflectionTestUtils für private Felder
         ReflectionTestUtils.setField(omdbService, "restTemplate", restTemplate);
         ReflectionTestUtils.setField(omdbService, "apiKey", "test-api-key");
+
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(omdbService, "metrics", new WatchlistMetrics(meterRegistry));
     }
 
     @Test
@@ -113,4 +120,38 @@ class OMDbServiceTest {
         assertNull(result);
         verify(restTemplate).getForObject(anyString(), eq(OMDbService.OMDbResponse.class));
     }
+
+    @Test
+    void testFetchPosterUrl_RecordsLatencyByOutcome() {
+        // Arrange
+        OMDbService.OMDbResponse mockResponse = new OMDbService.OMDbResponse();
+        mockResponse.setResponse("True");
+        mockResponse.setPoster("N/A");
+
+        when(restTemplate.getForObject(anyString(), eq(OMDbService.OMDbResponse.class)))
+                .thenReturn(mockResponse)
+                .thenThrow(new RestClientException("API not available"));
+
+        // Act
+        omdbService.fetchPosterUrl("Unknown Movie", "Film");
+        omdbService.fetchPosterUrl("Inception", "Film");
+
+        // Assert
+        assertEquals(1, meterRegistry.get("omdb.requests").tag("outcome", "n/a").timer().count());
+        assertEquals(1, meterRegistry.get("omdb.requests").tag("outcome", "error").timer().count());
+        assertEquals(0, meterRegistry.get("omdb.requests").tag("outcome", "found").timer().count());
+    }
+
+    @Test
+    void testRedactApiKey() {
+        // Arrange
+        String message = "I/O error on GET request for \"http://www.omdbapi.com/?t=Inception&type=movie&apikey=secret123\": timeout";
+
+        // Act
+        String redacted = OMDbService.redactApiKey(message);
+
+        // Assert
+        assertFalse(redacted.contains("secret123"));
+        assertTrue(redacted.contains("apikey=***"));
+    }
 }
\ No newline at end of file
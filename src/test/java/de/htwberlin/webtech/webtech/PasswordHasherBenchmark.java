@@ -0,0 +1,41 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Logins pro Sekunde und Kern je BCrypt-Stärke.
+ *
+ * Läuft nur mit ./gradlew test --tests PasswordHasherBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PasswordHasherBenchmark {
+
+    private static final int[] STRENGTHS = {8, 10, 12, 13};
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    @Test
+    void loginsPerSecondPerCore() {
+        System.out.println("BCrypt-Stärke | ms/Login | Logins/s pro Kern");
+
+        for (int strength : STRENGTHS) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            String hash = encoder.encode("benchmark-password");
+
+            // Aufwärmen
+            encoder.matches("benchmark-password", hash);
+
+            // Ein Thread = ein Kern
+            int logins = 0;
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < MEASURE_NANOS) {
+                encoder.matches("benchmark-password", hash);
+                logins++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%13d | %8.1f | %17.1f%n", strength, seconds * 1000 / logins, logins / seconds);
+        }
+    }
+}
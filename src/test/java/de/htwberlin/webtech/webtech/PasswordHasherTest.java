@@ -0,0 +1,78 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void testHashAndMatches() {
+        // Arrange
+        hasher = new PasswordHasher(4, 1, 4, 2000);
+
+        // Act
+        String hash = hasher.hash("password");
+
+        // Assert
+        assertNotEquals("password", hash);
+        assertTrue(hasher.matches("password", hash));
+        assertFalse(hasher.matches("wrongpassword", hash));
+        assertFalse(hasher.needsRehash(hash));
+    }
+
+    @Test
+    void testLegacyPlaintext_MatchesAndNeedsRehash() {
+        // Arrange
+        hasher = new PasswordHasher(4, 1, 4, 2000);
+
+        // Act & Assert
+        assertTrue(hasher.matches("password", "password"));
+        assertFalse(hasher.matches("password", "other"));
+        assertTrue(hasher.needsRehash("password"));
+    }
+
+    @Test
+    void testWeakerHash_NeedsRehash() {
+        // Arrange
+        PasswordHasher weakHasher = new PasswordHasher(4, 1, 4, 2000);
+        String weakHash = weakHasher.hash("password");
+        weakHasher.shutdown();
+
+        // Act
+        hasher = new PasswordHasher(5, 1, 4, 2000);
+
+        // Assert
+        assertTrue(hasher.matches("password", weakHash));
+        assertTrue(hasher.needsRehash(weakHash));
+    }
+
+    @Test
+    void testOverload_RejectsImmediately() throws Exception {
+        // Arrange - ein Thread, keine Queue
+        hasher = new PasswordHasher(14, 1, 0, 10_000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.hash("password"));
+        while (hasher.activeCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        // Act & Assert
+        long start = System.nanoTime();
+        assertThrows(AuthOverloadedException.class, () -> hasher.hash("password"));
+        assertTrue(System.nanoTime() - start < 500_000_000L, "Ablehnung sollte sofort erfolgen");
+
+        running.cancel(true);
+    }
+}
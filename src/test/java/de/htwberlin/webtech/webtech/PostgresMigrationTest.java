@@ -0,0 +1,75 @@
+package de.htwberlin.webtech.webtech;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Die übrigen Tests laufen auf H2 mit create-drop und ohne Flyway; hier laufen die Migrationen gegen PostgreSQL
+ * und Hibernate prüft das Schema wie in Produktion (ddl-auto=validate). Ohne Docker wird der Test übersprungen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisabledInAotMode
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @Test
+    void testMigrations_AppliedAndSchemaValidated() {
+        // Context-Start hat migriert und validiert - sonst wäre er gescheitert
+
+        // Assert
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals("7", flyway.info().current().getVersion().getVersion());
+    }
+
+    @Test
+    void testWatchlistRoundTrip_OnMigratedSchema() {
+        // Arrange
+        User user = userRepository.save(new User("pg-user", "pg@test.com", "password", "Post", "Gres"));
+
+        // Act
+        watchlistRepository.save(new Watchlist("Dune", "Film", "Sci-Fi, Drama", false, 4, user));
+        List<Watchlist> items = watchlistRepository.findByUserId(user.getId());
+
+        // Assert
+        assertEquals(1, items.size());
+        assertEquals("Film", items.get(0).getType());
+        assertEquals("Sci-Fi, Drama", items.get(0).getGenre());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Anzahl der SQL-Statements pro Endpunkt. Schlägt fehl, sobald eine Änderung zusätzliche Queries
+ * (N+1, doppelte Lookups, merge-SELECTs) einführt - dann bewusst hier anpassen.
+ */
+@SpringBootTest(properties = "ratelimit.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisabledInAotMode
+class QueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WatchlistService watchlistService;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @Autowired
+    private WatchlistOrdering ordering;
+
+    @MockitoBean
+    private OMDbService omdbService;
+
+    private Statistics statistics;
+    private User user;
+    private Watchlist item;
+
+    @BeforeEach
+    void setUp() {
+        when(omdbService.fetchPosterUrl(anyString(), anyString())).thenReturn("http://example.com/poster.jpg");
+
+        String suffix = Long.toString(System.nanoTime(), 36);
+        user = userService.registerUser("qc-" + suffix, "qc-" + suffix + "@test.com", "password", "Query", "Count");
+        // Über den Service, damit die Statistik-Zeilen des Users schon existieren
+        item = watchlistService.saveWatchlistItem(new Watchlist("Inception", "Film", "Sci-Fi", false, 0, "http://example.com/poster.jpg", user));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetWatchlistByUser() throws Exception {
+        assertStatements(1, get("/Watchlist").param("userId", user.getId().toString()));
+    }
+
+    @Test
+    void testGetWatchlistItem() throws Exception {
+        assertStatements(1, get("/Watchlist/{id}", item.getId()).param("userId", user.getId().toString()));
+    }
+
+    @Test
+    void testCreateWatchlistItem() throws Exception {
+        // User-Lookup + INSERT + Statistik-UPDATE + Genre-UPDATE (neues Genre: 0 Zeilen) + Genre-INSERT
+        assertStatements(5, post("/Watchlist")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"The Matrix\",\"type\":\"Film\",\"genre\":\"Action\",\"userId\":" + user.getId() + "}"));
+    }
+
+    @Test
+    void testUpdateWatchlistItem() throws Exception {
+        // SELECT (Besitz-Prüfung) + SELECT durch merge + UPDATE, kein zusätzlicher User-Lookup,
+        // dazu Statistik-UPDATE + Genre-UPDATE Sci-Fi + Genre-UPDATE Thriller (0 Zeilen) + Genre-INSERT
+        assertStatements(7, put("/Watchlist/{id}", item.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Inception\",\"type\":\"Film\",\"genre\":\"Thriller\",\"watched\":true,\"rating\":5,\"userId\":" + user.getId() + "}"));
+    }
+
+    @Test
+    void testDeleteWatchlistItem() throws Exception {
+        // SELECT (alter Stand für die Statistik) + DELETE mit Besitz-Prüfung + Statistik-UPDATE + Genre-UPDATE
+        assertStatements(4, delete("/Watchlist/{id}", item.getId()).param("userId", user.getId().toString()));
+    }
+
+    @Test
+    void testMoveWatchlistItem() throws Exception {
+        // Arrange - längere Liste; die Zahl der Statements darf nicht von ihrer Länge abhängen
+        Watchlist first = null;
+        Watchlist last = null;
+        for (int i = 0; i < 50; i++) {
+            last = watchlistRepository.save(new Watchlist("Titel " + i, "Film", "Drama", false, 0, user));
+            first = first == null ? last : first;
+        }
+        ordering.rebalance(user.getId());
+        statistics.clear();
+
+        // Drei SELECT ... FOR UPDATE (Eintrag und neue Nachbarn) + ein UPDATE nur dieser Zeile
+        assertStatements(4, put("/Watchlist/{id}/position", last.getId())
+                .param("userId", user.getId().toString())
+                .param("after", item.getId().toString())
+                .param("before", first.getId().toString()));
+    }
+
+    @Test
+    void testGetWatchlistStats() throws Exception {
+        // Statistik-Zeile + Genre-Zeilen, unabhängig von der Anzahl der Einträge
+        assertStatements(2, get("/Watchlist/stats").param("userId", user.getId().toString()));
+    }
+
+    @Test
+    void testLogin() throws Exception {
+        // Last Login wird gepuffert und nicht pro Login geschrieben
+        assertStatements(1, post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + user.getUsername() + "\",\"password\":\"password\"}"));
+    }
+
+    @Test
+    void testRegister() throws Exception {
+        // Bloom-Filter erspart die exists-Abfragen für neue Namen
+        String suffix = Long.toString(System.nanoTime(), 36);
+        assertStatements(1, post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"new-" + suffix + "\",\"email\":\"new-" + suffix + "@test.com\",\"password\":\"password\"}"));
+    }
+
+    @Test
+    void testGetUser() throws Exception {
+        assertStatements(1, get("/auth/user/{id}", user.getId()));
+    }
+
+    @Test
+    void testUpdateUser() throws Exception {
+        // SELECT + UPDATE in einer Transaktion, kein SELECT durch merge
+        assertStatements(2, put("/auth/user/{id}", user.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Neu\",\"lastName\":\"Name\",\"email\":\"" + user.getEmail() + "\"}"));
+    }
+
+    private void assertStatements(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        // Act
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        // Assert
+        assertEquals(expected, statistics.getPrepareStatementCount(), "Anzahl SQL-Statements pro Request");
+    }
+}
\ No newline at end of file
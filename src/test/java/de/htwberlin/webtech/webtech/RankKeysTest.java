@@ -0,0 +1,81 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class RankKeysTest {
+
+    @Test
+    void testBetween_RandomInsertsStayOrdered() {
+        // Arrange
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+
+        // Act - wie Drag-and-Drop an beliebige Stellen
+        for (int i = 0; i < 10_000; i++) {
+            int position = random.nextInt(keys.size() + 1);
+            String lower = position == 0 ? null : keys.get(position - 1);
+            String upper = position == keys.size() ? null : keys.get(position);
+            String key = RankKeys.between(lower, upper);
+
+            // Assert
+            assertTrue(lower == null || lower.compareTo(key) < 0, lower + " < " + key);
+            assertTrue(upper == null || key.compareTo(upper) < 0, key + " < " + upper);
+            keys.add(position, key);
+        }
+        assertTrue(keys.stream().allMatch(key -> key.length() <= 12));
+    }
+
+    @Test
+    void testAppendAndPrepend_GrowLogarithmically() {
+        // Arrange
+        String last = null;
+        String first = null;
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            last = RankKeys.between(last, null);
+            first = RankKeys.between(null, first);
+        }
+
+        // Assert
+        assertTrue(last.length() <= 4, last);
+        assertTrue(first.length() <= 4, first);
+        assertTrue(first.compareTo(last) < 0);
+    }
+
+    @Test
+    void testTimestampKeys_SortAfterSequence() {
+        // Arrange
+        String earlier = RankKeys.forTimestamp(1_700_000_000_000L);
+        String later = RankKeys.forTimestamp(1_700_000_000_001L);
+        List<String> sequence = RankKeys.sequence(100_000);
+
+        // Act & Assert
+        assertTrue(earlier.compareTo(later) < 0);
+        assertTrue(sequence.get(sequence.size() - 1).compareTo(earlier) < 0);
+        // Bestand aus der Migration V6 ('d' + vier Ziffern) liegt ebenfalls davor
+        assertTrue("dzzzz".compareTo(earlier) < 0);
+        assertEquals("d0002", RankKeys.between("d0001", null));
+        for (int i = 1; i < sequence.size(); i++) {
+            assertTrue(sequence.get(i - 1).compareTo(sequence.get(i)) < 0);
+        }
+    }
+
+    @Test
+    void testInvalidKeys() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a1", "a0"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a1", "a1"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a10", null));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("c1", null));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a!", null));
+    }
+}
\ No newline at end of file
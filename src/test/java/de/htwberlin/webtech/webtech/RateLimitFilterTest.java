@@ -0,0 +1,116 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    private MockHttpServletResponse perform(RateLimitFilter filter, String method, String path, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (userId != null) {
+            request.setParameter("userId", userId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testBurstExceeded_Returns429WithRetryAfter() throws Exception {
+        // Arrange - OMDb-Klasse: 1 Request/s, Burst 2
+        RateLimitFilter filter = new RateLimitFilter(true, 0, 100, 100, 100, 100, 100, 1, 2);
+
+        // Act
+        MockHttpServletResponse first = perform(filter, "POST", "/Watchlist", null);
+        MockHttpServletResponse second = perform(filter, "POST", "/Watchlist", null);
+        MockHttpServletResponse third = perform(filter, "POST", "/Watchlist", null);
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader("Retry-After"));
+        assertEquals(1, filter.rejectedCount());
+    }
+
+    @Test
+    void testEndpointClasses_HaveSeparateLimits() throws Exception {
+        // Arrange
+        RateLimitFilter filter = new RateLimitFilter(true, 0, 100, 100, 100, 100, 100, 1, 1);
+        perform(filter, "POST", "/Watchlist/refresh-all-posters", "1");
+
+        // Act & Assert - OMDb-Limit erschöpft, Lesen geht weiter
+        assertEquals(429, perform(filter, "PUT", "/Watchlist/5", "1").getStatus());
+        assertEquals(200, perform(filter, "GET", "/Watchlist", "1").getStatus());
+        assertEquals(200, perform(filter, "DELETE", "/Watchlist/5", "1").getStatus());
+    }
+
+    @Test
+    void testUserIdParameter_DoesNotShareLimitAcrossIps() throws Exception {
+        // Arrange - jemand anderes schickt userId=7 und erschöpft sein eigenes Limit
+        RateLimitFilter filter = new RateLimitFilter(true, 0, 100, 1, 1, 100, 100, 100, 100);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Watchlist");
+        request.setParameter("userId", "7");
+        request.setRemoteAddr("10.0.0.1");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Act
+        MockHttpServletRequest otherIp = new MockHttpServletRequest("GET", "/Watchlist");
+        otherIp.setParameter("userId", "7");
+        otherIp.setRemoteAddr("10.0.0.2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(otherIp, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testClientIp_UsesEntryAddedByTrustedProxy() {
+        // Arrange - der Client schickt selbst "1.2.3.4" mit, der Proxy hängt die echte Adresse an
+        RateLimitFilter oneProxy = new RateLimitFilter(true, 1, 100, 1, 1, 1, 1, 1, 1);
+        RateLimitFilter twoProxies = new RateLimitFilter(true, 2, 100, 1, 1, 1, 1, 1, 1);
+        RateLimitFilter noProxy = new RateLimitFilter(true, 0, 100, 1, 1, 1, 1, 1, 1);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Watchlist");
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 203.0.113.7");
+        request.addHeader("X-Forwarded-For", "10.0.0.5");
+        request.setRemoteAddr("10.0.0.9");
+
+        // Act & Assert
+        assertEquals("10.0.0.5", oneProxy.clientIp(request));
+        assertEquals("203.0.113.7", twoProxies.clientIp(request));
+        assertEquals("10.0.0.9", noProxy.clientIp(request));
+    }
+
+    @Test
+    void testIdleClients_AreEvicted() throws Exception {
+        // Arrange - 1000 Requests/s, Bucket ist nach 1 ms wieder voll
+        RateLimitFilter filter = new RateLimitFilter(true, 0, 100, 1000, 10, 1000, 10, 1000, 10);
+        perform(filter, "GET", "/Watchlist", "1");
+        assertEquals(1, filter.clientCount());
+
+        // Act
+        Thread.sleep(20);
+        filter.evictIdleClients();
+
+        // Assert
+        assertEquals(0, filter.clientCount());
+    }
+
+    @Test
+    void testDisabled_PassesEverything() throws Exception {
+        // Arrange
+        RateLimitFilter filter = new RateLimitFilter(false, 0, 100, 1, 1, 1, 1, 1, 1);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(filter, "POST", "/Watchlist", null).getStatus());
+        }
+    }
+}
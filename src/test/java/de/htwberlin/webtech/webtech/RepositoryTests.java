@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -13,6 +14,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @ActiveProfiles("test")
+@Import(CategoryDictionary.class) // für WatchlistCategoryListener
 class RepositoryTests {
 
     @Autowired
@@ -24,6 +26,9 @@ class RepositoryTests {
     @Autowired
     private WatchlistRepository watchlistRepository;
 
+    @Autowired
+    private CategoryDictionary categories;
+
     @Test
     void testUserRepository_FindByUsername() {
         // Arrange
@@ -133,6 +138,36 @@ class RepositoryTests {
         assertEquals("The Matrix", result3.get().getTitle());
     }
 
+    @Test
+    void testWatchlistRepository_FindFiltered() {
+        // Arrange
+        User user = new User("testuser", "test@example.com", "password", "Test", "User");
+        entityManager.persistAndFlush(user);
+
+        // Direkt über JPA, ohne WatchlistService: der Listener registriert und indiziert selbst
+        entityManager.persistAndFlush(new Watchlist("Inception", "movie", "Sci-Fi, Thriller", false, 0, user));
+        entityManager.persistAndFlush(new Watchlist("Dark", "Serie", "Thriller", false, 0, user));
+        entityManager.persistAndFlush(new Watchlist("Up", "Film", "Animation", true, 4, user));
+        entityManager.clear();
+
+        short film = categories.findTypeId("Film");
+        long thriller = categories.findGenreMask("Thriller");
+
+        // Act
+        List<Watchlist> films = watchlistRepository.findFiltered(user.getId(), film, 0);
+        List<Watchlist> thrillers = watchlistRepository.findFiltered(user.getId(), (short) 0, thriller);
+        List<Watchlist> filmThrillers = watchlistRepository.findFiltered(user.getId(), film, thriller);
+
+        // Assert
+        assertEquals(2, films.size());
+        assertTrue(films.stream().allMatch(item -> "Film".equals(item.getType())));
+        assertEquals(2, thrillers.size());
+        assertEquals(1, filmThrillers.size());
+        assertEquals("Inception", filmThrillers.get(0).getTitle());
+        assertEquals(List.of("Sci-Fi", "Thriller"),
+                WatchlistStatsService.splitGenres(filmThrillers.get(0).getGenre()).stream().sorted().toList());
+    }
+
     @Test
     void testWatchlistRepository_DeleteByIdAndUserId() {
         // Arrange
@@ -188,4 +223,26 @@ class RepositoryTests {
         assertEquals(0, watchlistRepository.findByUserId(userId).size());
         assertFalse(userRepository.findById(userId).isPresent());
     }
+
+    @Test
+    void testWatchlistUpdate_ReindexesFromText() {
+        // Arrange
+        User user = new User("testuser", "test@example.com", "password", "Test", "User");
+        entityManager.persistAndFlush(user);
+        Watchlist item = new Watchlist("Dark", "tv", "Mystery", false, 0, user);
+        entityManager.persistAndFlush(item);
+
+        // Act - Änderung ohne WatchlistService, mit einem noch unbekannten Genre
+        item.setType("movie");
+        item.setGenre("Mystery, Neo-Noir");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Watchlist stored = watchlistRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Film", stored.getType());
+        assertEquals(categories.findGenreMask("Mystery, Neo-Noir"), stored.getGenreMask().longValue());
+        assertEquals(1, watchlistRepository.findFiltered(user.getId(), categories.findTypeId("Film"),
+                categories.findGenreMask("Neo-Noir")).size());
+    }
 }
\ No newline at end of file
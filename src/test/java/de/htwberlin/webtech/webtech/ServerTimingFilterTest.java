@@ -0,0 +1,105 @@
+package de.htwberlin.webtech.webtech;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class ServerTimingFilterTest {
+
+    @Test
+    void testHeaderContainsRecordedPhases() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, 20);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                RequestTimings.recordNanos(RequestTimings.Phase.OMDB, 201_500_000L);
+                RequestTimings.recordNanos(RequestTimings.Phase.DB, 1_000_000L);
+                RequestTimings.recordNanos(RequestTimings.Phase.DB, 2_000_000L);
+                resp.getWriter().write("{}");
+            }
+        };
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("POST", "/Watchlist"), response, new MockFilterChain(servlet));
+
+        // Assert
+        String header = response.getHeader("Server-Timing");
+        assertNotNull(header);
+        assertTrue(header.contains("omdb;dur=201.5"), header);
+        assertTrue(header.contains("db;dur=3.0"), header);
+        assertTrue(header.contains("app;dur="), header);
+        assertFalse(header.contains("user;"), header);
+    }
+
+    @Test
+    void testHeaderContainsStatementCount() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, 20);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                RequestTimings.countStatement();
+                RequestTimings.countStatement();
+            }
+        };
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/Watchlist"), response, new MockFilterChain(servlet));
+
+        // Assert
+        assertTrue(response.getHeader("Server-Timing").contains("sql;desc=\"2\""));
+    }
+
+    @Test
+    void testHeaderWithoutBody() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, 20);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/Watchlist/1"), response, new MockFilterChain());
+
+        // Assert
+        assertTrue(response.getHeader("Server-Timing").startsWith("app;dur="));
+    }
+
+    @Test
+    void testRecordingOutsideRequest_IsIgnored() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, 20);
+        RequestTimings.recordNanos(RequestTimings.Phase.OMDB, 5_000_000L); // kein aktiver Request
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/Watchlist"), response, new MockFilterChain());
+
+        // Assert
+        assertFalse(response.getHeader("Server-Timing").contains("omdb"));
+    }
+
+    @Test
+    void testDisabled_NoHeader() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(false, 20);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/Watchlist"), response, new MockFilterChain());
+
+        // Assert
+        assertNull(response.getHeader("Server-Timing"));
+    }
+}
@@ -0,0 +1,109 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+class TitleRecommendationsTest {
+
+    private static Map<String, Integer> asMap(List<TitleRecommendations.SimilarTitle> titles) {
+        Map<String, Integer> result = new HashMap<>();
+        titles.forEach(title -> result.put(TitleNormalizer.normalize(title.getTitle()), title.getCount()));
+        return result;
+    }
+
+    @Test
+    void testSimilar_OrderedByCoOccurrence() {
+        // Arrange
+        TitleRecommendations recommendations = new TitleRecommendations(null, 500, 1000);
+        recommendations.itemAdded(1L, "Inception");
+        recommendations.itemAdded(1L, "Interstellar");
+        recommendations.itemAdded(1L, "Dune");
+        recommendations.itemAdded(2L, "inception");
+        recommendations.itemAdded(2L, "Interstellar");
+        recommendations.itemAdded(3L, "Dune");
+
+        // Act
+        List<TitleRecommendations.SimilarTitle> result = recommendations.similar("INCEPTION", 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Interstellar", result.get(0).getTitle());
+        assertEquals(2, result.get(0).getCount());
+        assertEquals("Dune", result.get(1).getTitle());
+        assertEquals(1, result.get(1).getCount());
+        assertTrue(recommendations.similar("Unbekannt", 10).isEmpty());
+    }
+
+    @Test
+    void testItemRemoved_DuplicatesCountOnce() {
+        // Arrange - derselbe Titel zweimal auf einer Liste
+        TitleRecommendations recommendations = new TitleRecommendations(null, 500, 1000);
+        recommendations.itemAdded(1L, "Inception");
+        recommendations.itemAdded(1L, "Inception");
+        recommendations.itemAdded(1L, "Dune");
+
+        // Act & Assert
+        assertEquals(1, recommendations.similar("Dune", 10).get(0).getCount());
+        recommendations.itemRemoved(1L, "Inception");
+        assertEquals(1, recommendations.similar("Dune", 10).get(0).getCount());
+        recommendations.itemRemoved(1L, "Inception");
+        assertTrue(recommendations.similar("Dune", 10).isEmpty());
+    }
+
+    @Test
+    void testIncrementalUpdates_MatchFullRebuild() {
+        // Arrange - Obergrenze pro User wird dabei mehrfach über- und unterschritten
+        int maxTitlesPerUser = 25;
+        TitleRecommendations incremental = new TitleRecommendations(null, maxTitlesPerUser, 1000);
+        Random random = new Random(7);
+        List<Object[]> items = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            if (items.isEmpty() || random.nextInt(3) > 0) {
+                Object[] item = {(long) random.nextInt(200), "Title " + random.nextInt(40)};
+                items.add(item);
+                incremental.itemAdded((Long) item[0], (String) item[1]);
+            } else {
+                Object[] item = items.remove(random.nextInt(items.size()));
+                incremental.itemRemoved((Long) item[0], (String) item[1]);
+            }
+        }
+        TitleRecommendations rebuilt = new TitleRecommendations(null, maxTitlesPerUser, 1000);
+        rebuilt.rebuild(loader -> items.forEach(item -> loader.add((Long) item[0], (String) item[1])));
+
+        // Assert
+        for (int t = 0; t < 40; t++) {
+            assertEquals(asMap(rebuilt.similar("Title " + t, 100)), asMap(incremental.similar("Title " + t, 100)));
+        }
+    }
+
+    @Test
+    void testRebuild_ParallelOverManyUsers() {
+        // Arrange - genug User, dass Fork/Join mehrfach teilt
+        TitleRecommendations recommendations = new TitleRecommendations(null, 500, 1000);
+
+        // Act
+        recommendations.rebuild(loader -> {
+            for (long user = 0; user < 10_000; user++) {
+                loader.add(user, "Common");
+                loader.add(user, "Title " + (user % 10));
+            }
+        });
+
+        // Assert
+        List<TitleRecommendations.SimilarTitle> result = recommendations.similar("Common", 3);
+        assertEquals(3, result.size());
+        assertEquals(1000, result.get(0).getCount());
+        assertEquals(1000, recommendations.similar("Title 3", 1).get(0).getCount());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+class TrendingTitlesTest {
+
+    private static TrendingTitles node(String nodeId, TrendingCheckpointRepository repository) {
+        return new TrendingTitles(repository, nodeId, 1024, 4, 84, 5, 168);
+    }
+
+    @Test
+    void testNormalize_IgnoresCaseAccentsAndPunctuation() {
+        // Act & Assert
+        assertEquals("inception", TitleNormalizer.normalize("  Incéption! "));
+        assertEquals("star wars episode iv", TitleNormalizer.normalize("Star Wars: Episode IV"));
+        assertEquals("", TitleNormalizer.normalize(null));
+    }
+
+    @Test
+    void testTrending_OrderedByCount() {
+        // Arrange
+        TrendingTitles trending = node("a", mock(TrendingCheckpointRepository.class));
+
+        // Act
+        for (int i = 0; i < 3; i++) trending.record("Inception");
+        trending.record("inception ");
+        trending.record("The Matrix");
+        trending.record("The Matrix");
+        trending.record("Dune");
+        trending.record("   ");
+
+        // Assert
+        List<TrendingTitles.TrendingTitle> result = trending.trending(2);
+        assertEquals(2, result.size());
+        assertEquals("inception", TitleNormalizer.normalize(result.get(0).getTitle()));
+        assertEquals(4.0, result.get(0).getScore(), 0.01);
+        assertEquals("The Matrix", result.get(1).getTitle());
+    }
+
+    @Test
+    void testTrending_KeepsOnlyTopCandidates() {
+        // Arrange - max-results 5, also höchstens 10 Kandidaten
+        TrendingTitles trending = node("a", mock(TrendingCheckpointRepository.class));
+        for (int i = 0; i < 10; i++) trending.record("Popular");
+
+        // Act
+        for (int i = 0; i < 100; i++) trending.record("Rare " + i);
+
+        // Assert
+        List<TrendingTitles.TrendingTitle> result = trending.trending(100);
+        assertEquals(5, result.size());
+        assertEquals("Popular", result.get(0).getTitle());
+    }
+
+    @Test
+    void testCheckpoint_MergesOtherNodes() {
+        // Arrange
+        TrendingCheckpointRepository repositoryA = mock(TrendingCheckpointRepository.class);
+        TrendingTitles nodeA = node("a", repositoryA);
+        for (int i = 0; i < 5; i++) nodeA.record("Dune");
+        nodeA.checkpoint();
+        ArgumentCaptor<TrendingCheckpoint> saved = ArgumentCaptor.forClass(TrendingCheckpoint.class);
+        verify(repositoryA).save(saved.capture());
+
+        TrendingCheckpointRepository repositoryB = mock(TrendingCheckpointRepository.class);
+        when(repositoryB.findByUpdatedAtAfter(any())).thenReturn(List.of(saved.getValue()));
+        TrendingTitles nodeB = node("b", repositoryB);
+        for (int i = 0; i < 3; i++) nodeB.record("Dune");
+        nodeB.record("Alien");
+
+        // Act
+        nodeB.checkpoint();
+
+        // Assert
+        List<TrendingTitles.TrendingTitle> result = nodeB.trending(10);
+        assertEquals("Dune", result.get(0).getTitle());
+        assertEquals(8.0, result.get(0).getScore(), 0.01);
+        assertEquals("Alien", result.get(1).getTitle());
+    }
+
+    @Test
+    void testRestore_LoadsOwnCheckpoint() {
+        // Arrange
+        TrendingCheckpointRepository repository = mock(TrendingCheckpointRepository.class);
+        TrendingTitles before = node("a", repository);
+        for (int i = 0; i < 4; i++) before.record("Alien");
+        before.checkpoint();
+        ArgumentCaptor<TrendingCheckpoint> saved = ArgumentCaptor.forClass(TrendingCheckpoint.class);
+        verify(repository).save(saved.capture());
+        when(repository.findByUpdatedAtAfter(any())).thenReturn(List.of(saved.getValue()));
+
+        // Act
+        TrendingTitles restarted = node("a", repository);
+        restarted.restore();
+        restarted.record("Alien");
+
+        // Assert
+        List<TrendingTitles.TrendingTitle> result = restarted.trending(10);
+        assertEquals(1, result.size());
+        assertEquals(5.0, result.get(0).getScore(), 0.01);
+    }
+}
\ No newline at end of file
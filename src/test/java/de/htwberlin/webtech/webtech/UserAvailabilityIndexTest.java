@@ -0,0 +1,62 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+@DisabledInAotMode
+class UserAvailabilityIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserAvailabilityIndex(userRepository, 1000, 0.0001);
+    }
+
+    @Test
+    void testRefresh_PicksUpOtherNodesAndForgetsDeletedUsers() {
+        // Arrange
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"), List.of("bob"));
+        when(userRepository.findAllEmails()).thenReturn(List.of("alice@test.com"), List.of("bob@test.com"));
+        index.load();
+        assertFalse(index.mightContainUsername("bob"));
+
+        // Act - bob hat sich auf einem anderen Knoten registriert, alice wurde gelöscht
+        index.refresh();
+
+        // Assert
+        assertTrue(index.mightContainUsername("bob"));
+        assertTrue(index.mightContainEmail("bob@test.com"));
+        assertFalse(index.mightContainUsername("alice"));
+        assertFalse(index.mightContainEmail("alice@test.com"));
+    }
+
+    @Test
+    void testAddEmail_ChangedEmailIsKnown() {
+        // Arrange
+        when(userRepository.findAllUsernames()).thenReturn(List.of("alice"));
+        when(userRepository.findAllEmails()).thenReturn(List.of("alice@test.com"));
+        index.load();
+
+        // Act
+        index.addEmail("alice@example.org");
+
+        // Assert
+        assertTrue(index.mightContainEmail("alice@example.org"));
+    }
+}
\ No newline at end of file
@@ -11,6 +11,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.context.aot.DisabledInAotMode;
 
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +26,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(WatchlistController.class)
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
+@DisabledInAotMode
 class WatchlistControllerTest {
 
     @Autowired
@@ -36,6 +38,13 @@ class WatchlistControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private WatchlistStatsService statsService;
+
+    // Für IdempotencyFilter, den @WebMvcTest mitlädt
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -72,6 +81,26 @@ class WatchlistControllerTest {
         verify(watchlistService, never()).getAllWatchlistItems();
     }
 
+    @Test
+    void testGetAllWatchlistItems_WithFilter() throws Exception {
+        // Arrange
+        Long userId = 1L;
+        when(watchlistService.getFilteredWatchlistItemsByUser(userId, "Film", "Sci-Fi"))
+                .thenReturn(List.of(testWatchlistItem));
+
+        // Act & Assert
+        mockMvc.perform(get("/Watchlist")
+                        .param("userId", String.valueOf(userId))
+                        .param("type", "Film")
+                        .param("genre", "Sci-Fi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].genre").value("Sci-Fi"))
+                .andExpect(jsonPath("$[0].typeId").doesNotExist());
+
+        verify(watchlistService).getFilteredWatchlistItemsByUser(userId, "Film", "Sci-Fi");
+        verify(watchlistService, never()).getAllWatchlistItemsByUser(anyLong());
+    }
+
     @Test
     void testAddWatchlistItem_Success() throws Exception {
         // Arrange
@@ -132,4 +161,92 @@ class WatchlistControllerTest {
 
         verify(watchlistService).getWatchlistItem(itemId, userId);
     }
+
+    @Test
+    void testGetWatchlistStats() throws Exception {
+        // Arrange
+        WatchlistStats stats = mock(WatchlistStats.class);
+        when(stats.getTotalCount()).thenReturn(4L);
+        when(stats.getWatchedCount()).thenReturn(1L);
+        when(stats.getRatedCount()).thenReturn(2L);
+        when(stats.getRatingSum()).thenReturn(7L);
+        WatchlistGenreStats sciFi = mock(WatchlistGenreStats.class);
+        when(sciFi.getGenre()).thenReturn("Sci-Fi");
+        when(sciFi.getItemCount()).thenReturn(3L);
+
+        when(statsService.findStats(1L)).thenReturn(Optional.of(stats));
+        when(statsService.findGenres(1L)).thenReturn(List.of(sciFi));
+
+        // Act & Assert
+        mockMvc.perform(get("/Watchlist/stats").param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(4))
+                .andExpect(jsonPath("$.watchedPercentage").value(25.0))
+                .andExpect(jsonPath("$.averageRating").value(3.5))
+                .andExpect(jsonPath("$.genres['Sci-Fi']").value(3));
+
+        verify(watchlistService, never()).getAllWatchlistItemsByUser(anyLong());
+    }
+    @Test
+    void testSearchWatchlist_ClampsPaging() throws Exception {
+        // Arrange
+        when(watchlistService.searchWatchlist(1L, "incep", 0, 100))
+                .thenReturn(new WatchlistSearchIndex.SearchResult(List.of(testWatchlistItem), 1));
+
+        // Act & Assert
+        mockMvc.perform(get("/Watchlist/search")
+                        .param("userId", "1")
+                        .param("q", "incep")
+                        .param("page", "-3")
+                        .param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Inception"))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.size").value(100))
+                .andExpect(jsonPath("$.totalResults").value(1));
+    }
+
+    @Test
+    void testGetTaggedWatchlistItems() throws Exception {
+        // Arrange
+        when(watchlistService.getWatchlistItemsByTags(1L, List.of("rewatch", "2024 ziele"), List.of(),
+                List.of("mit kindern"))).thenReturn(List.of(testWatchlistItem));
+
+        // Act & Assert
+        mockMvc.perform(get("/Watchlist/tagged")
+                        .param("userId", "1")
+                        .param("all", "rewatch,2024 ziele")
+                        .param("none", "mit kindern"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Inception"));
+    }
+
+    @Test
+    void testAddTag_InvalidTag_BadRequest() throws Exception {
+        // Arrange
+        when(watchlistService.addTag(1L, 1L, "a,b")).thenThrow(new IllegalArgumentException("Tag darf kein Komma enthalten!"));
+
+        // Act & Assert
+        mockMvc.perform(put("/Watchlist/1/tags/a,b").param("userId", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetOrderedWatchlistItems_WithCursor() throws Exception {
+        // Arrange
+        when(watchlistService.getOrderedWatchlistItems(1L, "a5", 7L, 50)).thenReturn(List.of(testWatchlistItem));
+
+        // Act & Assert - weniger als eine volle Seite: keine weitere Seite
+        mockMvc.perform(get("/Watchlist/ordered")
+                        .param("userId", "1")
+                        .param("cursor", "a5:7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Inception"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/Watchlist/ordered")
+                        .param("userId", "1")
+                        .param("cursor", "kaputt"))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ohne @Transactional: Verschieben läuft in eigenen Transaktionen, gelesen wird danach frisch
+@SpringBootTest
+@ActiveProfiles("test")
+class WatchlistOrderingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @Autowired
+    private WatchlistOrdering ordering;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = Long.toString(System.nanoTime(), 36);
+        user = userService.registerUser("order-" + suffix, "order-" + suffix + "@test.com", "password", "Order", "Test");
+        ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(watchlistRepository.save(new Watchlist("Titel " + i, "Film", "Drama", false, 0, user)).getId());
+        }
+        // In derselben Millisekunde angelegte Einträge haben gleiche Schlüssel - für die Tests eindeutig machen
+        ordering.rebalance(user.getId());
+    }
+
+    private List<Long> orderedIds() {
+        return ordering.page(user.getId(), null, null, 1000).stream().map(Watchlist::getId).toList();
+    }
+
+    private Map<Long, String> sortKeys() {
+        Map<Long, String> keys = new HashMap<>();
+        jdbcTemplate.query("SELECT id, sort_key FROM watchlist WHERE user_id = ?",
+                row -> { keys.put(row.getLong(1), row.getString(2)); }, user.getId());
+        return keys;
+    }
+
+    @Test
+    void testNewItems_AppendedInCreationOrder() {
+        // Act & Assert
+        assertEquals(ids, orderedIds());
+    }
+
+    @Test
+    void testMove_WritesOnlyMovedRow() {
+        // Arrange
+        Long last = ids.get(29);
+        Map<Long, String> before = sortKeys();
+
+        // Act - letzten Eintrag zwischen den ersten und zweiten schieben
+        ordering.move(last, user.getId(), ids.get(0), ids.get(1));
+
+        // Assert
+        List<Long> expected = new ArrayList<>(ids);
+        expected.remove(last);
+        expected.add(1, last);
+        assertEquals(expected, orderedIds());
+
+        Map<Long, String> after = sortKeys();
+        List<Long> changed = ids.stream().filter(id -> !before.get(id).equals(after.get(id))).toList();
+        assertEquals(List.of(last), changed);
+    }
+
+    @Test
+    void testMove_ToFrontAndEnd() {
+        // Act
+        ordering.move(ids.get(15), user.getId(), null, ids.get(0));
+        ordering.move(ids.get(0), user.getId(), ids.get(29), null);
+
+        // Assert
+        List<Long> order = orderedIds();
+        assertEquals(ids.get(15), order.get(0));
+        assertEquals(ids.get(0), order.get(29));
+    }
+
+    @Test
+    void testMove_InvalidNeighbours() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ordering.move(ids.get(5), user.getId(), null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ordering.move(ids.get(5), user.getId(), ids.get(3), ids.get(2)));
+        assertThrows(RuntimeException.class, () -> ordering.move(ids.get(5), user.getId() + 1000, ids.get(1), ids.get(2)));
+    }
+
+    @Test
+    void testMove_BetweenEqualKeys_Rebalances() {
+        // Arrange - zwei Einträge in derselben Millisekunde angelegt
+        jdbcTemplate.update("UPDATE watchlist SET sort_key = (SELECT sort_key FROM watchlist WHERE id = ?) WHERE id = ?",
+                ids.get(3), ids.get(4));
+
+        // Act
+        ordering.move(ids.get(20), user.getId(), ids.get(3), ids.get(4));
+
+        // Assert
+        List<Long> order = orderedIds();
+        assertEquals(List.of(ids.get(3), ids.get(20), ids.get(4)), order.subList(3, 6));
+    }
+
+    @Test
+    void testMove_WithOneNeighbour_UsesActualNeighbour() {
+        // Act - nur after bzw. nur before: landet direkt daneben, nicht am Ende bzw. Anfang
+        ordering.move(ids.get(20), user.getId(), ids.get(3), null);
+        ordering.move(ids.get(25), user.getId(), null, ids.get(10));
+
+        // Assert
+        List<Long> order = orderedIds();
+        assertEquals(List.of(ids.get(3), ids.get(20), ids.get(4)), order.subList(3, 6));
+        assertEquals(List.of(ids.get(9), ids.get(25), ids.get(10)), order.subList(10, 13));
+        assertEquals(30, order.size());
+    }
+
+    @Test
+    void testRepeatedMoves_RebalanceBeforeKeysGetTooLong() {
+        // Act - immer wieder an dieselbe Stelle schieben
+        for (int i = 0; i < 600; i++) {
+            Long moving = ids.get(2 + i % 2);
+            Long other = ids.get(3 - i % 2);
+            ordering.move(moving, user.getId(), ids.get(1), other);
+        }
+
+        // Assert - zuletzt wurde ids[3] vor ids[2] geschoben
+        List<Long> order = orderedIds();
+        assertEquals(List.of(ids.get(1), ids.get(3), ids.get(2), ids.get(4)), order.subList(1, 5));
+        assertTrue(sortKeys().values().stream().allMatch(key -> key.length() <= 64));
+    }
+
+    @Test
+    void testRebalanceLongKeys_KeepsOrder() {
+        // Arrange - zu lange Schlüssel aus einem älteren Stand, Reihenfolge bleibt dabei gleich
+        for (int i = 0; i < 30; i += 3) {
+            jdbcTemplate.update("UPDATE watchlist SET sort_key = sort_key || ? WHERE id = ?", "V".repeat(100), ids.get(i));
+        }
+        List<Long> order = orderedIds();
+        assertEquals(ids, order);
+
+        // Act
+        ordering.rebalanceLongKeys();
+
+        // Assert
+        assertEquals(order, orderedIds());
+        assertTrue(sortKeys().values().stream().allMatch(key -> key.length() <= 3));
+    }
+
+    @Test
+    void testPage_KeysetCursor() {
+        // Arrange
+        List<Long> collected = new ArrayList<>();
+        List<Watchlist> page = ordering.page(user.getId(), null, null, 7);
+
+        // Act
+        while (!page.isEmpty()) {
+            page.forEach(item -> collected.add(item.getId()));
+            Watchlist last = page.get(page.size() - 1);
+            page = ordering.page(user.getId(), last.getSortKey(), last.getId(), 7);
+        }
+
+        // Assert
+        assertEquals(ids, collected);
+    }
+}
\ No newline at end of file
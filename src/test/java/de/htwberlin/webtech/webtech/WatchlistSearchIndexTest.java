@@ -0,0 +1,136 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+class WatchlistSearchIndexTest {
+
+    private WatchlistRepository repository;
+    private WatchlistSearchIndex searchIndex;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("testuser", "test@example.com", "password", "Test", "User");
+        testUser.setId(1L);
+
+        repository = mock(WatchlistRepository.class);
+        when(repository.findByUserId(1L)).thenReturn(new ArrayList<>(List.of(
+                item(1L, "Dune", "Sci-Fi"),
+                item(2L, "Dune: Part Two", "Sci-Fi, Adventure"),
+                item(3L, "Amélie", "Romance"),
+                item(4L, "Interstellar", "Sci-Fi"))));
+        searchIndex = new WatchlistSearchIndex(repository, 2, 300);
+    }
+
+    private Watchlist item(Long id, String title, String genre) {
+        Watchlist item = new Watchlist(title, "Film", genre, false, 0, testUser);
+        item.setId(id);
+        return item;
+    }
+
+    private static List<String> titles(WatchlistSearchIndex.SearchResult result) {
+        return result.getItems().stream().map(Watchlist::getTitle).toList();
+    }
+
+    @Test
+    void testSearch_RanksExactTitleFirst() {
+        // Act
+        WatchlistSearchIndex.SearchResult result = searchIndex.search(1L, "DUNE", 0, 10);
+
+        // Assert
+        assertEquals(List.of("Dune", "Dune: Part Two"), titles(result));
+        assertEquals(2, result.getTotalResults());
+    }
+
+    @Test
+    void testSearch_AccentInsensitivePrefix() {
+        // Act & Assert
+        assertEquals(List.of("Amélie"), titles(searchIndex.search(1L, "amel", 0, 10)));
+        assertEquals(List.of("Amélie"), titles(searchIndex.search(1L, "AMÉLIE", 0, 10)));
+    }
+
+    @Test
+    void testSearch_AllTokensMustMatchTitleOrGenre() {
+        // Act
+        WatchlistSearchIndex.SearchResult result = searchIndex.search(1L, "dune adventure", 0, 10);
+
+        // Assert
+        assertEquals(List.of("Dune: Part Two"), titles(result));
+        assertEquals(0, searchIndex.search(1L, "dune romance", 0, 10).getTotalResults());
+        assertEquals(0, searchIndex.search(1L, "  !! ", 0, 10).getTotalResults());
+    }
+
+    @Test
+    void testSearch_Paging() {
+        // Act
+        WatchlistSearchIndex.SearchResult first = searchIndex.search(1L, "sci", 0, 2);
+        WatchlistSearchIndex.SearchResult second = searchIndex.search(1L, "sci", 1, 2);
+        WatchlistSearchIndex.SearchResult beyond = searchIndex.search(1L, "sci", 5, 2);
+
+        // Assert
+        assertEquals(3, first.getTotalResults());
+        assertEquals(List.of("Dune", "Dune: Part Two"), titles(first));
+        assertEquals(List.of("Interstellar"), titles(second));
+        assertTrue(beyond.getItems().isEmpty());
+        verify(repository, times(1)).findByUserId(1L);
+    }
+
+    @Test
+    void testWrites_UpdateLoadedIndex() {
+        // Arrange
+        searchIndex.search(1L, "dune", 0, 10);
+
+        // Act
+        searchIndex.itemSaved(item(5L, "Dune Messiah", "Sci-Fi"));
+        searchIndex.itemDeleted(1L, 1L);
+        searchIndex.itemSaved(item(4L, "Interstellar (Director's Cut)", "Drama"));
+
+        // Assert
+        assertEquals(List.of("Dune Messiah", "Dune: Part Two"), titles(searchIndex.search(1L, "dune", 0, 10)));
+        assertEquals(List.of("Interstellar (Director's Cut)"), titles(searchIndex.search(1L, "drama", 0, 10)));
+        assertEquals(0, searchIndex.search(1L, "interstellar sci", 0, 10).getTotalResults());
+        verify(repository, times(1)).findByUserId(1L);
+    }
+
+    @Test
+    void testCache_EvictsLeastRecentlyUsedUser() {
+        // Arrange - Platz für 2 User
+        searchIndex.search(1L, "dune", 0, 10);
+        searchIndex.search(2L, "dune", 0, 10);
+        searchIndex.search(1L, "dune", 0, 10);
+
+        // Act
+        searchIndex.search(3L, "dune", 0, 10);
+        searchIndex.search(1L, "dune", 0, 10);
+
+        // Assert - User 1 war zuletzt benutzt und bleibt, User 2 fliegt
+        assertEquals(2, searchIndex.cachedUsers());
+        verify(repository, times(1)).findByUserId(1L);
+        searchIndex.search(2L, "dune", 0, 10);
+        verify(repository, times(2)).findByUserId(2L);
+    }
+
+    @Test
+    void testLoad_OverlappingWriteIsNotCached() {
+        // Arrange - während des Ladens kommt ein Schreibzugriff dazwischen
+        when(repository.findByUserId(1L)).thenAnswer(invocation -> {
+            searchIndex.itemDeleted(1L, 99L);
+            return List.of(item(1L, "Dune", "Sci-Fi"));
+        });
+
+        // Act
+        searchIndex.search(1L, "dune", 0, 10);
+
+        // Assert
+        assertEquals(0, searchIndex.cachedUsers());
+    }
+}
\ No newline at end of file
@@ -7,18 +7,28 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyShort;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
+@DisabledInAotMode
 class WatchlistServiceTest {
 
     @Mock
@@ -27,6 +37,36 @@ class WatchlistServiceTest {
     @Mock
     private OMDbService omdbService;
 
+    @Mock
+    private WatchlistMetrics metrics;
+
+    @Mock
+    private WatchlistStatsService statsService;
+
+    @Mock
+    private TrendingTitles trendingTitles;
+
+    @Mock
+    private TitleRecommendations recommendations;
+
+    @Mock
+    private WatchlistSearchIndex searchIndex;
+
+    @Mock
+    private CategoryDictionary categories;
+
+    @Mock
+    private WatchlistTagIndex tagIndex;
+
+    @Mock
+    private WatchlistOrdering ordering;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AdaptiveConcurrencyLimiter omdbLimiter;
+
     @InjectMocks
     private WatchlistService watchlistService;
 
@@ -40,6 +80,15 @@ class WatchlistServiceTest {
 
         testWatchlistItem = new Watchlist("Inception", "Film", "Sci-Fi", false, 0, testUser);
         testWatchlistItem.setId(1L);
+
+        // Wörterbuch lässt Type und Genre unverändert
+        lenient().when(categories.canonicalType(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(categories.canonicalGenres(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        // Adaptives OMDb-Limit lässt alles durch
+        lenient().when(omdbLimiter.tryAcquire()).thenReturn(1);
+        // Transaktion führt den Callback einfach aus
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -58,6 +107,49 @@ class WatchlistServiceTest {
         verify(watchlistRepository).findByUserId(userId);
     }
 
+    @Test
+    void testGetFilteredWatchlistItemsByUser() {
+        // Arrange
+        when(categories.findTypeId("movie")).thenReturn((short) 1);
+        when(categories.findGenreMask("Sci-Fi, Drama")).thenReturn(0b101L);
+        when(watchlistRepository.findFiltered(1L, (short) 1, 0b101L)).thenReturn(List.of(testWatchlistItem));
+
+        // Act
+        List<Watchlist> result = watchlistService.getFilteredWatchlistItemsByUser(1L, "movie", "Sci-Fi, Drama");
+
+        // Assert
+        assertEquals(List.of(testWatchlistItem), result);
+    }
+
+    @Test
+    void testGetFilteredWatchlistItemsByUser_UnknownGenre() {
+        // Arrange
+        when(categories.findGenreMask("Western")).thenReturn(0L);
+
+        // Act
+        List<Watchlist> result = watchlistService.getFilteredWatchlistItemsByUser(1L, null, "Western");
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(watchlistRepository, never()).findFiltered(anyLong(), anyShort(), anyLong());
+    }
+
+    @Test
+    void testGetFilteredWatchlistItemsByUser_GenreWithoutBit() {
+        // Arrange - Wörterbuch voll, "Giallo" steht nur im Text
+        Watchlist giallo = new Watchlist("Suspiria", "Film", "Horror, Giallo", false, 0, testUser);
+        Watchlist drama = new Watchlist("Roma", "Film", "Drama", false, 0, testUser);
+        when(categories.findGenreMask("giallo")).thenReturn(0L);
+        when(categories.unindexedGenres("giallo")).thenReturn(Set.of("giallo"));
+        when(watchlistRepository.findFiltered(1L, (short) 0, 0L)).thenReturn(List.of(giallo, drama));
+
+        // Act
+        List<Watchlist> result = watchlistService.getFilteredWatchlistItemsByUser(1L, null, "giallo");
+
+        // Assert
+        assertEquals(List.of(giallo), result);
+    }
+
     @Test
     void testSaveWatchlistItem_WithoutPoster() {
         // Arrange
@@ -96,6 +188,9 @@ class WatchlistServiceTest {
         assertEquals(existingPosterUrl, result.getPosterUrl());
         verify(omdbService, never()).fetchPosterUrl(anyString(), anyString());
         verify(watchlistRepository).save(newItem);
+        verify(trendingTitles).record("The Matrix");
+        verify(recommendations).itemAdded(1L, "The Matrix");
+        verify(searchIndex).itemSaved(newItem);
     }
 
     @Test
@@ -104,14 +199,75 @@ class WatchlistServiceTest {
         Long itemId = 1L;
         Long userId = 1L;
         when(watchlistRepository.findByIdAndUserId(itemId, userId)).thenReturn(Optional.of(testWatchlistItem));
+        when(watchlistRepository.deleteByIdAndUserId(itemId, userId)).thenReturn(1);
 
         // Act
         boolean result = watchlistService.deleteWatchlistItem(itemId, userId);
 
         // Assert
         assertTrue(result);
-        verify(watchlistRepository).findByIdAndUserId(itemId, userId);
-        verify(watchlistRepository).deleteById(itemId);
+        verify(watchlistRepository).deleteByIdAndUserId(itemId, userId);
+        verify(statsService).recordChange(any(WatchlistStatsService.Snapshot.class), isNull());
+        verify(recommendations).itemRemoved(userId, "Inception");
+        verify(searchIndex).itemDeleted(userId, itemId);
+        verify(tagIndex).itemDeleted(userId, itemId);
+    }
+
+    @Test
+    void testGetWatchlistItemsByTags_LoadsOwnItemsSortedById() {
+        // Arrange
+        Watchlist other = new Watchlist("Up", "Film", "Animation", false, 0, testUser);
+        other.setId(7L);
+        when(tagIndex.query(1L, List.of("rewatch"), List.of(), List.of("mit kindern")))
+                .thenReturn(CompressedBitmap.of(1L, 7L));
+        when(watchlistRepository.findByUserIdAndIdIn(1L, List.of(1L, 7L)))
+                .thenReturn(Arrays.asList(other, testWatchlistItem));
+
+        // Act
+        List<Watchlist> result = watchlistService.getWatchlistItemsByTags(1L, List.of("rewatch"), List.of(),
+                List.of("mit kindern"));
+
+        // Assert
+        assertEquals(List.of(testWatchlistItem, other), result);
+    }
+
+    @Test
+    void testAddTag_NotOwned() {
+        // Arrange
+        when(watchlistRepository.findByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> watchlistService.addTag(1L, 2L, "rewatch"));
+        verifyNoInteractions(tagIndex);
+    }
+
+    @Test
+    void testDeleteWatchlistItem_NotOwned() {
+        // Arrange
+        when(watchlistRepository.findByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+
+        // Act
+        boolean result = watchlistService.deleteWatchlistItem(1L, 2L);
+
+        // Assert
+        assertFalse(result);
+        verify(watchlistRepository, never()).deleteByIdAndUserId(anyLong(), anyLong());
+        verifyNoInteractions(statsService);
+    }
+
+    @Test
+    void testDeleteWatchlistItem_ConcurrentlyDeleted() {
+        // Arrange: zwischen SELECT und DELETE von einem anderen Request gelöscht
+        when(watchlistRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(testWatchlistItem));
+        when(watchlistRepository.deleteByIdAndUserId(1L, 1L)).thenReturn(0);
+
+        // Act
+        boolean result = watchlistService.deleteWatchlistItem(1L, 1L);
+
+        // Assert
+        assertFalse(result);
+        verifyNoInteractions(statsService);
+        verifyNoInteractions(recommendations);
     }
 
     @Test
@@ -139,5 +295,68 @@ class WatchlistServiceTest {
 
         verify(omdbService).fetchPosterUrl("The Matrix", "Film");
         verify(watchlistRepository).save(testWatchlistItem);
+        // watched false -> true
+        verify(trendingTitles).record("The Matrix");
+        verify(recommendations).itemRemoved(userId, "Inception");
+        verify(recommendations).itemAdded(userId, "The Matrix");
+    }
+
+    @Test
+    void testUpdateWatchlistItem_WatchedUnchanged_NotCountedAsTrending() {
+        // Arrange
+        Watchlist updatedItem = new Watchlist("Inception", "Film", "Sci-Fi", false, 4, testUser);
+        when(watchlistRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(testWatchlistItem));
+        when(watchlistRepository.save(any(Watchlist.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        watchlistService.updateWatchlistItem(1L, updatedItem, 1L);
+
+        // Assert
+        verifyNoInteractions(trendingTitles);
+    }
+
+    @Test
+    void testRefreshAllMissingPosters_SavesEachMissingItem() {
+        // Arrange
+        Watchlist withPoster = new Watchlist("Alien", "Film", "Horror", false, 0, testUser);
+        withPoster.setPosterUrl("http://example.com/alien.jpg");
+        Watchlist second = new Watchlist("The Matrix", "Film", "Sci-Fi", false, 0, testUser);
+        Watchlist third = new Watchlist("Dark", "Serie", "Mystery", false, 0, testUser);
+
+        when(watchlistRepository.findByUserId(1L)).thenReturn(List.of(testWatchlistItem, withPoster, second, third));
+        when(omdbService.fetchPosterUrl(anyString(), anyString())).thenReturn("http://example.com/poster.jpg");
+
+        // Act
+        watchlistService.refreshAllMissingPosters(1L);
+
+        // Assert
+        verify(watchlistRepository).save(testWatchlistItem);
+        verify(watchlistRepository).save(second);
+        verify(watchlistRepository).save(third);
+        verify(watchlistRepository, never()).save(withPoster);
+        verify(omdbService, never()).fetchPosterUrl("Alien", "Film");
+        assertEquals("http://example.com/poster.jpg", third.getPosterUrl());
+        // Ein Platz im adaptiven Limit pro Abfrage; ohne gemessene OMDb-Phase (Mock) ohne Latenz-Messung
+        verify(omdbLimiter, times(3)).tryAcquire();
+        verify(omdbLimiter, times(3)).release();
+    }
+
+    @Test
+    void testRefreshAllMissingPosters_FailedItem_IsReportedAfterOthersAreSaved() {
+        // Arrange
+        Watchlist second = new Watchlist("The Matrix", "Film", "Sci-Fi", false, 0, testUser);
+        when(watchlistRepository.findByUserId(1L)).thenReturn(List.of(testWatchlistItem, second));
+        when(omdbService.fetchPosterUrl(anyString(), anyString())).thenReturn("http://example.com/poster.jpg");
+        when(omdbService.fetchPosterUrl("The Matrix", "Film")).thenThrow(new IllegalStateException("OMDb down"));
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> watchlistService.refreshAllMissingPosters(1L));
+
+        // Assert
+        assertEquals("OMDb down", exception.getCause().getMessage());
+        verify(omdbLimiter).release(anyInt(), anyLong(), eq(false));
+        verify(watchlistRepository).save(testWatchlistItem);
+        verify(watchlistRepository, never()).save(second);
     }
 }
\ No newline at end of file
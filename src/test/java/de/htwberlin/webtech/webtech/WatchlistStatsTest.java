@@ -0,0 +1,131 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inkrementelle Statistik gegen die tatsächlichen Einträge und Korrektur durch den Reconciler
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisabledInAotMode
+class WatchlistStatsTest {
+
+    @Autowired
+    private WatchlistService watchlistService;
+
+    @Autowired
+    private WatchlistStatsService statsService;
+
+    @Autowired
+    private WatchlistStatsReconciler reconciler;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private OMDbService omdbService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = Long.toString(System.nanoTime(), 36);
+        user = userService.registerUser("stats-" + suffix, "stats-" + suffix + "@test.com", "password", "Stats", "User");
+    }
+
+    @Test
+    void testIncrementalStats_MatchCreateUpdateDelete() {
+        // Arrange
+        Watchlist inception = save("Inception", "Sci-Fi, Action", true, 5);
+        save("John Wick", "Action", false, 0);
+        Watchlist dark = save("Dark", "Mystery", true, 4);
+
+        // Act
+        Watchlist changed = new Watchlist("Inception", "Film", "Thriller", false, 3, null);
+        changed.setPosterUrl(inception.getPosterUrl());
+        watchlistService.updateWatchlistItem(inception.getId(), changed, user.getId());
+        watchlistService.deleteWatchlistItem(dark.getId(), user.getId());
+
+        // Assert: Inception (Thriller, ungesehen, 3) + John Wick (Action, ungesehen, unbewertet)
+        WatchlistStats stats = statsService.findStats(user.getId()).orElseThrow();
+        assertEquals(2, stats.getTotalCount());
+        assertEquals(0, stats.getWatchedCount());
+        assertEquals(1, stats.getRatedCount());
+        assertEquals(3, stats.getRatingSum());
+        assertEquals(Map.of("Action", 1L, "Thriller", 1L), genres());
+        // Nichts abzugleichen, wenn die Deltas stimmen
+        assertEquals(0, reconciler.reconcile(user.getId() - 1, user.getId()));
+    }
+
+    @Test
+    void testReconcile_FixesDrift() {
+        // Arrange
+        save("Inception", "Sci-Fi, Action", true, 5);
+        save("Alien", "Sci-Fi", false, 0);
+        jdbcTemplate.update("UPDATE watchlist_stats SET total_count = 99, rating_sum = 0 WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM watchlist_genre_stats WHERE user_id = ? AND genre = 'Action'", user.getId());
+
+        // Act
+        int corrected = reconciler.reconcile(user.getId() - 1, user.getId());
+
+        // Assert
+        assertEquals(1, corrected);
+        WatchlistStats stats = statsService.findStats(user.getId()).orElseThrow();
+        assertEquals(2, stats.getTotalCount());
+        assertEquals(1, stats.getWatchedCount());
+        assertEquals(5, stats.getRatingSum());
+        assertEquals(Map.of("Sci-Fi", 2L, "Action", 1L), genres());
+        assertEquals(0, reconciler.reconcile(user.getId() - 1, user.getId()));
+    }
+
+    @Test
+    void testReconcile_UpdatesRowInPlace() {
+        // Arrange: Statistik eines Users, dessen Einträge ohne Delta gelöscht wurden
+        save("Inception", "Sci-Fi", true, 5);
+        jdbcTemplate.update("DELETE FROM watchlist WHERE user_id = ?", user.getId());
+
+        // Act
+        int corrected = reconciler.reconcile(user.getId() - 1, user.getId());
+
+        // Assert: Zeile bleibt (auf 0), damit wartende Deltas sie noch finden
+        assertEquals(1, corrected);
+        WatchlistStats stats = statsService.findStats(user.getId()).orElseThrow();
+        assertEquals(0, stats.getTotalCount());
+        assertEquals(0, stats.getRatingSum());
+        assertEquals(Map.of(), genres());
+        assertEquals(0, reconciler.reconcile(user.getId() - 1, user.getId()));
+    }
+
+    @Test
+    void testSplitGenres_TrimsAndDeduplicates() {
+        assertEquals(List.of("Sci-Fi", "Action"), WatchlistStatsService.splitGenres(" Sci-Fi ,Action,, Sci-Fi"));
+        assertEquals(List.of(), WatchlistStatsService.splitGenres(null));
+    }
+
+    private Watchlist save(String title, String genre, boolean watched, int rating) {
+        return watchlistService.saveWatchlistItem(
+                new Watchlist(title, "Film", genre, watched, rating, "http://example.com/poster.jpg", user));
+    }
+
+    private Map<String, Long> genres() {
+        Map<String, Long> genres = new LinkedHashMap<>();
+        statsService.findGenres(user.getId()).forEach(g -> genres.put(g.getGenre(), g.getItemCount()));
+        return genres;
+    }
+}
\ No newline at end of file
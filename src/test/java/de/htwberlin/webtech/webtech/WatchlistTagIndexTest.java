@@ -0,0 +1,121 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({CategoryDictionary.class, WatchlistTagIndex.class})
+class WatchlistTagIndexTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private WatchlistTagRepository tagRepository;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @Autowired
+    private WatchlistTagIndex tagIndex;
+
+    private User user;
+    private Long dune;
+    private Long up;
+    private Long heat;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistAndFlush(new User("taguser", "tag@example.com", "password", "Tag", "User"));
+        dune = persistItem("Dune");
+        up = persistItem("Up");
+        heat = persistItem("Heat");
+    }
+
+    private Long persistItem(String title) {
+        return entityManager.persistAndFlush(new Watchlist(title, "Film", "Drama", false, 0, user)).getId();
+    }
+
+    @Test
+    void testQuery_AllAnyNone() {
+        // Arrange
+        tagIndex.addTag(user.getId(), dune, "Rewatch");
+        tagIndex.addTag(user.getId(), dune, "2024  Ziele");
+        tagIndex.addTag(user.getId(), up, "rewatch");
+        tagIndex.addTag(user.getId(), up, "Mit Kindern");
+        tagIndex.addTag(user.getId(), heat, "2024 ziele");
+
+        // Act & Assert
+        assertArrayEquals(new long[]{dune, up},
+                tagIndex.query(user.getId(), List.of("REWATCH"), List.of(), List.of()).toArray());
+        assertArrayEquals(new long[]{dune},
+                tagIndex.query(user.getId(), List.of("rewatch", "2024 ziele"), List.of(), List.of()).toArray());
+        assertArrayEquals(new long[]{dune, heat},
+                tagIndex.query(user.getId(), List.of(), List.of("2024 ziele", "unbekannt"), List.of()).toArray());
+        assertArrayEquals(new long[]{dune},
+                tagIndex.query(user.getId(), List.of("rewatch"), List.of(), List.of("mit kindern")).toArray());
+        // Nur "none": Ausgangsmenge ist die ganze Watchlist
+        assertArrayEquals(new long[]{dune, heat},
+                tagIndex.query(user.getId(), List.of(), List.of(), List.of("mit kindern")).toArray());
+    }
+
+    @Test
+    void testTags_PersistedCompactly() {
+        // Arrange
+        tagIndex.addTag(user.getId(), dune, "rewatch");
+        tagIndex.addTag(user.getId(), heat, "rewatch");
+        List<String> afterRemove = tagIndex.removeTag(user.getId(), heat, "rewatch");
+
+        // Act - frischer Index ohne Cache liest aus watchlist_tag
+        WatchlistTagIndex reloaded = new WatchlistTagIndex(tagRepository, watchlistRepository, 10, 300, 500, 50);
+
+        // Assert
+        assertEquals(List.of(), afterRemove);
+        assertEquals(List.of("rewatch"), reloaded.tagsOf(user.getId(), dune));
+        assertEquals(Map.of("rewatch", 1L), reloaded.tagCounts(user.getId()));
+        assertEquals(1, tagRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testItemDeleted_RemovesFromAllTags() {
+        // Arrange
+        tagIndex.addTag(user.getId(), dune, "rewatch");
+        tagIndex.addTag(user.getId(), dune, "sci-fi abend");
+        tagIndex.addTag(user.getId(), up, "rewatch");
+
+        // Act
+        tagIndex.itemDeleted(user.getId(), dune);
+
+        // Assert - leere Tags verschwinden ganz
+        assertEquals(Map.of("rewatch", 1L), tagIndex.tagCounts(user.getId()));
+        assertEquals(List.of(), tagIndex.tagsOf(user.getId(), dune));
+        assertEquals(1, tagRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testInvalidTags() {
+        // Arrange
+        WatchlistTagIndex limited = new WatchlistTagIndex(tagRepository, watchlistRepository, 10, 300, 2, 10);
+        limited.addTag(user.getId(), dune, "a");
+        limited.addTag(user.getId(), dune, "b");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> limited.addTag(user.getId(), dune, "c"));
+        // Vorhandene Tags dürfen weiter vergeben werden
+        assertEquals(List.of("b"), limited.addTag(user.getId(), up, "b"));
+        assertThrows(IllegalArgumentException.class, () -> limited.normalizeTag("   "));
+        assertThrows(IllegalArgumentException.class, () -> limited.normalizeTag("viel zu langer tag"));
+        assertThrows(IllegalArgumentException.class, () -> limited.normalizeTag("a,b"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package de.htwberlin.webtech.webtech;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Reaktive /v2/Watchlist-API gegen dieselbe H2-Datenbank wie die Servlet-API
+ */
+@SpringBootTest(properties = {"v2.enabled=true", "ratelimit.enabled=false"})
+@ActiveProfiles("test")
+@DisabledInAotMode
+class WatchlistV2Test {
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+
+    @MockitoBean
+    private OMDbService omdbService;
+
+    private WebTestClient client;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveApiServer.port()).build();
+
+        String suffix = Long.toString(System.nanoTime(), 36);
+        user = userService.registerUser("v2-" + suffix, "v2-" + suffix + "@test.com", "password", "Reactive", "User");
+    }
+
+    @Test
+    void testCreateWatchlistItem_FetchesPosterNonBlocking() {
+        // Arrange
+        when(omdbService.fetchPosterUrlReactive("The Matrix", "Film")).thenReturn(Mono.just("http://example.com/matrix.jpg"));
+
+        // Act
+        WatchlistRow created = client.post().uri("/v2/Watchlist")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\":\"The Matrix\",\"type\":\"Film\",\"genre\":\"Action\",\"userId\":" + user.getId() + "}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(WatchlistRow.class)
+                .returnResult().getResponseBody();
+
+        // Assert
+        assertNotNull(created);
+        assertNotNull(created.getId());
+        assertEquals("http://example.com/matrix.jpg", created.getPosterUrl());
+        // Über JPA sichtbar: gleiches Schema, gleiche Datenbank
+        Watchlist stored = watchlistRepository.findByIdAndUserId(created.getId(), user.getId()).orElseThrow();
+        assertEquals("The Matrix", stored.getTitle());
+        verify(omdbService, never()).fetchPosterUrl(anyString(), anyString());
+    }
+
+    @Test
+    void testGetWatchlistByUser_ReturnsItemsCreatedViaJpa() {
+        // Arrange
+        watchlistRepository.save(new Watchlist("Inception", "Film", "Sci-Fi", false, 0, "http://example.com/inception.jpg", user));
+
+        // Act + Assert
+        client.get().uri("/v2/Watchlist?userId={userId}", user.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("Inception")
+                .jsonPath("$[0].posterUrl").isEqualTo("http://example.com/inception.jpg")
+                .jsonPath("$[0].userId").doesNotExist();
+    }
+
+    @Test
+    void testUpdateWatchlistItem_RefetchesPosterOnTitleChange() {
+        // Arrange
+        Watchlist item = watchlistRepository.save(new Watchlist("Inception", "Film", "Sci-Fi", false, 0, "http://example.com/inception.jpg", user));
+        when(omdbService.fetchPosterUrlReactive("Interstellar", "Film")).thenReturn(Mono.empty());
+
+        // Act + Assert
+        client.put().uri("/v2/Watchlist/{id}", item.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\":\"Interstellar\",\"type\":\"Film\",\"genre\":\"Sci-Fi\",\"watched\":true,\"rating\":5,\"userId\":" + user.getId() + "}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Interstellar")
+                .jsonPath("$.watched").isEqualTo(true)
+                .jsonPath("$.posterUrl").isEmpty();
+        Watchlist stored = watchlistRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Interstellar", stored.getTitle());
+        // Gezieltes UPDATE ohne sort_key
+        assertEquals(item.getSortKey(), stored.getSortKey());
+    }
+
+    @Test
+    void testDeleteWatchlistItem_OnlyOwner() {
+        // Arrange
+        Watchlist item = watchlistRepository.save(new Watchlist("Inception", "Film", "Sci-Fi", false, 0, "http://example.com/inception.jpg", user));
+
+        // Act + Assert
+        client.delete().uri("/v2/Watchlist/{id}?userId={userId}", item.getId(), user.getId() + 1000)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Boolean.class).isEqualTo(false);
+        client.delete().uri("/v2/Watchlist/{id}?userId={userId}", item.getId(), user.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Boolean.class).isEqualTo(true);
+        assertTrue(watchlistRepository.findById(item.getId()).isEmpty());
+    }
+}
\ No newline at end of file